@@ -0,0 +1,197 @@
+package com.supermax.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 21:50
+ * @Description 为带有@GET、@POST等注解的http接口生成实现类：接口名_QsImpl
+ * 实现类在类加载时取一次Method，之后每次调用直接交给HttpAdapter.startRequest，不再经过Proxy和InvocationHandler
+ * 生成的类名规则和HttpAdapter.create中查找的规则一致，嵌套接口的'$'替换为'_'
+ */
+public class HttpServiceProcessor extends AbstractProcessor {
+    static final String SUFFIX        = "_QsImpl";
+    private static final String ASPECT_PACKAGE = "com.supermax.base.common.aspect.";
+    private static final String HTTP_ADAPTER   = "com.supermax.base.common.http.HttpAdapter";
+    private static final List<String> VERBS = Arrays.asList("GET", "POST", "PUT", "DELETE", "HEAD", "PATCH");
+
+    private Filer    filer;
+    private Messager messager;
+    private Elements elementUtils;
+    private Types    typeUtils;
+
+    @Override public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        filer = processingEnv.getFiler();
+        messager = processingEnv.getMessager();
+        elementUtils = processingEnv.getElementUtils();
+        typeUtils = processingEnv.getTypeUtils();
+    }
+
+    @Override public Set<String> getSupportedAnnotationTypes() {
+        Set<String> types = new HashSet<>();
+        for (String verb : VERBS) {
+            types.add(ASPECT_PACKAGE + verb);
+        }
+        return types;
+    }
+
+    @Override public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> services = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                Element enclosing = element.getEnclosingElement();
+                if (element.getKind() == ElementKind.METHOD && enclosing.getKind() == ElementKind.INTERFACE) {
+                    services.add((TypeElement) enclosing);
+                }
+            }
+        }
+        for (TypeElement service : services) {
+            if (!checkService(service)) continue;
+            try {
+                writeService(service);
+            } catch (IOException e) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "generate " + implName(service) + " failed:" + e.getMessage(), service);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 和HttpAdapter.create的校验保持一致，不满足时交给运行时的Proxy报错
+     */
+    private boolean checkService(TypeElement service) {
+        if (!service.getInterfaces().isEmpty() || !service.getTypeParameters().isEmpty()) {
+            messager.printMessage(Diagnostic.Kind.WARNING, "skip " + service.getQualifiedName() + ", http interface can not extend other interface or declare type parameters", service);
+            return false;
+        }
+        for (Element element : service.getEnclosedElements()) {
+            if (element.getKind() != ElementKind.METHOD || element.getModifiers().contains(Modifier.STATIC)) continue;
+            if (!((ExecutableElement) element).getTypeParameters().isEmpty()) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "http method can not declare type parameters", element);
+                return false;
+            }
+        }
+        if (service.getModifiers().contains(Modifier.PRIVATE)) {
+            messager.printMessage(Diagnostic.Kind.WARNING, "skip private interface " + service.getQualifiedName(), service);
+            return false;
+        }
+        return true;
+    }
+
+    private void writeService(TypeElement service) throws IOException {
+        String packageName = elementUtils.getPackageOf(service).getQualifiedName().toString();
+        String implName = implName(service);
+        String serviceName = service.getQualifiedName().toString();
+
+        StringBuilder methods = new StringBuilder();
+        StringBuilder fields = new StringBuilder();
+        StringBuilder lookups = new StringBuilder();
+        int index = 0;
+        for (Element element : service.getEnclosedElements()) {
+            if (element.getKind() != ElementKind.METHOD || element.getModifiers().contains(Modifier.STATIC)) continue;
+            ExecutableElement method = (ExecutableElement) element;
+            String field = "METHOD_" + index++;
+            fields.append("    private static final Method ").append(field).append(";\n");
+
+            StringBuilder parameterTypes = new StringBuilder();
+            StringBuilder parameters = new StringBuilder();
+            StringBuilder args = new StringBuilder();
+            List<? extends VariableElement> variables = method.getParameters();
+            for (int i = 0; i < variables.size(); i++) {
+                VariableElement variable = variables.get(i);
+                if (i > 0) {
+                    parameterTypes.append(", ");
+                    parameters.append(", ");
+                    args.append(", ");
+                }
+                parameterTypes.append(typeUtils.erasure(variable.asType())).append(".class");
+                parameters.append("final ").append(variable.asType()).append(' ').append(variable.getSimpleName());
+                args.append(variable.getSimpleName());
+            }
+            lookups.append("            ").append(field).append(" = ").append(serviceName).append(".class.getMethod(\"")
+                    .append(method.getSimpleName()).append('"');
+            if (parameterTypes.length() > 0) lookups.append(", ").append(parameterTypes);
+            lookups.append(");\n");
+
+            TypeMirror returnType = method.getReturnType();
+            String call = "adapter.startRequest(" + field + ", " + (variables.isEmpty() ? "null" : "new Object[]{" + args + "}") + ", tag, group)";
+            methods.append("\n    @Override public ").append(returnType).append(' ').append(method.getSimpleName())
+                    .append('(').append(parameters).append(") {\n");
+            if (returnType.getKind() == TypeKind.VOID) {
+                methods.append("        ").append(call).append(";\n");
+            } else {
+                methods.append("        return (").append(castType(returnType)).append(") ").append(call).append(";\n");
+            }
+            methods.append("    }\n");
+        }
+
+        Writer writer = filer.createSourceFile(packageName.isEmpty() ? implName : packageName + "." + implName, service).openWriter();
+        try {
+            if (!packageName.isEmpty()) writer.write("package " + packageName + ";\n\n");
+            writer.write("import " + HTTP_ADAPTER + ";\n\n");
+            writer.write("import java.lang.reflect.Method;\n\n");
+            writer.write("/**\n * Generated by " + HttpServiceProcessor.class.getSimpleName() + ", do not edit.\n */\n");
+            writer.write("@SuppressWarnings(\"unchecked\")\n");
+            writer.write("public final class " + implName + " implements " + serviceName + " {\n");
+            writer.write(fields.toString());
+            writer.write("\n    static {\n        try {\n");
+            writer.write(lookups.toString());
+            writer.write("        } catch (NoSuchMethodException e) {\n            throw new AssertionError(e);\n        }\n    }\n\n");
+            writer.write("    private final HttpAdapter adapter;\n    private final Object      tag;\n    private final Object      group;\n\n");
+            writer.write("    public " + implName + "(HttpAdapter adapter, Object tag, Object group) {\n");
+            writer.write("        this.adapter = adapter;\n        this.tag = tag;\n        this.group = group;\n    }\n");
+            writer.write(methods.toString());
+            writer.write("}\n");
+        } finally {
+            writer.close();
+        }
+    }
+
+    private String castType(TypeMirror type) {
+        if (type.getKind().isPrimitive()) return typeUtils.boxedClass(typeUtils.getPrimitiveType(type.getKind())).getQualifiedName().toString();
+        return type.toString();
+    }
+
+    /**
+     * com.a.Outer.Inner生成com.a.Outer_Inner_QsImpl
+     */
+    static String implName(TypeElement service) {
+        StringBuilder name = new StringBuilder(service.getSimpleName());
+        Element enclosing = service.getEnclosingElement();
+        while (!(enclosing instanceof PackageElement)) {
+            name.insert(0, enclosing.getSimpleName() + "_");
+            enclosing = enclosing.getEnclosingElement();
+        }
+        return name.append(SUFFIX).toString();
+    }
+}
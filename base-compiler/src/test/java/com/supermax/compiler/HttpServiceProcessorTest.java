@@ -0,0 +1,106 @@
+package com.supermax.compiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Test;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+/**
+ * 生成的_QsImpl需要能和接口一起编译，覆盖嵌套接口、基本类型返回值和void方法
+ */
+public class HttpServiceProcessorTest {
+    private static final JavaFileObject GET = JavaFileObjects.forSourceLines("com.supermax.base.common.aspect.GET",
+            "package com.supermax.base.common.aspect;",
+            "public @interface GET {",
+            "    String value();",
+            "}");
+
+    private static final JavaFileObject POST = JavaFileObjects.forSourceLines("com.supermax.base.common.aspect.POST",
+            "package com.supermax.base.common.aspect;",
+            "public @interface POST {",
+            "    String value();",
+            "}");
+
+    private static final JavaFileObject HTTP_ADAPTER = JavaFileObjects.forSourceLines("com.supermax.base.common.http.HttpAdapter",
+            "package com.supermax.base.common.http;",
+            "import java.lang.reflect.Method;",
+            "public class HttpAdapter {",
+            "    public Object startRequest(Method method, Object[] args, Object requestTag, Object group) {",
+            "        return null;",
+            "    }",
+            "}");
+
+    @Test public void generatesNestedService() {
+        JavaFileObject service = JavaFileObjects.forSourceLines("test.Outer",
+                "package test;",
+                "import com.supermax.base.common.aspect.GET;",
+                "import com.supermax.base.common.aspect.POST;",
+                "import java.util.List;",
+                "public class Outer {",
+                "    public interface Api {",
+                "        @GET(\"/count\") int count(long since);",
+                "        @GET(\"/enabled\") boolean enabled();",
+                "        @POST(\"/track\") void track(String event, int[] values);",
+                "        @GET(\"/names\") List<String> names(List<Integer> ids);",
+                "    }",
+                "}");
+
+        Compilation compilation = javac().withProcessors(new HttpServiceProcessor()).compile(GET, POST, HTTP_ADAPTER, service);
+        assertThat(compilation).succeededWithoutWarnings();
+        assertThat(compilation).generatedSourceFile("test.Outer_Api_QsImpl").contentsAsUtf8String().contains(
+                "METHOD_0 = test.Outer.Api.class.getMethod(\"count\", long.class);");
+        assertThat(compilation).generatedSourceFile("test.Outer_Api_QsImpl").contentsAsUtf8String().contains(
+                "return (java.lang.Integer) adapter.startRequest(METHOD_0, new Object[]{since}, tag, group);");
+        assertThat(compilation).generatedSourceFile("test.Outer_Api_QsImpl").contentsAsUtf8String().contains(
+                "return (java.lang.Boolean) adapter.startRequest(METHOD_1, null, tag, group);");
+        assertThat(compilation).generatedSourceFile("test.Outer_Api_QsImpl").contentsAsUtf8String().contains(
+                "        adapter.startRequest(METHOD_2, new Object[]{event, values}, tag, group);");
+        assertThat(compilation).generatedSourceFile("test.Outer_Api_QsImpl").contentsAsUtf8String().contains(
+                "getMethod(\"names\", java.util.List.class);");
+    }
+
+    @Test public void generatesTopLevelService() {
+        JavaFileObject service = JavaFileObjects.forSourceLines("test.Api",
+                "package test;",
+                "import com.supermax.base.common.aspect.GET;",
+                "public interface Api {",
+                "    @GET(\"/ping\") void ping();",
+                "}");
+
+        Compilation compilation = javac().withProcessors(new HttpServiceProcessor()).compile(GET, HTTP_ADAPTER, service);
+        assertThat(compilation).succeededWithoutWarnings();
+        assertThat(compilation).generatedSourceFile("test.Api_QsImpl");
+    }
+
+    @Test public void skipsPrivateInterface() {
+        JavaFileObject service = JavaFileObjects.forSourceLines("test.Outer",
+                "package test;",
+                "import com.supermax.base.common.aspect.GET;",
+                "public class Outer {",
+                "    private interface Api {",
+                "        @GET(\"/ping\") void ping();",
+                "    }",
+                "}");
+
+        Compilation compilation = javac().withProcessors(new HttpServiceProcessor()).compile(GET, HTTP_ADAPTER, service);
+        assertThat(compilation).succeeded();
+        assertThat(compilation).hadWarningContaining("skip private interface test.Outer.Api");
+    }
+
+    @Test public void rejectsGenericMethod() {
+        JavaFileObject service = JavaFileObjects.forSourceLines("test.Api",
+                "package test;",
+                "import com.supermax.base.common.aspect.GET;",
+                "public interface Api {",
+                "    @GET(\"/item\") <T> T item();",
+                "}");
+
+        Compilation compilation = javac().withProcessors(new HttpServiceProcessor()).compile(GET, HTTP_ADAPTER, service);
+        assertThat(compilation).hadErrorContaining("http method can not declare type parameters");
+    }
+}
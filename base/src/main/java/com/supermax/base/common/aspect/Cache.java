@@ -0,0 +1,35 @@
+package com.supermax.base.common.aspect;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 14:20
+ * @Description 响应缓存，只能和@GET一起使用，缓存按请求url和身份请求头(Authorization、Cookie)区分，响应的Vary请求头不一致时不命中
+ * 有效期内直接返回缓存，过期后带上If-None-Match/If-Modified-Since重新验证，服务端返回304时复用缓存
+ * 默认不缓存Cache-Control: private的响应和带Authorization的请求，CookieJar在OkHttp内部添加的Cookie不参与区分
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface Cache {
+    /**
+     * 缓存有效期，单位秒
+     */
+    long maxAge();
+
+    /**
+     * 过期后仍可直接使用旧缓存的时长，单位秒，期间先返回旧缓存，同时在后台重新验证
+     */
+    long staleWhileRevalidate() default 0;
+
+    /**
+     * 允许缓存Cache-Control: private的响应和带Authorization的请求，缓存仍按身份请求头区分
+     */
+    boolean allowPrivate() default false;
+}
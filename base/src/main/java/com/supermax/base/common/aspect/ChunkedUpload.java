@@ -0,0 +1,35 @@
+package com.supermax.base.common.aspect;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 22:50
+ * @Description @Body File分块上传，每块一个请求，带Content-Range: bytes start-end/total和会话请求头
+ * 已确认的分块记录在本地，失败或取消后再次调用同一方法上传同一文件时只上传剩余分块
+ * 最后一个被确认的分块的响应作为接口返回值解析
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface ChunkedUpload {
+    /**
+     * 分块大小，单位字节
+     */
+    long chunkSize() default 1024 * 1024;
+
+    /**
+     * 最多同时上传的分块数
+     */
+    int parallel() default 2;
+
+    /**
+     * 会话请求头名称，同一文件的所有分块带相同的值
+     */
+    String sessionHeader() default "Upload-Id";
+}
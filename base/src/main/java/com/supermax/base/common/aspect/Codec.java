@@ -0,0 +1,23 @@
+package com.supermax.base.common.aspect;
+
+import com.supermax.base.common.http.Converter;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 18:52
+ * @Description 指定接口方法使用的编解码器，对应的Factory需要已经注册到HttpAdapter
+ * 例如：@Codec(MessagePackConverterFactory.class)
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface Codec {
+    Class<? extends Converter.Factory> value();
+}
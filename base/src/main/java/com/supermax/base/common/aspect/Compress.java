@@ -0,0 +1,26 @@
+package com.supermax.base.common.aspect;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 23:31
+ * @Description 请求体压缩，覆盖HttpBuilder.setCompress的全局配置，@Compress(CompressType.NONE)表示该接口不压缩
+ * 请求体小于minSize时不压缩；@Body File不会被压缩
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface Compress {
+    CompressType value() default CompressType.GZIP;
+
+    /**
+     * 单位字节
+     */
+    long minSize() default 1024;
+}
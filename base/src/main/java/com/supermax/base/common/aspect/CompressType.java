@@ -0,0 +1,18 @@
+package com.supermax.base.common.aspect;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 23:30
+ * @Description 请求体压缩方式，encoding为Content-Encoding的值
+ */
+public enum CompressType {
+    NONE(null),
+    GZIP("gzip"),
+    DEFLATE("deflate");
+
+    public final String encoding;
+
+    CompressType(String encoding) {
+        this.encoding = encoding;
+    }
+}
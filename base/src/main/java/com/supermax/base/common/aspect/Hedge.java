@@ -0,0 +1,32 @@
+package com.supermax.base.common.aspect;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/19 00:40
+ * @Description 对冲请求，只支持幂等的@GET和@HEAD
+ * 请求发出后超过该方法最近耗时的percentile分位仍未响应时，再发一个相同的请求，先响应的被采用，另一个被取消
+ * 对冲请求数不超过正常请求数的budget，最近的样本少于minSamples时不对冲
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface Hedge {
+    /**
+     * 触发对冲的耗时分位，取值(0, 1)
+     */
+    double percentile() default 0.95;
+
+    /**
+     * 对冲请求占正常请求的最大比例
+     */
+    double budget() default 0.05;
+
+    int minSamples() default 20;
+}
@@ -0,0 +1,24 @@
+package com.supermax.base.common.aspect;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 21:10
+ * @Description 离线写请求，没有网络或请求发生IO异常时保存到磁盘日志，网络恢复后按顺序重放
+ * 每个请求都会带上幂等键请求头，服务端可以据此去重；只支持void返回值的非GET、HEAD请求
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface Offline {
+    /**
+     * 幂等键请求头名称
+     */
+    String idempotencyHeader() default "Idempotency-Key";
+}
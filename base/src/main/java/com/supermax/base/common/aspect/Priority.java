@@ -0,0 +1,21 @@
+package com.supermax.base.common.aspect;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 17:06
+ * @Description 请求优先级，可用于接口方法和@ThreadPoint(ThreadType.HTTP)方法
+ * 接口方法未声明时，继承所在http线程任务的优先级，HttpBuilder.setPriority优先级最高
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface Priority {
+    PriorityType value() default PriorityType.NORMAL;
+}
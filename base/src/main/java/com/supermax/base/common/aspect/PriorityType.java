@@ -0,0 +1,23 @@
+package com.supermax.base.common.aspect;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 17:05
+ * @Description 任务优先级
+ * 排队顺序按 入队时间 + agingMs 计算，低优先级等待足够久后会排到新来的高优先级前面，不会被饿死
+ */
+public enum PriorityType {
+    HIGH(0),
+    NORMAL(500),
+    LOW(2000),
+    BACKGROUND(8000);
+
+    /**
+     * 与HIGH相比，排队时需要多等待的时长，单位毫秒
+     */
+    public final long agingMs;
+
+    PriorityType(long agingMs) {
+        this.agingMs = agingMs;
+    }
+}
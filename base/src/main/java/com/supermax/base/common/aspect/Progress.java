@@ -0,0 +1,18 @@
+package com.supermax.base.common.aspect;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 22:52
+ * @Description 上传进度回调参数，参数类型为QsProgressListener，只对@Body File生效
+ */
+@Documented
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Progress {
+}
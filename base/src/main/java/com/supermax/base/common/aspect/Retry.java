@@ -0,0 +1,40 @@
+package com.supermax.base.common.aspect;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 16:30
+ * @Description 请求失败重试，IO异常和on中的响应码会触发重试
+ * 重试间隔为指数退避加随机抖动：random(0, min(maxBackoffMs, backoffMs * 2^n))，响应头有Retry-After时至少等待该时长
+ * 等待期间不占用线程，重试用完后才会抛出QsExceptionType.HTTP_ERROR
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface Retry {
+    /**
+     * 最多重试次数
+     */
+    int times();
+
+    /**
+     * 退避基数，单位毫秒
+     */
+    long backoffMs() default 500;
+
+    /**
+     * 单次等待上限，单位毫秒，Retry-After超过该值时不再重试
+     */
+    long maxBackoffMs() default 30000;
+
+    /**
+     * 需要重试的响应码
+     */
+    int[] on() default {408, 429, 500, 502, 503, 504};
+}
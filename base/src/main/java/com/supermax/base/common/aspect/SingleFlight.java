@@ -0,0 +1,20 @@
+package com.supermax.base.common.aspect;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 15:40
+ * @Description 合并相同的并发请求，请求方式、url、请求头和表单参数都相同时只发起一次网络请求，所有调用方共用同一个解析结果
+ * 也可以通过HttpAdapter.setSingleFlightEnabled(true)全局开启，返回值为Response的方法和带@Body请求体的请求不会合并
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface SingleFlight {
+}
@@ -0,0 +1,25 @@
+package com.supermax.base.common.aspect;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 20:12
+ * @Description 配置QsStream返回值的解析方式，不添加时响应体本身就是数组，每20个元素回调一次
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface StreamArray {
+    /**
+     * 数组在响应体中的位置，用'.'分隔，例如"data.list"
+     */
+    String path() default "";
+
+    int chunkSize() default 20;
+}
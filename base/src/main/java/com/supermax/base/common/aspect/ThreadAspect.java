@@ -3,20 +3,28 @@ package com.supermax.base.common.aspect;
 import android.os.Looper;
 
 import com.supermax.base.common.exception.QsException;
+import com.supermax.base.common.exception.QsExceptionType;
 import com.supermax.base.common.log.L;
+import com.supermax.base.common.threadpoll.QsThreadPollHelper;
 import com.supermax.base.common.utils.QsHelper;
 
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * @Author yinzh
  * @Date   2018/10/16 15:08
  * @Description: AOP 线程切面类
+ * WORK、HTTP、SINGLE_WORK任务登记在方法所属对象名下，presenter解绑或页面销毁时取消
+ * 声明了debounceMs或throttleMs的方法先经过限流，只有最后一次调用的参数会被执行
+ * 线程池拒绝任务时不向调用方抛出异常，按QsException交给方法所属对象的methodError
  */
 @Aspect
 public class ThreadAspect {
@@ -25,55 +33,152 @@ public class ThreadAspect {
     private static final String POINTCUT_METHOD_HTTP = "execution(@com.supermax.base.common.aspect.ThreadPoint(com.supermax.base.common.aspect.ThreadType.HTTP) * *(..))";
     private static final String POINTCUT_METHOD_WORK = "execution(@com.supermax.base.common.aspect.ThreadPoint(com.supermax.base.common.aspect.ThreadType.WORK) * *(..))";
     private static final String POINTCUT_METHOD_SINGLE_WORK = "execution(@com.supermax.base.common.aspect.ThreadPoint(com.supermax.base.common.aspect.ThreadType.SINGLE_WORK) * *(..))";
+    private static final String POINTCUT_METHOD_IDLE = "execution(@com.supermax.base.common.aspect.ThreadPoint(com.supermax.base.common.aspect.ThreadType.IDLE) * *(..))";
 
-    @Around(POINTCUT_METHOD_HTTP)
+    @Around(POINTCUT_METHOD_MAIN)
     public Object onMainExecutor(final ProceedingJoinPoint joinPoint) throws Throwable {
+        if (limit(joinPoint, ThreadType.MAIN)) return null;
         if (Thread.currentThread() == Looper.getMainLooper().getThread()) {
             return joinPoint.proceed();
         } else {
-            QsHelper.getInstance().getThreadHelper().getMainThread().execute(new Runnable() {
-                @Override
-                public void run() {
-                    L.i("ThreadAspect", joinPoint.toShortString() + " in main thread... ");
-                    startOriginalMethod(joinPoint);
-                }
-            });
+            runOnMain(joinPoint);
         }
         return null;
     }
 
     @Around(POINTCUT_METHOD_HTTP) public Object onCheckNetHttpExecutor(final ProceedingJoinPoint joinPoint) throws Throwable {
-        QsHelper.getInstance().getThreadHelper().getHttpThreadPoll().execute(new Runnable() {
+        if (!limit(joinPoint, ThreadType.HTTP)) runOnHttp(joinPoint);
+        return null;
+    }
+
+    @Around(POINTCUT_METHOD_WORK) public Object onWorkExecutor(final ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!limit(joinPoint, ThreadType.WORK)) runOnWork(joinPoint);
+        return null;
+    }
+
+    @Around(POINTCUT_METHOD_SINGLE_WORK) public Object onSingleWorkExecutor(final ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!limit(joinPoint, ThreadType.SINGLE_WORK)) runOnSingleWork(joinPoint);
+        return null;
+    }
+
+    /**
+     * 即使已经在主线程也要推迟到空闲时执行
+     */
+    @Around(POINTCUT_METHOD_IDLE) public Object onIdleExecutor(final ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!limit(joinPoint, ThreadType.IDLE)) runOnIdle(joinPoint);
+        return null;
+    }
+
+    /**
+     * 声明了debounceMs或throttleMs时交给限流器，按方法所属对象和方法分别计时，被覆盖的调用不会进入任何队列
+     *
+     * @return true表示本次调用已由限流器接管
+     */
+    private boolean limit(final ProceedingJoinPoint joinPoint, final ThreadType type) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        ThreadPoint threadPoint = method.getAnnotation(ThreadPoint.class);
+        if (threadPoint == null || (threadPoint.debounceMs() <= 0 && threadPoint.throttleMs() <= 0)) return false;
+        Object owner = joinPoint.getTarget() == null ? method.getDeclaringClass() : joinPoint.getTarget();
+        Runnable dispatch = new Runnable() {
             @Override public void run() {
-                L.i("ThreadAspect", joinPoint.toShortString() + " in http thread... ");
+                dispatch(type, joinPoint);
+            }
+        };
+        QsThreadPollHelper threadHelper = QsHelper.getInstance().getThreadHelper();
+        if (threadPoint.debounceMs() > 0) {
+            threadHelper.debounce(owner, method, threadPoint.debounceMs(), dispatch);
+        } else {
+            threadHelper.throttle(owner, method, threadPoint.throttleMs(), dispatch);
+        }
+        return true;
+    }
+
+    private void dispatch(ThreadType type, ProceedingJoinPoint joinPoint) {
+        switch (type) {
+            case MAIN:
+                if (Thread.currentThread() == Looper.getMainLooper().getThread()) {
+                    startOriginalMethod(joinPoint);
+                } else {
+                    runOnMain(joinPoint);
+                }
+                break;
+            case HTTP:
+                runOnHttp(joinPoint);
+                break;
+            case WORK:
+                runOnWork(joinPoint);
+                break;
+            case SINGLE_WORK:
+                runOnSingleWork(joinPoint);
+                break;
+            case IDLE:
+                runOnIdle(joinPoint);
+                break;
+        }
+    }
+
+    private void runOnMain(final ProceedingJoinPoint joinPoint) {
+        QsThreadPollHelper threadHelper = QsHelper.getInstance().getThreadHelper();
+        Executor executor = threadHelper.isMainFrameAligned() ? threadHelper.getFrameExecutor() : threadHelper.getMainThread();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                L.i("ThreadAspect", joinPoint.toShortString() + " in main thread... ");
                 startOriginalMethod(joinPoint);
             }
         });
-        return null;
     }
 
-    @Around(POINTCUT_METHOD_WORK) public Object onWorkExecutor(final ProceedingJoinPoint joinPoint) throws Throwable {
-        QsHelper.getInstance().getThreadHelper().getWorkThreadPoll().execute(new Runnable() {
+    private void runOnHttp(final ProceedingJoinPoint joinPoint) {
+        Priority priority = ((MethodSignature) joinPoint.getSignature()).getMethod().getAnnotation(Priority.class);
+        submit(joinPoint, ThreadType.HTTP, null, new Runnable() {
+            @Override public void run() {
+                L.i("ThreadAspect", joinPoint.toShortString() + " in http thread... ");
+                startOriginalMethod(joinPoint);
+            }
+        }, priority == null ? PriorityType.NORMAL : priority.value());
+    }
+
+    private void runOnWork(final ProceedingJoinPoint joinPoint) {
+        submit(joinPoint, ThreadType.WORK, null, new Runnable() {
             @Override public void run() {
                 L.i("ThreadAspect", joinPoint.toShortString() + " in work thread... ");
                 startOriginalMethod(joinPoint);
             }
-        });
-        return null;
+        }, null);
     }
 
-    @Around(POINTCUT_METHOD_SINGLE_WORK) public Object onSingleWorkExecutor(final ProceedingJoinPoint joinPoint) throws Throwable {
-        QsHelper.getInstance().getThreadHelper().getSingleThreadPoll().execute(new Runnable() {
+    private void runOnSingleWork(final ProceedingJoinPoint joinPoint) {
+        ThreadPoint threadPoint = ((MethodSignature) joinPoint.getSignature()).getMethod().getAnnotation(ThreadPoint.class);
+        submit(joinPoint, ThreadType.SINGLE_WORK, threadPoint == null ? null : threadPoint.key(), new Runnable() {
             @Override public void run() {
                 L.i("ThreadAspect", joinPoint.toShortString() + " in single work thread... ");
                 startOriginalMethod(joinPoint);
             }
-        });
-        return null;
+        }, null);
     }
 
+    /**
+     * 队列已满或线程池已关闭时任务被拒绝，调用方多在主线程，不能把异常抛回去
+     */
+    private void submit(ProceedingJoinPoint joinPoint, ThreadType type, String key, Runnable runnable, PriorityType priority) {
+        try {
+            QsHelper.getInstance().getThreadHelper().submit(type, key, joinPoint.getTarget(), runnable, priority);
+        } catch (RejectedExecutionException e) {
+            L.e("ThreadAspect", joinPoint.toShortString() + " rejected by " + type + " thread poll... " + e.getMessage());
+            methodError(joinPoint.getTarget(), new QsException(QsExceptionType.UNEXPECTED, null, type + " thread poll rejected " + joinPoint.toShortString()));
+        }
+    }
 
-
+    private void runOnIdle(final ProceedingJoinPoint joinPoint) {
+        ThreadPoint threadPoint = ((MethodSignature) joinPoint.getSignature()).getMethod().getAnnotation(ThreadPoint.class);
+        QsHelper.getInstance().getThreadHelper().getIdleExecutor().execute(new Runnable() {
+            @Override public void run() {
+                L.i("ThreadAspect", joinPoint.toShortString() + " in main thread idle... ");
+                startOriginalMethod(joinPoint);
+            }
+        }, threadPoint == null ? 5000 : threadPoint.deadlineMs());
+    }
 
     /**
      * 执行原始方法 将异常映射到{@link com.supermax.base.mvp.presenter.QsPresenter#
@@ -84,31 +189,35 @@ public class ThreadAspect {
             joinPoint.proceed();
 
 
-        } catch (final QsException e) {
-            try {
-                final Object target = joinPoint.getTarget();
-                final Method methodError = target.getClass().getMethod("methodError", QsException.class);
-                if (methodError != null) {
-                    QsHelper.getInstance().getThreadHelper().getMainThread().execute(new Runnable() {
-                        @Override
-                        public void run() {
-                            try {
-                                methodError.invoke(target, e);
-                            } catch (IllegalAccessException e1) {
-                                e1.printStackTrace();
-                            } catch (InvocationTargetException e1) {
-                                e1.printStackTrace();
-                            }
-                        }
-                    });
-                }
-
-            } catch (NoSuchMethodException e1) {
-                e1.printStackTrace();
-            }
+        } catch (QsException e) {
+            methodError(joinPoint.getTarget(), e);
         } catch (Throwable throwable) {
             throwable.printStackTrace();
         }
 
     }
+
+    /**
+     * 在主线程调用target的methodError(QsException)，没有该方法时忽略
+     */
+    private void methodError(final Object target, final QsException e) {
+        if (target == null) return;
+        try {
+            final Method methodError = target.getClass().getMethod("methodError", QsException.class);
+            QsHelper.getInstance().getThreadHelper().getMainThread().execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        methodError.invoke(target, e);
+                    } catch (IllegalAccessException e1) {
+                        e1.printStackTrace();
+                    } catch (InvocationTargetException e1) {
+                        e1.printStackTrace();
+                    }
+                }
+            });
+        } catch (NoSuchMethodException e1) {
+            e1.printStackTrace();
+        }
+    }
 }
@@ -11,8 +11,29 @@ import java.lang.annotation.Target;
  * @Description: 线程切点
  */
 @Target(ElementType.METHOD)
-@Retention(RetentionPolicy.CLASS)
+@Retention(RetentionPolicy.RUNTIME)
 public @interface ThreadPoint {
     ThreadType value();
 
+    /**
+     * 只对SINGLE_WORK生效：同一个key的方法按调用顺序串行执行，不同key之间并行，为空时使用全局默认key
+     */
+    String key() default "";
+
+    /**
+     * 只对IDLE生效：最长推迟时间，单位毫秒，到期后不管主线程是否空闲都会执行
+     */
+    long deadlineMs() default 5000;
+
+    /**
+     * 防抖，单位毫秒：同一个对象的该方法停止调用debounceMs后，只执行最后一次调用
+     */
+    long debounceMs() default 0;
+
+    /**
+     * 节流，单位毫秒：窗口内第一次调用立即执行，之后的调用只保留最后一次，在窗口结束时执行
+     * 和debounceMs同时声明时debounceMs生效
+     */
+    long throttleMs() default 0;
+
 }
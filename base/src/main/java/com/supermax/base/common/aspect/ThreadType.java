@@ -9,5 +9,9 @@ public enum  ThreadType {
     MAIN,
     HTTP,
     WORK,
-    SINGLE_WORK
+    SINGLE_WORK,
+    /**
+     * 主线程空闲时执行，见IdleExecutor
+     */
+    IDLE
 }
@@ -0,0 +1,76 @@
+package com.supermax.base.common.http;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 17:50
+ * @Description 按key索引进行中的HttpCall，取消时直接找到对应的调用，不需要遍历OkHttp的Dispatcher
+ * 每个key一个Group，注册、移除都只锁这个Group，Group变空后从索引中摘除并标记失效
+ */
+final class CallIndex {
+    private final ConcurrentHashMap<Object, Group> groups = new ConcurrentHashMap<>();
+
+    void register(Object key, HttpCall<?> httpCall) {
+        while (true) {
+            Group group = groups.get(key);
+            if (group == null) {
+                Group newGroup = new Group();
+                group = groups.putIfAbsent(key, newGroup);
+                if (group == null) group = newGroup;
+            }
+            synchronized (group) {
+                if (!group.removed) {
+                    group.calls.add(httpCall);
+                    return;
+                }
+            }
+        }
+    }
+
+    void unregister(Object key, HttpCall<?> httpCall) {
+        Group group = groups.get(key);
+        if (group == null) return;
+        synchronized (group) {
+            group.calls.remove(httpCall);
+            if (group.calls.isEmpty() && !group.removed) {
+                group.removed = true;
+                groups.remove(key, group);
+            }
+        }
+    }
+
+    /**
+     * 取消key对应的所有调用
+     *
+     * @return 取消的数量
+     */
+    int cancel(Object key) {
+        Group group = groups.remove(key);
+        if (group == null) return 0;
+        List<HttpCall<?>> calls;
+        synchronized (group) {
+            group.removed = true;
+            calls = new ArrayList<>(group.calls);
+            group.calls.clear();
+        }
+        for (HttpCall<?> httpCall : calls) {
+            httpCall.cancel();
+        }
+        return calls.size();
+    }
+
+    void cancelAll() {
+        for (Object key : groups.keySet()) {
+            cancel(key);
+        }
+    }
+
+    private static final class Group {
+        final HashSet<HttpCall<?>> calls = new HashSet<>();
+        boolean                    removed;
+    }
+}
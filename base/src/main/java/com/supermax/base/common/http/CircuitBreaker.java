@@ -0,0 +1,156 @@
+package com.supermax.base.common.http;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/19 00:10
+ * @Description 单个terminal的熔断器，按滚动窗口统计失败率和慢请求比例
+ * CLOSED：正常放行，窗口内请求数达到minRequests且失败率或慢请求比例超过阈值时打开
+ * OPEN：直接拒绝，openMs后进入HALF_OPEN，连续打开时等待时间翻倍，不超过maxOpenMs
+ * HALF_OPEN：只放行一个探测请求，成功则关闭，失败则重新打开
+ */
+final class CircuitBreaker {
+    private static final int BUCKET_COUNT = 10;
+
+    final         String        terminal;
+    final         int           weight;
+    private final TerminalGroup config;
+    private final long          bucketMs;
+    private final long[]        bucketStarts = new long[BUCKET_COUNT];
+    private final int[]         totals       = new int[BUCKET_COUNT];
+    private final int[]         failures     = new int[BUCKET_COUNT];
+    private final int[]         slows        = new int[BUCKET_COUNT];
+
+    private TerminalGroup.State state = TerminalGroup.State.CLOSED;
+    private long                openUntil;
+    private int                 openCount;
+    private long                probeStartedAt;
+    private boolean             probing;
+
+    CircuitBreaker(String terminal, int weight, TerminalGroup config) {
+        this.terminal = terminal;
+        this.weight = weight;
+        this.config = config;
+        this.bucketMs = Math.max(1, config.windowMs / BUCKET_COUNT);
+    }
+
+    /**
+     * 不占用探测名额，只判断当前是否可能放行
+     */
+    synchronized boolean isAvailable(long now) {
+        switch (state) {
+            case OPEN:
+                return now >= openUntil;
+            case HALF_OPEN:
+                return !probing || now - probeStartedAt > config.openMs;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * 放行时返回true，HALF_OPEN状态下会占用唯一的探测名额；探测请求超过openMs没有结果时允许重新探测
+     */
+    synchronized boolean tryAcquire(long now) {
+        TerminalGroup.State old = state;
+        if (state == TerminalGroup.State.OPEN) {
+            if (now < openUntil) return false;
+            state = TerminalGroup.State.HALF_OPEN;
+            probing = false;
+        }
+        if (state == TerminalGroup.State.HALF_OPEN) {
+            if (probing && now - probeStartedAt <= config.openMs) {
+                notifyIfChanged(old);
+                return false;
+            }
+            probing = true;
+            probeStartedAt = now;
+        }
+        notifyIfChanged(old);
+        return true;
+    }
+
+    synchronized void onSuccess(long latencyMs, long now) {
+        TerminalGroup.State old = state;
+        record(now, false, latencyMs >= config.slowCallMs);
+        if (state == TerminalGroup.State.HALF_OPEN) {
+            state = TerminalGroup.State.CLOSED;
+            probing = false;
+            openCount = 0;
+            clearWindow();
+        } else if (state == TerminalGroup.State.CLOSED) {
+            evaluate(now);
+        }
+        notifyIfChanged(old);
+    }
+
+    synchronized void onFailure(long latencyMs, long now) {
+        TerminalGroup.State old = state;
+        record(now, true, latencyMs >= config.slowCallMs);
+        if (state == TerminalGroup.State.HALF_OPEN) {
+            open(now);
+        } else if (state == TerminalGroup.State.CLOSED) {
+            evaluate(now);
+        }
+        notifyIfChanged(old);
+    }
+
+    synchronized TerminalGroup.TerminalState snapshot(long now) {
+        int total = 0, failed = 0, slow = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (now - bucketStarts[i] < config.windowMs) {
+                total += totals[i];
+                failed += failures[i];
+                slow += slows[i];
+            }
+        }
+        return new TerminalGroup.TerminalState(terminal, state, total, total == 0 ? 0 : (float) failed / total, total == 0 ? 0 : (float) slow / total);
+    }
+
+    private void record(long now, boolean failed, boolean slow) {
+        long start = now - now % bucketMs;
+        int index = (int) ((now / bucketMs) % BUCKET_COUNT);
+        if (bucketStarts[index] != start) {
+            bucketStarts[index] = start;
+            totals[index] = 0;
+            failures[index] = 0;
+            slows[index] = 0;
+        }
+        totals[index]++;
+        if (failed) failures[index]++;
+        if (slow) slows[index]++;
+    }
+
+    private void evaluate(long now) {
+        int total = 0, failed = 0, slow = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (now - bucketStarts[i] < config.windowMs) {
+                total += totals[i];
+                failed += failures[i];
+                slow += slows[i];
+            }
+        }
+        if (total < config.minRequests) return;
+        if (failed >= total * config.failureRateThreshold || slow >= total * config.slowRateThreshold) open(now);
+    }
+
+    private void open(long now) {
+        state = TerminalGroup.State.OPEN;
+        probing = false;
+        openUntil = now + Math.min(config.maxOpenMs, config.openMs << Math.min(openCount, 16));
+        openCount++;
+        clearWindow();
+    }
+
+    private void clearWindow() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            bucketStarts[i] = 0;
+            totals[i] = 0;
+            failures[i] = 0;
+            slows[i] = 0;
+        }
+    }
+
+    private void notifyIfChanged(TerminalGroup.State old) {
+        if (old != state) config.onStateChanged(terminal, old, state);
+    }
+}
@@ -0,0 +1,52 @@
+package com.supermax.base.common.http;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 18:50
+ * @Description 请求体、响应体的编解码器，通过HttpAdapter.addConverterFactory注册
+ * 解码时优先选择能处理响应Content-Type的编解码器，否则使用@Codec指定的，再否则按注册顺序取第一个
+ */
+public interface Converter {
+
+    /**
+     * 编码后的Content-Type，@Codec指定时也作为请求的Accept
+     */
+    MediaType contentType();
+
+    /**
+     * 是否能解析该Content-Type的响应体
+     *
+     * @param contentType 响应未声明时为null
+     */
+    boolean canRead(MediaType contentType);
+
+    /**
+     * 解析响应体，response由框架关闭
+     */
+    Object read(HttpResponse response) throws IOException;
+
+    /**
+     * 生成请求体
+     *
+     * @param mimeType @Body中声明的mimeType
+     */
+    RequestBody write(Object value, String mimeType) throws IOException;
+
+    interface Factory {
+        /**
+         * 解析接口方法时调用一次，结果会被缓存
+         *
+         * @param type        返回值类型或@Body参数的类型
+         * @param annotations 方法上的注解
+         * @return 不支持该类型时返回null
+         */
+        Converter create(Type type, Annotation[] annotations);
+    }
+}
@@ -0,0 +1,81 @@
+package com.supermax.base.common.http;
+
+import com.supermax.base.common.utils.StreamCloseUtils;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 22:58
+ * @Description 文件请求体，从FileChannel的offset处读取length个字节直接写入请求，边写边统计进度
+ * 分块上传时每块是同一个文件的一个slice
+ */
+final class FileRequestBody extends RequestBody {
+    private static final long BUFFER_SIZE = 8192;
+
+    final         File             file;
+    private final MediaType        contentType;
+    private final long             offset;
+    private final long             length;
+    final         ProgressReporter progress;
+    /**
+     * 上一次writeTo已统计的字节数，OkHttp重发请求时撤回
+     */
+    private       long             reported;
+
+    FileRequestBody(MediaType contentType, File file, long offset, long length, ProgressReporter progress) {
+        this.contentType = contentType;
+        this.file = file;
+        this.offset = offset;
+        this.length = length;
+        this.progress = progress;
+    }
+
+    FileRequestBody slice(long offset, long length) {
+        return new FileRequestBody(contentType, file, offset, length, progress);
+    }
+
+    @Override public MediaType contentType() {
+        return contentType;
+    }
+
+    @Override public long contentLength() {
+        return length;
+    }
+
+    @Override public void writeTo(BufferedSink sink) throws IOException {
+        if (progress != null && reported != 0) {
+            progress.add(-reported);
+            reported = 0;
+        }
+        FileInputStream in = new FileInputStream(file);
+        Source source = null;
+        try {
+            in.getChannel().position(offset);
+            source = Okio.source(in);
+            long remaining = length;
+            while (remaining > 0) {
+                long read = source.read(sink.buffer(), Math.min(BUFFER_SIZE, remaining));
+                if (read == -1) throw new EOFException("file " + file.getPath() + " changed while uploading");
+                sink.emitCompleteSegments();
+                remaining -= read;
+                if (progress != null) {
+                    reported += read;
+                    progress.add(read);
+                }
+            }
+        } finally {
+            StreamCloseUtils.close(source, in);
+        }
+        if (progress != null) progress.flush();
+    }
+}
@@ -0,0 +1,73 @@
+package com.supermax.base.common.http;
+
+import android.text.TextUtils;
+
+import com.google.gson.TypeAdapter;
+import com.supermax.base.common.log.L;
+import com.supermax.base.common.utils.QsHelper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 19:20
+ * @Description 默认的Json编解码，由HttpAdapter注册在最后，支持所有类型
+ */
+public final class GsonConverterFactory implements Converter.Factory {
+    private static final String    TAG            = "GsonConverter";
+    private static final MediaType JSON           = MediaType.parse("application/json; charset=UTF-8");
+    private static final int       MAX_LOG_LENGTH = 16 * 1024;
+
+    private final HttpConverter httpConverter;
+
+    GsonConverterFactory(HttpConverter httpConverter) {
+        this.httpConverter = httpConverter;
+    }
+
+    @Override public Converter create(Type type, Annotation[] annotations) {
+        return new GsonConverter(httpConverter.getAdapter(type));
+    }
+
+    private final class GsonConverter implements Converter {
+        private final TypeAdapter<?> adapter;
+
+        GsonConverter(TypeAdapter<?> adapter) {
+            this.adapter = adapter;
+        }
+
+        @Override public MediaType contentType() {
+            return JSON;
+        }
+
+        @Override public boolean canRead(MediaType contentType) {
+            if (contentType == null) return true;
+            String subtype = contentType.subtype();
+            return "json".equals(subtype) || subtype.endsWith("+json") || "text".equals(contentType.type());
+        }
+
+        @Override public Object read(HttpResponse response) throws IOException {
+            Reader reader = response.openReader();
+            JsonLogReader logReader = null;
+            if (QsHelper.getInstance().getApplication().isLogOpen()) {
+                reader = logReader = new JsonLogReader(reader, MAX_LOG_LENGTH);
+            }
+            try {
+                return httpConverter.readerToObject(reader, adapter);
+            } finally {
+                if (logReader != null) {
+                    L.i(TAG, "url:" + response.getResponse().request().url() + "  响应体 Json:\n" + httpConverter.formatJson(logReader.getLog()) + (logReader.isTruncated() ? "\n..." : ""));
+                }
+            }
+        }
+
+        @Override public RequestBody write(Object value, String mimeType) {
+            return httpConverter.jsonToBody(TextUtils.isEmpty(mimeType) ? JSON.toString() : mimeType, value, value.getClass());
+        }
+    }
+}
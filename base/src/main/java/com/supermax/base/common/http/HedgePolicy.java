@@ -0,0 +1,66 @@
+package com.supermax.base.common.http;
+
+import com.supermax.base.common.aspect.Hedge;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/19 00:45
+ * @Description @Hedge解析后的对冲策略，每个接口方法一份
+ * 耗时直方图每WINDOW个样本轮换一次，分位数取自最近一个样本足够的直方图，只反映最近的耗时分布
+ * 预算为令牌桶：每个正常请求增加budget个令牌，每个对冲请求消耗一个
+ */
+final class HedgePolicy {
+    static final long NO_HEDGE = -1;
+
+    private static final int    WINDOW     = 512;
+    private static final double MAX_TOKENS = 10;
+
+    private final double percentile;
+    private final double budget;
+    private final int    minSamples;
+
+    private volatile HttpMetrics.Histogram current  = new HttpMetrics.Histogram();
+    private volatile HttpMetrics.Histogram previous;
+    private          double                tokens;
+
+    HedgePolicy(Hedge hedge) {
+        this.percentile = hedge.percentile();
+        this.budget = hedge.budget();
+        this.minSamples = hedge.minSamples();
+    }
+
+    /**
+     * 请求发出时调用，返回对冲前需要等待的时长
+     */
+    long onRequest() {
+        synchronized (this) {
+            tokens = Math.min(MAX_TOKENS, tokens + budget);
+        }
+        HttpMetrics.Histogram histogram = current;
+        if (histogram.count() < minSamples) histogram = previous;
+        if (histogram == null || histogram.count() < minSamples) return NO_HEDGE;
+        return Math.max(1, (long) histogram.percentile(percentile));
+    }
+
+    synchronized boolean tryAcquire() {
+        if (tokens < 1) return false;
+        tokens--;
+        return true;
+    }
+
+    /**
+     * @param latencyMs 首个请求从发出到收到成功响应的耗时
+     */
+    void record(long latencyMs) {
+        HttpMetrics.Histogram histogram = current;
+        histogram.record(latencyMs * 1000);
+        if (histogram.count() >= WINDOW) {
+            synchronized (this) {
+                if (current == histogram) {
+                    previous = histogram;
+                    current = new HttpMetrics.Histogram();
+                }
+            }
+        }
+    }
+}
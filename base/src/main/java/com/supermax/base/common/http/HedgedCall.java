@@ -0,0 +1,107 @@
+package com.supermax.base.common.http;
+
+import android.support.annotation.NonNull;
+
+import com.supermax.base.common.log.L;
+import com.supermax.base.common.utils.QsHelper;
+
+import java.io.IOException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/19 00:55
+ * @Description @Hedge请求的回调，包在PriorityDispatcher的回调外面
+ * 首个请求真正发出时开始计时，超时后绕过优先级队列直接发出对冲请求
+ * 先到的响应交给delegate并取消另一个请求；一个请求失败时等另一个的结果，都失败才回调失败
+ * 耗时只统计首个请求的成功响应；对冲请求胜出时首个请求被取消，记录已等待的时长作为下限，避免分位数只剩下快的样本
+ */
+final class HedgedCall implements Callback {
+    private static final String TAG = "HedgedCall";
+
+    private final HttpAdapter   adapter;
+    private final HttpCall<?>   httpCall;
+    private final Request       request;
+    private final HedgePolicy   policy;
+    private final Callback      delegate;
+    private final AtomicBoolean decided     = new AtomicBoolean();
+    private final AtomicInteger outstanding = new AtomicInteger(1);
+
+    private volatile Call      primary;
+    private volatile Call      hedge;
+    private volatile long      startedAt;
+    private volatile Future<?> timer;
+
+    HedgedCall(HttpAdapter adapter, HttpCall<?> httpCall, Request request, HedgePolicy policy, Callback delegate) {
+        this.adapter = adapter;
+        this.httpCall = httpCall;
+        this.request = request;
+        this.policy = policy;
+        this.delegate = delegate;
+    }
+
+    /**
+     * 首个请求离开PriorityDispatcher的队列、交给OkHttp时调用
+     */
+    void start(Call call) {
+        primary = call;
+        startedAt = System.currentTimeMillis();
+        long delay = policy.onRequest();
+        if (delay == HedgePolicy.NO_HEDGE) return;
+        timer = QsHelper.getInstance().getThreadHelper().getScheduledThreadPoll().schedule(new Runnable() {
+            @Override public void run() {
+                fire();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+        if (decided.get()) cancelTimer();
+    }
+
+    private void fire() {
+        if (decided.get() || httpCall.isCanceled() || !policy.tryAcquire()) return;
+        outstanding.incrementAndGet();
+        Call call = adapter.newCall(request, httpCall.serviceMethod.metricsKey);
+        hedge = call;
+        L.i(TAG, "method:" + httpCall.serviceMethod.methodName + " no response after " + (System.currentTimeMillis() - startedAt) + "ms, send hedged request");
+        call.enqueue(this);
+        if (decided.get()) call.cancel();
+    }
+
+    @Override public void onFailure(@NonNull Call call, @NonNull IOException e) {
+        if (outstanding.decrementAndGet() > 0 && !httpCall.isCanceled()) return;
+        if (!decided.compareAndSet(false, true)) return;
+        cancelTimer();
+        cancelOther(call);
+        delegate.onFailure(call, e);
+    }
+
+    @Override public void onResponse(@NonNull Call call, @NonNull Response response) throws IOException {
+        boolean isPrimary = call == primary;
+        if (isPrimary && response.isSuccessful()) policy.record(System.currentTimeMillis() - startedAt);
+        if (!decided.compareAndSet(false, true)) {
+            response.close();
+            return;
+        }
+        cancelTimer();
+        if (!isPrimary && primary != null) policy.record(System.currentTimeMillis() - startedAt);
+        cancelOther(call);
+        delegate.onResponse(call, response);
+    }
+
+    private void cancelOther(Call winner) {
+        Call other = winner == primary ? hedge : primary;
+        if (other != null && other != winner) other.cancel();
+    }
+
+    private void cancelTimer() {
+        Future<?> f = timer;
+        if (f != null) f.cancel(false);
+    }
+}
@@ -1,37 +1,33 @@
 package com.supermax.base.common.http;
 
-import android.net.Uri;
-import android.os.TestLooperManager;
 import android.support.annotation.NonNull;
 import android.text.TextUtils;
 
-import com.supermax.base.common.aspect.Body;
-import com.supermax.base.common.aspect.DELETE;
-import com.supermax.base.common.aspect.FormBody;
-import com.supermax.base.common.aspect.GET;
-import com.supermax.base.common.aspect.HEAD;
-import com.supermax.base.common.aspect.PATCH;
-import com.supermax.base.common.aspect.POST;
-import com.supermax.base.common.aspect.PUT;
-import com.supermax.base.common.aspect.Path;
-import com.supermax.base.common.aspect.Query;
-import com.supermax.base.common.aspect.TERMINAL;
+import com.supermax.base.common.aspect.CompressType;
+import com.supermax.base.common.aspect.PriorityType;
 import com.supermax.base.common.exception.QsException;
 import com.supermax.base.common.exception.QsExceptionType;
 import com.supermax.base.common.log.L;
 import com.supermax.base.common.proxy.HttpHandler;
+import com.supermax.base.common.threadpoll.PriorityRunnable;
 import com.supermax.base.common.utils.QsHelper;
 
 import java.io.File;
 import java.io.IOException;
-import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 
 import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -47,13 +43,53 @@ import okhttp3.ResponseBody;
 public class HttpAdapter {
 
     private static final String TAG = "HttpAdapter";
-    private static final String PATH_REPLACE = "\\{\\w*\\}";
     private final static int timeOut = 10;
+    /**
+     * 默认缓存配置
+     */
+    private final static String CACHE_DIR_NAME              = "qs_http_cache";
+    private final static long   DEFAULT_CACHE_DISK_SIZE     = 20 * 1024 * 1024;
+    private final static int    DEFAULT_CACHE_MEMORY_COUNT  = 64;
+    /**
+     * 离线请求日志放在files目录，不会被系统当作缓存清理
+     */
+    private final static String OFFLINE_DIR_NAME            = "qs_http_offline";
+    private final static String UPLOAD_DIR_NAME             = "qs_http_upload";
+    /**
+     * 同步请求也由Dispatcher执行，适当放宽单个域名的并发数
+     */
+    private final static int MAX_REQUESTS_PER_HOST = 16;
     private OkHttpClient client;
     private HttpConverter converter;
+    /**
+     * 编解码器，自定义的在前，内置的Gson、MessagePack在后
+     */
+    private final CopyOnWriteArrayList<Converter.Factory> converterFactories = new CopyOnWriteArrayList<>();
+    private final static int BUILT_IN_CONVERTER_COUNT = 2;
+    private volatile HttpCache httpCache;
+    private volatile OfflineQueue offlineQueue;
+    private final SingleFlight singleFlight = new SingleFlight(this);
+    private final PriorityDispatcher priorityDispatcher = new PriorityDispatcher(MAX_REQUESTS_PER_HOST);
+    private volatile boolean singleFlightEnabled;
+    private final ConcurrentHashMap<Method, ServiceMethod> serviceMethodCache = new ConcurrentHashMap<>();
+    private final CallIndex tagIndex = new CallIndex();
+    private final CallIndex groupIndex = new CallIndex();
+    private final HttpMetrics metrics = new HttpMetrics();
+    private final Set<HttpDownload> downloads = Collections.newSetFromMap(new ConcurrentHashMap<HttpDownload, Boolean>());
+    /**
+     * 接口对应的生成类构造器，没有生成类时为NO_GENERATED
+     */
+    private static final String                               GENERATED_SUFFIX = "_QsImpl";
+    private static final Object                               NO_GENERATED     = new Object();
+    private static final ConcurrentHashMap<Class<?>, Object> generatedCache   = new ConcurrentHashMap<>();
 
     public HttpAdapter() {
         initDefaults();
+        client.dispatcher().executorService().execute(new Runnable() {
+            @Override public void run() {
+                if (new File(offlineDirectory(), OfflineQueue.JOURNAL_FILE).exists()) getOfflineQueue().replay();
+            }
+        });
     }
 
     public OkHttpClient getHttpClient() {
@@ -63,10 +99,29 @@ public class HttpAdapter {
         return client;
     }
 
+    /**
+     * 自定义的OkHttpClient需要设置eventListenerFactory(getMetrics().factory())才会有耗时统计，这里不做替换
+     */
     public void setHttpClient(OkHttpClient client) {
         this.client = client;
     }
 
+    /**
+     * 注册编解码器，排在已注册的自定义编解码器之后、内置编解码器之前
+     */
+    public synchronized void addConverterFactory(Converter.Factory factory) {
+        if (factory == null) return;
+        converterFactories.add(converterFactories.size() - BUILT_IN_CONVERTER_COUNT, factory);
+        serviceMethodCache.clear();
+    }
+
+    /**
+     * 各接口方法、各终端地址的请求耗时统计
+     */
+    public HttpMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * 获取默认值
      */
@@ -77,10 +132,16 @@ public class HttpAdapter {
             builder.readTimeout(timeOut, TimeUnit.SECONDS);
             builder.writeTimeout(timeOut, TimeUnit.SECONDS);
             builder.retryOnConnectionFailure(true);
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+            builder.dispatcher(dispatcher);
+            builder.eventListenerFactory(metrics.factory());
             client = builder.build();
         }
         if (converter == null) {
             converter = new HttpConverter();
+            converterFactories.add(new GsonConverterFactory(converter));
+            converterFactories.add(new MessagePackConverterFactory(converter));
         }
     }
 
@@ -91,12 +152,46 @@ public class HttpAdapter {
     }
 
     public <T> T create(Class<T> clazz, String requestTag) {
+        return create(clazz, requestTag, null);
+    }
+
+    /**
+     * @param group 请求分组，通常传入发起请求的presenter，用于cancelRequestGroup
+     */
+    public <T> T create(Class<T> clazz, String requestTag, Object group) {
         validateIsInterface(clazz, requestTag);
         validateIsExtendInterface(clazz, requestTag);
-        HttpHandler handler = new HttpHandler(this, requestTag);
+        Constructor<?> constructor = generatedConstructor(clazz);
+        if (constructor != null) {
+            try {
+                return clazz.cast(constructor.newInstance(this, requestTag, group));
+            } catch (Exception e) {
+                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "create " + constructor.getDeclaringClass().getName() + " failed... " + e.getMessage());
+            }
+        }
+        HttpHandler handler = new HttpHandler(this, requestTag, group);
         return (T) Proxy.newProxyInstance(clazz.getClassLoader(), new Class<?>[]{clazz}, handler);
     }
 
+    /**
+     * base-compiler生成的实现类：包名.外部类_接口名_QsImpl，没有时返回null，走Proxy
+     */
+    private static Constructor<?> generatedConstructor(Class<?> clazz) {
+        Object cached = generatedCache.get(clazz);
+        if (cached == null) {
+            String name = clazz.getName();
+            int packageEnd = name.lastIndexOf('.') + 1;
+            name = name.substring(0, packageEnd) + name.substring(packageEnd).replace('$', '_') + GENERATED_SUFFIX;
+            try {
+                cached = Class.forName(name, true, clazz.getClassLoader()).getConstructor(HttpAdapter.class, Object.class, Object.class);
+            } catch (ClassNotFoundException | NoSuchMethodException e) {
+                cached = NO_GENERATED;
+            }
+            generatedCache.put(clazz, cached);
+        }
+        return cached == NO_GENERATED ? null : (Constructor<?>) cached;
+    }
+
     /**
      * 判断是否是一个接口
      */
@@ -115,154 +210,489 @@ public class HttpAdapter {
         }
     }
 
-    public Object startRequest(Method method, Object[] args, Object requestTag) {
-        Annotation[] annotations = method.getAnnotations();
-        if (annotations != null && annotations.length < 1) {
-            throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "Annotation error ... the method " + method.getName() + "must be have a annotation for (@GET @POST @PUT)");
+    /**
+     * 获取方法对应的请求计划，首次调用时解析并缓存
+     */
+    ServiceMethod loadServiceMethod(Method method, Object requestTag) {
+        ServiceMethod serviceMethod = serviceMethodCache.get(method);
+        if (serviceMethod == null) {
+            serviceMethod = ServiceMethod.parse(method, converterFactories, requestTag);
+            ServiceMethod cached = serviceMethodCache.putIfAbsent(method, serviceMethod);
+            if (cached != null) serviceMethod = cached;
         }
+        return serviceMethod;
+    }
 
-        Annotation pathAnnotation = null;
-        String terminal = null;
-        for (Annotation annotation : annotations) {
-            if (annotation instanceof TERMINAL) {
-                terminal = ((TERMINAL) annotation).value();
-            } else {
-                pathAnnotation = annotation;
+    public Object startRequest(Method method, Object[] args, Object requestTag) {
+        return startRequest(method, args, requestTag, null);
+    }
+
+    public Object startRequest(Method method, Object[] args, Object requestTag, Object group) {
+        ServiceMethod serviceMethod = loadServiceMethod(method, requestTag);
+        HttpCall<Object> httpCall = new HttpCall<>(this, serviceMethod, args, requestTag, group);
+        if (serviceMethod.isStream) return new HttpStream<>(httpCall);
+        return serviceMethod.isQsCall ? httpCall : httpCall.execute();
+    }
+
+    public HttpCache getHttpCache() {
+        if (httpCache == null) {
+            synchronized (this) {
+                if (httpCache == null) {
+                    File directory = new File(QsHelper.getInstance().getApplication().getCacheDir(), CACHE_DIR_NAME);
+                    httpCache = new HttpCache(directory, DEFAULT_CACHE_DISK_SIZE, DEFAULT_CACHE_MEMORY_COUNT);
+                }
             }
         }
+        return httpCache;
+    }
+
+    public void setHttpCache(HttpCache httpCache) {
+        this.httpCache = httpCache;
+    }
 
-        if (pathAnnotation == null) {
-            throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "Annotation error ... the method " + method.getName() + "create(Object.class) the method must be have a annotation, (@GET @POST @PUT)");
+    /**
+     * @Offline请求的磁盘队列
+     */
+    public OfflineQueue getOfflineQueue() {
+        if (offlineQueue == null) {
+            synchronized (this) {
+                if (offlineQueue == null) {
+                    OfflineQueue queue = new OfflineQueue(offlineDirectory());
+                    queue.bind(this);
+                    offlineQueue = queue;
+                }
+            }
         }
+        return offlineQueue;
+    }
+
+    private static File offlineDirectory() {
+        return new File(QsHelper.getInstance().getApplication().getFilesDir(), OFFLINE_DIR_NAME);
+    }
 
-        if (pathAnnotation instanceof POST) {
-            String path = ((POST) pathAnnotation).value();
-            return executeWithOkHttp(terminal, method, args, path, requestTag, "POST");
+    /**
+     * 全局开启相同请求合并，也可以在接口方法上单独添加@SingleFlight
+     */
+    public void setSingleFlightEnabled(boolean enabled) {
+        this.singleFlightEnabled = enabled;
+    }
 
-        } else if (pathAnnotation instanceof GET) {
-            String path = ((GET) pathAnnotation).value();
-            return executeWithOkHttp(terminal, method, args, path, requestTag, "GET");
+    /**
+     * 发起请求，同步和异步调用共用
+     * 网络请求交给OkHttp的Dispatcher执行，结果在OkHttp的线程里回调callback
+     * 子线程的同步调用在调用线程执行，callback在start返回前回调
+     * 带tag或分组的调用在结束前登记在索引里，用于取消
+     */
+    <T> void start(HttpCall<T> httpCall, QsCallback<T> callback) {
+        if (httpCall.requestTag != null || httpCall.group != null) {
+            if (httpCall.requestTag != null) tagIndex.register(httpCall.requestTag, httpCall);
+            if (httpCall.group != null) groupIndex.register(httpCall.group, httpCall);
+            callback = new IndexedCallback<>(httpCall, callback);
+        }
+        prepare(httpCall, callback);
+    }
 
-        } else if (pathAnnotation instanceof PUT) {
-            String path = ((PUT) pathAnnotation).value();
-            return executeWithOkHttp(terminal, method, args, path, requestTag, "PUT");
+    private <T> void prepare(final HttpCall<T> httpCall, final QsCallback<T> callback) {
+        final Request request;
+        try {
+            request = buildRequest(httpCall);
+        } catch (QsException e) {
+            callback.onFailure(e);
+            return;
+        }
+        if (!httpCall.serviceMethod.isCacheable()) {
+            dispatch(httpCall, request, null, callback);
+            return;
+        }
+        String memoryKey = httpCall.serviceMethod.memoryCacheKey(HttpCache.key(request));
+        HttpCache.Entry entry = getHttpCache().getMemory(memoryKey);
+        if (entry != null && !entry.matches(request)) entry = null;
+        if (entry == null && QsHelper.getInstance().getThreadHelper().isMainThread()) {
+            client.dispatcher().executorService().execute(new Runnable() {
+                @Override public void run() {
+                    startWithCache(httpCall, request, loadDiskCache(httpCall, request), callback);
+                }
+            });
+        } else {
+            startWithCache(httpCall, request, entry != null ? entry : loadDiskCache(httpCall, request), callback);
+        }
+    }
 
-        } else if (pathAnnotation instanceof DELETE) {
-            String path = ((DELETE) pathAnnotation).value();
-            return executeWithOkHttp(terminal, method, args, path, requestTag, "DELETE");
+    /**
+     * 有效期内直接返回缓存，staleWhileRevalidate期间返回缓存并在后台验证，否则带上验证头发起请求
+     */
+    @SuppressWarnings("unchecked")
+    private <T> void startWithCache(HttpCall<T> httpCall, Request request, HttpCache.Entry entry, QsCallback<T> callback) {
+        if (entry != null) {
+            ServiceMethod serviceMethod = httpCall.serviceMethod;
+            long age = System.currentTimeMillis() - entry.storedAt;
+            if (age >= 0 && age <= serviceMethod.cacheMaxAge) {
+                L.i(TAG, "method:" + serviceMethod.methodName + "  hit cache, age:" + age + "ms");
+                callback.onSuccess((T) entry.value);
+                return;
+            }
+            request = conditionalRequest(request, entry);
+            if (age >= 0 && age <= serviceMethod.cacheMaxAge + serviceMethod.cacheStale) {
+                L.i(TAG, "method:" + serviceMethod.methodName + "  hit stale cache, age:" + age + "ms, revalidate in background");
+                HttpCall<Object> revalidateCall = new HttpCall<>(this, serviceMethod, httpCall.args, null, null);
+                revalidateCall.httpBuilder = httpCall.httpBuilder;
+                revalidateCall.priority = PriorityType.LOW;
+                sendRequest(revalidateCall, request, entry, new QsCallback<Object>() {
+                    @Override public void onSuccess(Object result) {
+                    }
 
-        } else if (pathAnnotation instanceof HEAD) {
-            String path = ((HEAD) pathAnnotation).value();
-            return executeWithOkHttp(terminal, method, args, path, requestTag, "HEAD");
+                    @Override public void onFailure(QsException exception) {
+                        L.e(TAG, "revalidate cache failed... " + exception.getMessage());
+                    }
+                });
+                callback.onSuccess((T) entry.value);
+                return;
+            }
+        }
+        dispatch(httpCall, request, entry, callback);
+    }
 
-        } else if (pathAnnotation instanceof PATCH) {
-            String path = ((PATCH) pathAnnotation).value();
-            return executeWithOkHttp(terminal, method, args, path, requestTag, "PATCH");
+    /**
+     * 可合并的请求交给SingleFlight，否则直接发送
+     */
+    private <T> void dispatch(HttpCall<T> httpCall, Request request, HttpCache.Entry cacheEntry, QsCallback<T> callback) {
+        ServiceMethod serviceMethod = httpCall.serviceMethod;
+        if (serviceMethod.uploadChunkSize > 0) {
+            File directory = new File(QsHelper.getInstance().getApplication().getFilesDir(), UPLOAD_DIR_NAME);
+            new HttpUpload<>(this, httpCall, request, directory, callback).start();
+            return;
+        }
+        if ((serviceMethod.singleFlight || singleFlightEnabled) && serviceMethod.canShareResult()) {
+            String key = SingleFlight.key(serviceMethod, request);
+            if (key != null) {
+                singleFlight.execute(key, httpCall, request, cacheEntry, callback);
+                return;
+            }
+        }
+        sendRequest(httpCall, request, cacheEntry, callback);
+    }
 
+    <T> void sendRequest(final HttpCall<T> httpCall, final Request request, final HttpCache.Entry cacheEntry, final QsCallback<T> callback) {
+        final ServiceMethod serviceMethod = httpCall.serviceMethod;
+        final Object requestTag = httpCall.requestTag;
+        if (httpCall.isCanceled()) {
+            callback.onFailure(new QsException(QsExceptionType.CANCEL, requestTag, "method:" + serviceMethod.methodName + " canceled"));
+            return;
+        }
+        if (!QsHelper.getInstance().isNetworkAvailable()) {
+            if (serviceMethod.idempotencyHeader != null) {
+                enqueueOffline(httpCall, request, callback);
+                return;
+            }
+            callback.onFailure(new QsException(QsExceptionType.NETWORK_ERROR, requestTag, "network error...  method:" + serviceMethod.methodName + " message:network disable"));
+            return;
+        }
+        final TerminalGroup terminalGroup = httpCall.httpBuilder.getTerminalGroup();
+        final CircuitBreaker breaker;
+        Request terminalRequest = request;
+        if (terminalGroup != null) {
+            breaker = terminalGroup.select(httpCall.triedTerminals);
+            if (breaker == null) {
+                callback.onFailure(new QsException(QsExceptionType.HTTP_ERROR, requestTag, "terminal error...  method:" + serviceMethod.methodName + retryMessage(httpCall) + " message:all terminals are unavailable"));
+                return;
+            }
+            terminalRequest = TerminalGroup.rewrite(request, httpCall.httpBuilder.getTerminal(), breaker.terminal);
         } else {
-            throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "Annotation error... the method:" + method.getName() + "create(Object.class) the method must has an annotation, such as:@PUT @POST or @GET...");
+            breaker = null;
         }
-    }
+        final boolean replayable = TerminalGroup.isReplayable(request, serviceMethod.idempotencyHeader);
+        Call call = newCall(terminalRequest, serviceMethod.metricsKey);
+        httpCall.setRawCall(call);
+        Callback responseCallback = new Callback() {
+            @Override public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                if (breaker != null && !httpCall.isCanceled()) {
+                    long now = System.currentTimeMillis();
+                    breaker.onFailure(elapsedMs(httpCall, now), now);
+                    if ((replayable || TerminalGroup.isConnectFailure(e)) && failover(httpCall, terminalGroup, breaker, e.getMessage())) {
+                        sendRequest(httpCall, request, cacheEntry, callback);
+                        return;
+                    }
+                }
+                RetryPolicy retryPolicy = serviceMethod.retryPolicy;
+                if (retryPolicy != null && !httpCall.isCanceled()) {
+                    long delay = retryPolicy.delayForFailure(httpCall.retryCount);
+                    if (delay >= 0) {
+                        scheduleRetry(httpCall, request, cacheEntry, callback, delay);
+                        return;
+                    }
+                }
+                if (serviceMethod.idempotencyHeader != null && !httpCall.isCanceled()) {
+                    L.e(TAG, "method:" + serviceMethod.methodName + " IOException, save offline... " + e.getMessage());
+                    enqueueOffline(httpCall, request, callback);
+                    return;
+                }
+                callback.onFailure(new QsException(QsExceptionType.HTTP_ERROR, requestTag, "IOException...  method:" + serviceMethod.methodName + retryMessage(httpCall) + " message:" + e.getMessage()));
+            }
 
+            @SuppressWarnings("unchecked") @Override public void onResponse(@NonNull Call call, @NonNull Response response) {
+                if (breaker != null) {
+                    long now = System.currentTimeMillis();
+                    long latency = elapsedMs(httpCall, now);
+                    if (response.code() >= 500) {
+                        breaker.onFailure(latency, now);
+                        if (replayable && !httpCall.isCanceled() && failover(httpCall, terminalGroup, breaker, "code " + response.code())) {
+                            response.close();
+                            sendRequest(httpCall, request, cacheEntry, callback);
+                            return;
+                        }
+                    } else {
+                        breaker.onSuccess(latency, now);
+                    }
+                    // 缓存和重试都以拼接url时的terminal为准
+                    response = response.newBuilder().request(request).build();
+                }
+                RetryPolicy retryPolicy = serviceMethod.retryPolicy;
+                if (retryPolicy != null && !response.isSuccessful() && !httpCall.isCanceled()) {
+                    long delay = retryPolicy.delayForResponse(httpCall.retryCount, response);
+                    if (delay >= 0) {
+                        response.close();
+                        scheduleRetry(httpCall, request, cacheEntry, callback, delay);
+                        return;
+                    }
+                }
+                T result;
+                try {
+                    if (serviceMethod.isCacheable()) {
+                        result = (T) createCacheResult(httpCall, response, cacheEntry);
+                    } else {
+                        result = (T) createResult(httpCall, response);
+                    }
+                } catch (QsException e) {
+                    callback.onFailure(e);
+                    return;
+                } catch (Exception e) {
+                    callback.onFailure(new QsException(QsExceptionType.UNEXPECTED, requestTag, "create result error...  method:" + serviceMethod.methodName + " message:" + e.getMessage()));
+                    return;
+                }
+                callback.onSuccess(result);
+            }
+        };
+        HedgePolicy hedgePolicy = serviceMethod.hedgePolicy;
+        if (hedgePolicy == null && httpCall.isBlockingThread()) {
+            priorityDispatcher.execute(httpCall, call, responseCallback);
+            return;
+        }
+        if (hedgePolicy != null) responseCallback = new HedgedCall(this, httpCall, terminalRequest, hedgePolicy, responseCallback);
+        priorityDispatcher.enqueue(httpCall, call, responseCallback);
+    }
 
-    private Object executeWithOkHttp(String terminal, Method method, Object[] args, String path, Object requestTag, String requestType) {
-        Annotation[][] annotations = method.getParameterAnnotations();//参数可以有多个注解，但这里是不允许的
+    /**
+     * 熔断器统计的耗时，成功和失败都从请求交给OkHttp开始计算，不含PriorityDispatcher中的排队时间
+     */
+    private static long elapsedMs(HttpCall<?> httpCall, long now) {
+        PriorityDispatcher.Ticket ticket = httpCall.ticket;
+        return ticket == null ? 0 : ticket.elapsedMs(now);
+    }
 
-        checkParamsAnnotation(annotations, args, method.getName(), requestTag);
+    /**
+     * 还有未尝试过且可用的terminal时记录当前terminal并返回true，由调用方立即重发
+     */
+    private boolean failover(HttpCall<?> httpCall, TerminalGroup terminalGroup, CircuitBreaker breaker, String reason) {
+        httpCall.triedTerminals.add(breaker.terminal);
+        if (!terminalGroup.hasAvailable(httpCall.triedTerminals)) return false;
+        L.e(TAG, "method:" + httpCall.serviceMethod.methodName + " terminal:" + breaker.terminal + " failed(" + reason + "), failover");
+        return true;
+    }
 
-        HttpBuilder httpBuilder = getHttpBuilder(requestTag, path, args, requestType);
-        if (!TextUtils.isEmpty(terminal)) httpBuilder.setTerminal(terminal);
-        StringBuilder url = getUrl(httpBuilder.getTerminal(), path, method, args, requestTag);
+    Call newCall(Request request, String metricsKey) {
+        if (client.eventListenerFactory() == metrics.factory()) metrics.bind(request, metricsKey);
+        return client.newCall(request);
+    }
 
-        if (TextUtils.isEmpty(url))
-            throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "url error... method:" + method.getName() + "  request url is null...");
+    /**
+     * 写入离线队列后即视为成功，磁盘写入不放在主线程
+     */
+    private <T> void enqueueOffline(final HttpCall<T> httpCall, final Request request, final QsCallback<T> callback) {
+        if (QsHelper.getInstance().getThreadHelper().isMainThread()) {
+            client.dispatcher().executorService().execute(new Runnable() {
+                @Override public void run() {
+                    enqueueOffline(httpCall, request, callback);
+                }
+            });
+            return;
+        }
+        ServiceMethod serviceMethod = httpCall.serviceMethod;
+        try {
+            getOfflineQueue().enqueue(serviceMethod.metricsKey, request.header(serviceMethod.idempotencyHeader), request);
+        } catch (IOException e) {
+            callback.onFailure(new QsException(QsExceptionType.NETWORK_ERROR, httpCall.requestTag, "network error...  method:" + serviceMethod.methodName + " message:save offline request failed, " + e.getMessage()));
+            return;
+        }
+        callback.onSuccess(null);
+    }
 
-        RequestBody requestBody = null;
-        Object body = null;
-        Object formBody = null;
-        HashMap<String, String> params = null;
-        String mimeType = null;
-
-        if (httpBuilder.getUrlParameters() != null && !httpBuilder.getUrlParameters().isEmpty()) {
-            params = new HashMap<>(httpBuilder.getUrlParameters());
-        }
-        for (int i = 0; i < annotations.length; i++) {
-            Annotation[] annotationArr = annotations[i];
-            Annotation annotation = annotationArr[0];
-            if (annotation instanceof Body) {
-                body = args[i];
-                mimeType = ((Body) annotation).mimeType();
-                if (TextUtils.isEmpty(mimeType))
-                    throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "request body exception ... methos " + method.getName() + " the annotaiton @Body not have mimeType value");
-                break;
-
-            } else if (annotation instanceof Query) {
-                Object arg = args[i];
-                if (params == null) params = new HashMap<>();
-                String key = ((Query) annotation).value();
-                params.put(key, arg == null ? "" : String.valueOf(arg));
-            } else if (annotation instanceof FormBody) {
-                formBody = args[i];
+    /**
+     * 退避等待交给定时线程池，等待期间不占用任何线程，请求被取消时立即结束等待
+     */
+    private <T> void scheduleRetry(final HttpCall<T> httpCall, final Request request, final HttpCache.Entry cacheEntry, final QsCallback<T> callback, long delay) {
+        httpCall.retryCount++;
+        httpCall.triedTerminals.clear();
+        L.i(TAG, "method:" + httpCall.serviceMethod.methodName + " retry " + httpCall.retryCount + " after " + delay + "ms");
+        httpCall.schedule(new Runnable() {
+            @Override public void run() {
+                if (httpCall.isCanceled()) {
+                    callback.onFailure(new QsException(QsExceptionType.CANCEL, httpCall.requestTag, "method:" + httpCall.serviceMethod.methodName + " canceled while waiting for retry"));
+                } else {
+                    sendRequest(httpCall, request, cacheEntry, callback);
+                }
             }
+        }, delay);
+    }
+
+    private String retryMessage(HttpCall<?> httpCall) {
+        return httpCall.retryCount > 0 ? " (after " + httpCall.retryCount + " retries)" : "";
+    }
+
+    private HttpCache.Entry loadDiskCache(HttpCall<?> httpCall, Request request) {
+        HttpCache cache = getHttpCache();
+        Response response = cache.getDisk(request);
+        if (response == null) return null;
+        try {
+            Object value = createResult(httpCall, response);
+            HttpCache.Entry entry = new HttpCache.Entry(response, value, response.receivedResponseAtMillis());
+            cache.putMemory(httpCall.serviceMethod.memoryCacheKey(entry.key), entry);
+            return entry;
+        } catch (Exception e) {
+            L.e(TAG, "method:" + httpCall.serviceMethod.methodName + "  decode disk cache failed... " + e.getMessage());
+            cache.remove(request);
+            return null;
         }
-        if ((!"GET".equals(requestType)) && (!("HEAD".equals(requestType)))) {
+    }
+
+    private Request conditionalRequest(Request request, HttpCache.Entry entry) {
+        Request.Builder builder = request.newBuilder();
+        if (entry.eTag != null) builder.header("If-None-Match", entry.eTag);
+        if (entry.lastModified != null) builder.header("If-Modified-Since", entry.lastModified);
+        return builder.build();
+    }
+
+    /**
+     * 304时复用缓存，2xx时边解析边写入磁盘缓存
+     */
+    private Object createCacheResult(HttpCall<?> httpCall, Response response, HttpCache.Entry cacheEntry) throws IOException {
+        HttpCache cache = getHttpCache();
+        Request request = response.request();
+        String memoryKey = httpCall.serviceMethod.memoryCacheKey(HttpCache.key(request));
+        long now = System.currentTimeMillis();
+        if (response.code() == 304 && cacheEntry != null) {
+            response.close();
+            cache.refresh(memoryKey, cacheEntry, now);
+            return cacheEntry.value;
+        }
+        boolean storable = HttpCache.isStorable(response, httpCall.serviceMethod.cachePrivate);
+        if (storable) response = cache.cacheWriting(response, now);
+        Object result;
+        try {
+            result = createResult(httpCall, response);
+        } catch (RuntimeException e) {
+            if (storable) cache.remove(request);
+            throw e;
+        }
+        if (storable) cache.putMemory(memoryKey, new HttpCache.Entry(response, result, now));
+        return result;
+    }
+
+    /**
+     * HttpBuilder.setPriority > 接口方法的@Priority > 所在http线程任务的优先级 > NORMAL
+     */
+    private PriorityType resolvePriority(HttpBuilder httpBuilder, ServiceMethod serviceMethod) {
+        PriorityType priority = httpBuilder.getPriority();
+        if (priority == null) priority = serviceMethod.priority;
+        if (priority == null) priority = PriorityRunnable.current();
+        return priority == null ? PriorityType.NORMAL : priority;
+    }
+
+    private Request buildRequest(HttpCall<?> httpCall) {
+        ServiceMethod serviceMethod = httpCall.serviceMethod;
+        Object[] args = httpCall.args;
+        Object requestTag = httpCall.requestTag;
+        HttpBuilder httpBuilder = getHttpBuilder(requestTag, serviceMethod.path, args, serviceMethod.requestType);
+        httpCall.httpBuilder = httpBuilder;
+        httpCall.priority = resolvePriority(httpBuilder, serviceMethod);
+        if (!TextUtils.isEmpty(serviceMethod.terminal)) {
+            httpBuilder.setTerminal(serviceMethod.terminal);
+            httpBuilder.setTerminalGroup(null);
+        } else if (httpBuilder.getTerminalGroup() != null) {
+            httpBuilder.setTerminal(httpBuilder.getTerminalGroup().primary());
+        }
+
+        ServiceMethod.RequestParams requestParams = serviceMethod.bindParams(args, httpBuilder.getUrlParameters());
+        StringBuilder url = serviceMethod.buildUrl(httpBuilder.getTerminal(), requestParams, requestTag);
+
+        RequestBody requestBody = null;
+        if (serviceMethod.hasBody()) {
+            String methodName = serviceMethod.methodName;
+            Object body = requestParams.body;
+            String mimeType = requestParams.mimeType;
             if (body != null) {
                 if (body instanceof String) {
-                    requestBody = converter.stringToBody(method.getName(), mimeType, (String) body);
+                    requestBody = converter.stringToBody(methodName, mimeType, (String) body);
                 } else if (body instanceof File) {
-                    requestBody = converter.fileToBody(method.getName(), mimeType, (File) body);
+                    requestBody = converter.fileToBody(methodName, mimeType, (File) body, requestParams.progressListener);
                 } else if (body instanceof byte[]) {
-                    requestBody = converter.byteToBody(method.getName(), mimeType, (byte[]) body);
+                    requestBody = converter.byteToBody(methodName, mimeType, (byte[]) body);
                 } else {
-                    requestBody = converter.jsonToBody(method.getName(), mimeType, body, body.getClass());
+                    L.i(TAG, "methodName:" + methodName + "  请求体 converter:" + requestParams.bodyConverter.getClass().getSimpleName());
+                    try {
+                        requestBody = requestParams.bodyConverter.write(body, mimeType);
+                    } catch (IOException e) {
+                        throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "request body error... method:" + methodName + " message:" + e.getMessage());
+                    }
                 }
-            } else if (formBody != null) {
-                requestBody = converter.stringToFormBody(method.getName(), formBody);
+            } else if (requestParams.formBody != null) {
+                requestBody = converter.stringToFormBody(methodName, requestParams.formBody);
             }
-        }
-
-        if (params != null && !params.isEmpty()) {
-            int i = 0;
-            Uri uri = Uri.parse(url.toString());
-            String uriQuery = uri.getQuery();
-            for (String key : params.keySet()) {
-                Object value = params.get(key);
-                if (value != null) {
-                    url.append((i == 0 && TextUtils.isEmpty(uriQuery) && url.charAt(url.length() - 1) != '?') ? "?" : "&").append(key).append("=").append(String.valueOf(value));
-                    i++;
-                }
+            CompressType compressType = serviceMethod.compressType != null ? serviceMethod.compressType : httpBuilder.getCompressType();
+            long minSize = serviceMethod.compressType != null ? serviceMethod.compressMinSize : httpBuilder.getCompressMinSize();
+            try {
+                requestBody = RequestCompressor.compress(requestBody, compressType, minSize);
+            } catch (IOException e) {
+                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "request body compress error... method:" + methodName + " message:" + e.getMessage());
             }
         }
 
         Request.Builder requestBuilder = new Request.Builder();
         requestBuilder.headers(httpBuilder.getHeaderBuilder().build());
         if (requestTag != null) requestBuilder.tag(requestTag);
-        L.i(TAG, "method:" + method.getName() + "  http request url:" + url.toString());
-
-        Request request = requestBuilder.url(url.toString()).method(requestType, requestBody).build();
-        try {
-            if (QsHelper.getInstance().isNetworkAvailable()) {
-                Call call = client.newCall(request);
-                Response response = call.execute();
-                return createResult(method, response, requestTag);
-            } else {
-                throw new QsException(QsExceptionType.NETWORK_ERROR, requestTag, "network error...  method:" + method.getName() + " message:network disable");
-            }
-        } catch (IOException e) {
-            throw new QsException(QsExceptionType.HTTP_ERROR, requestTag, "IOException...  method:" + method.getName() + " message:" + e.getMessage());
+        String contentEncoding = RequestCompressor.encodingOf(requestBody);
+        if (contentEncoding != null) requestBuilder.header("Content-Encoding", contentEncoding);
+        if (serviceMethod.idempotencyHeader != null && httpBuilder.getHeaderBuilder().get(serviceMethod.idempotencyHeader) == null) {
+            requestBuilder.header(serviceMethod.idempotencyHeader, UUID.randomUUID().toString());
         }
+        if (serviceMethod.accept != null && httpBuilder.getHeaderBuilder().get("Accept") == null) {
+            requestBuilder.header("Accept", serviceMethod.accept);
+        }
+        L.i(TAG, "method:" + serviceMethod.methodName + "  http request url:" + url.toString());
+
+        return requestBuilder.url(url.toString()).method(serviceMethod.requestType, requestBody).build();
     }
 
 
-    private Object createResult(Method method, Response response, Object requestTag) throws IOException {
+    Object createResult(HttpCall<?> httpCall, Response response) throws IOException {
         if (response == null) return null;
+        ServiceMethod serviceMethod = httpCall.serviceMethod;
+        Object requestTag = httpCall.requestTag;
         int responseCode = response.code();
         HttpResponse httpResponse = new HttpResponse();
         httpResponse.response = response;
+        httpResponse.httpBuilder = httpCall.httpBuilder;
 
         if (responseCode >= 200 && responseCode < 300) {
-            Class<?> returnType = method.getReturnType();
-            if (returnType == void.class) {
+            Class<?> returnType = serviceMethod.returnType;
+            if (serviceMethod.isStream) {
+                QsHelper.getInstance().getApplication().onCommonHttpResponse(httpResponse);
+                try {
+                    readStream(httpCall, httpResponse);
+                } finally {
+                    response.close();
+                }
+                return null;
+            } else if (returnType == void.class) {
                 QsHelper.getInstance().getApplication().onCommonHttpResponse(httpResponse);
                 response.close();
                 return null;
@@ -272,117 +702,124 @@ public class HttpAdapter {
             } else {
                 ResponseBody body = response.body();
                 if (body == null) {
-                    throw new QsException(QsExceptionType.HTTP_ERROR, requestTag, "http response error... method:" + method.getName() + "  response body is null!!");
+                    throw new QsException(QsExceptionType.HTTP_ERROR, requestTag, "http response error... method:" + serviceMethod.methodName + "  response body is null!!");
                 }
                 QsHelper.getInstance().getApplication().onCommonHttpResponse(httpResponse);
-                String jsonStr = httpResponse.getJsonString();
-                response.close();
-                if (QsHelper.getInstance().getApplication().isLogOpen()) {
-                    L.i(TAG, "methodName:" + method.getName() + "  响应体 Json:\n" + converter.formatJson(jsonStr));
-                }
-                if (!TextUtils.isEmpty(jsonStr)) {
-                    return converter.jsonToObject(jsonStr, returnType);
+                try {
+                    return serviceMethod.responseConverter(body.contentType()).read(httpResponse);
+                } finally {
+                    response.close();
                 }
             }
         } else {
             QsHelper.getInstance().getApplication().onCommonHttpResponse(httpResponse);
             response.close();
-            throw new QsException(QsExceptionType.HTTP_ERROR, requestTag, "http error... method:" + method.getName() + "  http response code = " + responseCode);
+            throw new QsException(QsExceptionType.HTTP_ERROR, requestTag, "http error... method:" + serviceMethod.methodName + "  http response code = " + responseCode);
         }
-        return null;
     }
 
 
-    public void cancelRequest(Object requestTag) {
-        if (client != null && requestTag != null) {
-            synchronized (client.dispatcher()) {
-                Dispatcher dispatcher = client.dispatcher();
-                List<Call> queuedCalls = dispatcher.queuedCalls();
-                for (Call call : queuedCalls) {
-                    Request request = call.request();
-                    if (requestTag.equals(request.tag())) {
-                        L.i(TAG, "cancel queued request success... requestTag=" + requestTag + "  url=" + request.url());
-                        call.cancel();
+    /**
+     * QsStream边解析边分块回调，请求取消后停止解析
+     */
+    private void readStream(final HttpCall<?> httpCall, HttpResponse httpResponse) throws IOException {
+        final ServiceMethod serviceMethod = httpCall.serviceMethod;
+        final HttpStream.Emitter emitter = httpCall.emitter;
+        boolean completed = converter.readArray(httpResponse.openReader(), serviceMethod.streamPath, converter.getAdapter(serviceMethod.resultType),
+                serviceMethod.streamChunkSize, new HttpConverter.ChunkReceiver() {
+                    @Override public boolean onChunk(List<Object> chunk) {
+                        if (httpCall.isCanceled()) return false;
+                        if (emitter != null) emitter.emit(chunk);
+                        return true;
                     }
-                }
+                });
+        if (!completed) {
+            throw new QsException(QsExceptionType.CANCEL, httpCall.requestTag, "method:" + serviceMethod.methodName + " canceled while reading stream");
+        }
+    }
 
-                List<Call> runningCalls = dispatcher.runningCalls();
-                for (Call call : runningCalls) {
-                    Request request = call.request();
-                    if (requestTag.equals(request.tag())) {
-                        L.i(TAG, "cancel running request ... requestTag=" + requestTag + "  url=" + call.request().url());
-                        call.cancel();
-                    }
-                }
-            }
+    public void cancelRequest(Object requestTag) {
+        if (requestTag == null) return;
+        int count = tagIndex.cancel(requestTag);
+        if (count > 0) L.i(TAG, "cancel request success... requestTag=" + requestTag + "  count=" + count);
+    }
+
+    /**
+     * 批量按tag取消
+     */
+    public void cancelRequests(Collection<?> requestTags) {
+        if (requestTags == null) return;
+        for (Object requestTag : requestTags) {
+            cancelRequest(requestTag);
         }
     }
 
+    /**
+     * 取消create(clazz, requestTag, group)创建的整组请求
+     */
+    public void cancelRequestGroup(Object group) {
+        if (group == null) return;
+        int count = groupIndex.cancel(group);
+        if (count > 0) L.i(TAG, "cancel request group success... group=" + group.getClass().getSimpleName() + "  count=" + count);
+    }
+
+    /**
+     * 下载文件到target，支持断点续传
+     */
+    public QsDownload download(String url, File target) {
+        return download(url, target, 1);
+    }
+
+    /**
+     * @param segments 服务端支持Range时最多分成几段并行下载，每段至少1MB
+     */
+    public QsDownload download(String url, File target, int segments) {
+        HttpDownload download = new HttpDownload(this, url, target, segments);
+        downloads.add(download);
+        return download;
+    }
+
+    void onDownloadFinished(HttpDownload download) {
+        downloads.remove(download);
+    }
+
     public void cancelAllRequest() {
+        for (HttpDownload download : downloads) {
+            download.cancel();
+        }
+        tagIndex.cancelAll();
+        groupIndex.cancelAll();
+        priorityDispatcher.cancelAll();
         if (client != null) {
             client.dispatcher().cancelAll();
         }
     }
 
+    /**
+     * 调用结束时从索引中移除
+     */
+    private final class IndexedCallback<T> implements QsCallback<T> {
+        private final HttpCall<T>   httpCall;
+        private final QsCallback<T> delegate;
 
-    @NonNull
-    private StringBuilder getUrl(String terminal, String path, Method method, Object[] args, Object requestTag) {
-        if (TextUtils.isEmpty(terminal)) {
-            throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "url terminal error... method:" + method.getName() + "  terminal is null...");
-        }
-
-        if (TextUtils.isEmpty(path)) {
-            throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "url path error... method:" + method.getName() + "  path is null...");
+        IndexedCallback(HttpCall<T> httpCall, QsCallback<T> delegate) {
+            this.httpCall = httpCall;
+            this.delegate = delegate;
         }
 
-        if (!path.startsWith("/")) {
-            throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "url path error... method:" + method.getName() + "  path=" + path + "  (path is not start with '/')");
+        @Override public void onSuccess(T result) {
+            unregister();
+            delegate.onSuccess(result);
         }
 
-        Annotation[][] annotations = method.getParameterAnnotations();
-        for (int i = 0; i < annotations.length; i++) {
-            Annotation annotation = annotations[i][0];
-            if (annotation instanceof Path) {
-                StringBuilder stringBuilder = new StringBuilder();
-                String[] split = path.split(PATH_REPLACE);
-                Object arg = args[i];
-                if (!(arg instanceof String[])) {
-                    throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "params error method:" + method.getName() + "  @Path annotation only fix String[] arg !");
-                }
-
-                String[] param = (String[]) arg;
-                if (split.length - param.length > 1) {
-                    throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "params error method:" + method.getName() + "  the path with '{xx}' is more than @Path annotation arg length!");
-                }
-
-                for (int index = 0; index < split.length; index++) {
-                    if (index < param.length) {
-                        stringBuilder.append(split[index]).append(param[index]);
-                    } else {
-                        stringBuilder.append(split[index]);
-                    }
-                }
-                path = stringBuilder.toString();
-            }
+        @Override public void onFailure(QsException exception) {
+            unregister();
+            delegate.onFailure(exception);
         }
-        StringBuilder url = new StringBuilder(terminal);
-        url.append(path);
-        return url;
-    }
-
 
-    /**
-     * 检查参数的注解
-     * 每个参数有且仅有一个注解
-     */
-    private void checkParamsAnnotation(Annotation[][] annotations, Object[] args, String methodName, Object requestTag) {
-        if (annotations != null && args != null && annotations.length > 0 && args.length > 0) {
-            if (annotations.length != args.length)
-                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "params error method:" + methodName + "  params have to have one annotation, such as @Query @Path");
-            for (Annotation[] annotationArr : annotations) {
-                if (annotationArr.length != 1)
-                    throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "params error method:" + methodName + "  params have to have one annotation, but there is more than one !");
-            }
+        private void unregister() {
+            if (httpCall.requestTag != null) tagIndex.unregister(httpCall.requestTag, httpCall);
+            if (httpCall.group != null) groupIndex.unregister(httpCall.group, httpCall);
         }
     }
 
@@ -2,6 +2,8 @@ package com.supermax.base.common.http;
 
 import android.text.TextUtils;
 
+import com.supermax.base.common.aspect.CompressType;
+import com.supermax.base.common.aspect.PriorityType;
 import com.supermax.base.common.exception.QsException;
 import com.supermax.base.common.exception.QsExceptionType;
 
@@ -21,6 +23,10 @@ public class HttpBuilder {
     private final Object[]                args;
     private final String                  requestType;
     private       String                  terminal;
+    private       TerminalGroup           terminalGroup;
+    private       PriorityType            priority;
+    private       CompressType            compressType;
+    private       long                    compressMinSize;
     private HashMap<String, String> urlParameters;
 
     private Headers.Builder headerBuilder = new Headers.Builder();
@@ -60,6 +66,50 @@ public class HttpBuilder {
         return terminal;
     }
 
+    /**
+     * 在一组镜像terminal之间熔断和故障转移，接口方法上的@TERMINAL优先
+     * TerminalGroup保存熔断状态，应当全局只创建一个实例
+     */
+    public HttpBuilder setTerminalGroup(TerminalGroup terminalGroup) {
+        this.terminalGroup = terminalGroup;
+        return this;
+    }
+
+    TerminalGroup getTerminalGroup() {
+        return terminalGroup;
+    }
+
+    /**
+     * 覆盖接口方法上的@Priority
+     */
+    public HttpBuilder setPriority(PriorityType priority) {
+        this.priority = priority;
+        return this;
+    }
+
+    PriorityType getPriority() {
+        return priority;
+    }
+
+    /**
+     * 请求体压缩，接口方法上的@Compress优先
+     *
+     * @param minSize 请求体小于该字节数时不压缩
+     */
+    public HttpBuilder setCompress(CompressType compressType, long minSize) {
+        this.compressType = compressType;
+        this.compressMinSize = minSize;
+        return this;
+    }
+
+    CompressType getCompressType() {
+        return compressType;
+    }
+
+    long getCompressMinSize() {
+        return compressMinSize;
+    }
+
     public HttpBuilder addUrlParameters(String key, String value) {
         if (!TextUtils.isEmpty(key) && !TextUtils.isEmpty(value)) {
             if (urlParameters == null) {
@@ -0,0 +1,487 @@
+package com.supermax.base.common.http;
+
+import android.support.annotation.NonNull;
+import android.util.LruCache;
+
+import com.supermax.base.common.log.L;
+import com.supermax.base.common.utils.StreamCloseUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.ByteString;
+import okio.ForwardingSource;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 14:31
+ * @Description http响应缓存，内存中保存解析好的对象，磁盘中保存原始响应体
+ * 缓存按url和身份请求头区分，响应声明了Vary时还要求对应的请求头一致，Vary: *不缓存
+ * 磁盘按最近使用顺序淘汰，总大小不超过maxDiskSize
+ */
+public class HttpCache {
+    private static final String TAG         = "HttpCache";
+    private static final String SUFFIX_META = ".meta";
+    private static final String SUFFIX_BODY = ".body";
+    private static final String SUFFIX_TMP  = ".tmp";
+    /**
+     * 区分账号的请求头，值不同的请求不共用缓存
+     */
+    private static final String[] IDENTITY_HEADERS = {"Authorization", "Cookie"};
+
+    private final File                     directory;
+    private final long                     maxDiskSize;
+    private final LruCache<String, Entry>  memoryCache;
+    /**
+     * 磁盘文件索引，key为url的md5加身份请求头的md5，value为文件大小，按访问顺序排列
+     */
+    private final LinkedHashMap<String, Long> diskIndex = new LinkedHashMap<>(16, 0.75f, true);
+    private       long                        diskSize;
+    private       boolean                     initialized;
+
+    public HttpCache(File directory, long maxDiskSize, int maxMemoryCount) {
+        this.directory = directory;
+        this.maxDiskSize = maxDiskSize;
+        this.memoryCache = new LruCache<>(maxMemoryCount);
+    }
+
+    /**
+     * 清空内存和磁盘缓存
+     */
+    public synchronized void clear() {
+        memoryCache.evictAll();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (!file.delete()) L.e(TAG, "delete cache file failed:" + file.getPath());
+            }
+        }
+        diskIndex.clear();
+        diskSize = 0;
+    }
+
+    /**
+     * 删除url对应的所有缓存，包括不同账号的
+     */
+    public synchronized void remove(String url) {
+        for (Map.Entry<String, Entry> entry : memoryCache.snapshot().entrySet()) {
+            if (url.equals(entry.getValue().url)) memoryCache.remove(entry.getKey());
+        }
+        initialize();
+        String urlKey = urlKey(url);
+        for (String key : new ArrayList<>(diskIndex.keySet())) {
+            if (key.equals(urlKey) || key.startsWith(urlKey + "-")) removeDisk(key);
+        }
+    }
+
+    /**
+     * 只删除和request身份相同的缓存
+     */
+    synchronized void remove(Request request) {
+        String key = key(request);
+        for (Map.Entry<String, Entry> entry : memoryCache.snapshot().entrySet()) {
+            if (key.equals(entry.getValue().key)) memoryCache.remove(entry.getKey());
+        }
+        initialize();
+        removeDisk(key);
+    }
+
+    public long getDiskSize() {
+        synchronized (this) {
+            initialize();
+            return diskSize;
+        }
+    }
+
+    Entry getMemory(String memoryKey) {
+        return memoryCache.get(memoryKey);
+    }
+
+    void putMemory(String memoryKey, Entry entry) {
+        memoryCache.put(memoryKey, entry);
+    }
+
+    /**
+     * 读取磁盘中的原始响应，不存在或Vary请求头不一致时返回null
+     */
+    Response getDisk(Request request) {
+        String key = key(request);
+        File metaFile = new File(directory, key + SUFFIX_META);
+        File bodyFile = new File(directory, key + SUFFIX_BODY);
+        synchronized (this) {
+            initialize();
+            if (diskIndex.get(key) == null) return null;
+        }
+        if (!metaFile.setLastModified(System.currentTimeMillis())) L.i(TAG, "touch cache file failed:" + metaFile.getPath());
+        BufferedSource metaSource = null;
+        try {
+            metaSource = Okio.buffer(Okio.source(metaFile));
+            long storedAt = Long.parseLong(metaSource.readUtf8LineStrict());
+            int code = Integer.parseInt(metaSource.readUtf8LineStrict());
+            Headers.Builder headersBuilder = new Headers.Builder();
+            String line;
+            while ((line = metaSource.readUtf8Line()) != null && !line.isEmpty()) {
+                headersBuilder.add(line);
+            }
+            Headers headers = headersBuilder.build();
+            Headers.Builder varyBuilder = new Headers.Builder();
+            while ((line = metaSource.readUtf8Line()) != null && !line.isEmpty()) {
+                varyBuilder.add(line);
+            }
+            if (!varyMatches(headers, varyBuilder.build(), request)) return null;
+            String contentType = headers.get("Content-Type");
+            BufferedSource bodySource = Okio.buffer(Okio.source(bodyFile));
+            ResponseBody body = ResponseBody.create(contentType == null ? null : MediaType.parse(contentType), bodyFile.length(), bodySource);
+            return new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(code)
+                    .message("cache")
+                    .headers(headers)
+                    .body(body)
+                    .sentRequestAtMillis(storedAt)
+                    .receivedResponseAtMillis(storedAt)
+                    .build();
+        } catch (Exception e) {
+            L.e(TAG, "read cache failed... url:" + request.url() + "  message:" + e.getMessage());
+            synchronized (this) {
+                removeDisk(key);
+            }
+            return null;
+        } finally {
+            StreamCloseUtils.close(metaSource);
+        }
+    }
+
+    /**
+     * 服务端返回304后刷新缓存时间
+     */
+    void refresh(String memoryKey, Entry entry, long storedAt) {
+        entry.storedAt = storedAt;
+        memoryCache.put(memoryKey, entry);
+        String key = entry.key;
+        File metaFile = new File(directory, key + SUFFIX_META);
+        if (!metaFile.exists()) return;
+        BufferedSource source = null;
+        BufferedSink sink = null;
+        try {
+            source = Okio.buffer(Okio.source(metaFile));
+            source.readUtf8LineStrict();
+            Buffer rest = new Buffer();
+            source.readAll(rest);
+            File tmpFile = new File(directory, key + SUFFIX_META + "." + Thread.currentThread().getId() + SUFFIX_TMP);
+            sink = Okio.buffer(Okio.sink(tmpFile));
+            sink.writeUtf8(String.valueOf(storedAt)).writeByte('\n');
+            sink.writeAll(rest);
+            sink.close();
+            sink = null;
+            if (!tmpFile.renameTo(metaFile)) L.e(TAG, "refresh cache meta failed... url:" + entry.url);
+        } catch (IOException e) {
+            L.e(TAG, "refresh cache meta failed... url:" + entry.url + "  message:" + e.getMessage());
+        } finally {
+            StreamCloseUtils.close(source, sink);
+        }
+    }
+
+    /**
+     * 包装响应体，边读边写入磁盘，读取完整后提交，不完整时丢弃
+     */
+    Response cacheWriting(Response response, long storedAt) {
+        ResponseBody body = response.body();
+        if (body == null) return response;
+        String key = key(response.request());
+        synchronized (this) {
+            // 先建立索引，否则首次提交时扫描磁盘会把正在写入的临时文件删掉
+            initialize();
+        }
+        try {
+            if (!directory.exists() && !directory.mkdirs()) return response;
+            String tmpSuffix = "." + Thread.currentThread().getId() + SUFFIX_TMP;
+            File metaTmp = new File(directory, key + SUFFIX_META + tmpSuffix);
+            File bodyTmp = new File(directory, key + SUFFIX_BODY + tmpSuffix);
+            BufferedSink metaSink = Okio.buffer(Okio.sink(metaTmp));
+            try {
+                metaSink.writeUtf8(String.valueOf(storedAt)).writeByte('\n');
+                metaSink.writeUtf8(String.valueOf(response.code())).writeByte('\n');
+                Headers headers = response.headers();
+                for (int i = 0, size = headers.size(); i < size; i++) {
+                    metaSink.writeUtf8(headers.name(i)).writeUtf8(": ").writeUtf8(headers.value(i)).writeByte('\n');
+                }
+                metaSink.writeByte('\n');
+                Headers varyHeaders = varyHeaders(response.request(), headers);
+                for (int i = 0, size = varyHeaders.size(); i < size; i++) {
+                    metaSink.writeUtf8(varyHeaders.name(i)).writeUtf8(": ").writeUtf8(varyHeaders.value(i)).writeByte('\n');
+                }
+            } finally {
+                metaSink.close();
+            }
+            BufferedSink bodySink = Okio.buffer(Okio.sink(bodyTmp));
+            CacheWritingSource source = new CacheWritingSource(body.source(), bodySink, key, metaTmp, bodyTmp);
+            ResponseBody cacheBody = ResponseBody.create(body.contentType(), body.contentLength(), Okio.buffer(source));
+            return response.newBuilder().body(cacheBody).build();
+        } catch (IOException e) {
+            L.e(TAG, "write cache failed... url:" + response.request().url() + "  message:" + e.getMessage());
+            return response;
+        }
+    }
+
+    private synchronized void commit(String key, File metaTmp, File bodyTmp) {
+        initialize();
+        removeDisk(key);
+        File metaFile = new File(directory, key + SUFFIX_META);
+        File bodyFile = new File(directory, key + SUFFIX_BODY);
+        if (bodyTmp.renameTo(bodyFile) && metaTmp.renameTo(metaFile)) {
+            long size = metaFile.length() + bodyFile.length();
+            diskIndex.put(key, size);
+            diskSize += size;
+            trimToSize();
+        } else {
+            deleteQuietly(metaTmp, bodyTmp, metaFile, bodyFile);
+        }
+    }
+
+    private void trimToSize() {
+        Iterator<Map.Entry<String, Long>> iterator = diskIndex.entrySet().iterator();
+        while (diskSize > maxDiskSize && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            diskSize -= eldest.getValue();
+            deleteQuietly(new File(directory, eldest.getKey() + SUFFIX_META), new File(directory, eldest.getKey() + SUFFIX_BODY));
+        }
+    }
+
+    private void removeDisk(String key) {
+        Long size = diskIndex.remove(key);
+        if (size != null) diskSize -= size;
+        deleteQuietly(new File(directory, key + SUFFIX_META), new File(directory, key + SUFFIX_BODY));
+    }
+
+    /**
+     * 首次访问时扫描磁盘建立索引，按文件修改时间近似恢复使用顺序
+     */
+    private void initialize() {
+        if (initialized) return;
+        initialized = true;
+        File[] files = directory.listFiles();
+        if (files == null) return;
+        List<File> metaFiles = new ArrayList<>();
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(SUFFIX_TMP)) {
+                deleteQuietly(file);
+            } else if (name.endsWith(SUFFIX_META)) {
+                metaFiles.add(file);
+            }
+        }
+        Collections.sort(metaFiles, new Comparator<File>() {
+            @Override public int compare(File o1, File o2) {
+                long l1 = o1.lastModified();
+                long l2 = o2.lastModified();
+                return l1 < l2 ? -1 : (l1 == l2 ? 0 : 1);
+            }
+        });
+        for (File metaFile : metaFiles) {
+            String key = metaFile.getName().substring(0, metaFile.getName().length() - SUFFIX_META.length());
+            File bodyFile = new File(directory, key + SUFFIX_BODY);
+            if (bodyFile.exists()) {
+                long size = metaFile.length() + bodyFile.length();
+                diskIndex.put(key, size);
+                diskSize += size;
+            } else {
+                deleteQuietly(metaFile);
+            }
+        }
+        trimToSize();
+    }
+
+    private static void deleteQuietly(File... files) {
+        for (File file : files) {
+            if (file.exists() && !file.delete()) L.e(TAG, "delete cache file failed:" + file.getPath());
+        }
+    }
+
+    /**
+     * 成功的响应才缓存，no-store和Vary: *不缓存
+     * 没有allowPrivate时，Cache-Control: private的响应和带Authorization的请求也不缓存
+     */
+    static boolean isStorable(Response response, boolean allowPrivate) {
+        if (!response.isSuccessful() || response.cacheControl().noStore()) return false;
+        if (varyFields(response.headers()).contains("*")) return false;
+        return allowPrivate || (!response.cacheControl().isPrivate() && response.request().header("Authorization") == null);
+    }
+
+    /**
+     * url的md5，带身份请求头时再拼接身份请求头的md5
+     */
+    static String key(Request request) {
+        Buffer identity = null;
+        for (String name : IDENTITY_HEADERS) {
+            for (String value : request.headers(name)) {
+                if (identity == null) identity = new Buffer();
+                identity.writeUtf8(name).writeByte(':').writeUtf8(value).writeByte('\n');
+            }
+        }
+        String urlKey = urlKey(request.url().toString());
+        return identity == null ? urlKey : urlKey + "-" + identity.readByteString().md5().hex();
+    }
+
+    private static String urlKey(String url) {
+        return ByteString.encodeUtf8(url).md5().hex();
+    }
+
+    private static Set<String> varyFields(Headers responseHeaders) {
+        Set<String> fields = null;
+        for (String value : responseHeaders.values("Vary")) {
+            for (String field : value.split(",")) {
+                field = field.trim();
+                if (field.isEmpty()) continue;
+                if (fields == null) fields = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+                fields.add(field);
+            }
+        }
+        return fields == null ? Collections.<String>emptySet() : fields;
+    }
+
+    /**
+     * 响应Vary声明的请求头在request中的值
+     */
+    private static Headers varyHeaders(Request request, Headers responseHeaders) {
+        Headers.Builder builder = new Headers.Builder();
+        for (String field : varyFields(responseHeaders)) {
+            for (String value : request.headers(field)) {
+                builder.add(field, value);
+            }
+        }
+        return builder.build();
+    }
+
+    private static boolean varyMatches(Headers responseHeaders, Headers storedVaryHeaders, Request request) {
+        for (String field : varyFields(responseHeaders)) {
+            if (!storedVaryHeaders.values(field).equals(request.headers(field))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 内存缓存项，value为解析好的对象
+     */
+    static final class Entry {
+        final    String  url;
+        final    String  key;
+        final    String  eTag;
+        final    String  lastModified;
+        final    Object  value;
+        final    Headers responseHeaders;
+        final    Headers varyHeaders;
+        volatile long    storedAt;
+
+        Entry(Response response, Object value, long storedAt) {
+            Request request = response.request();
+            this.url = request.url().toString();
+            this.key = key(request);
+            this.eTag = response.header("ETag");
+            this.lastModified = response.header("Last-Modified");
+            this.value = value;
+            this.responseHeaders = response.headers();
+            this.varyHeaders = varyHeaders(request, responseHeaders);
+            this.storedAt = storedAt;
+        }
+
+        /**
+         * Vary声明的请求头和缓存时一致
+         */
+        boolean matches(Request request) {
+            return varyMatches(responseHeaders, varyHeaders, request);
+        }
+    }
+
+    private final class CacheWritingSource extends ForwardingSource {
+        private final BufferedSink cacheSink;
+        private final String       key;
+        private final File         metaTmp;
+        private final File         bodyTmp;
+        private       boolean      done;
+
+        CacheWritingSource(Source delegate, BufferedSink cacheSink, String key, File metaTmp, File bodyTmp) {
+            super(delegate);
+            this.cacheSink = cacheSink;
+            this.key = key;
+            this.metaTmp = metaTmp;
+            this.bodyTmp = bodyTmp;
+        }
+
+        @Override public long read(@NonNull Buffer sink, long byteCount) throws IOException {
+            long read;
+            try {
+                read = super.read(sink, byteCount);
+            } catch (IOException e) {
+                abort();
+                throw e;
+            }
+            if (read == -1) {
+                finish();
+                return -1;
+            }
+            if (!done) {
+                sink.copyTo(cacheSink.buffer(), sink.size() - read, read);
+                cacheSink.emitCompleteSegments();
+            }
+            return read;
+        }
+
+        /**
+         * Json解析完成后可能还有少量未读的尾部字符，关闭前读完再提交
+         */
+        @Override public void close() throws IOException {
+            if (!done) {
+                try {
+                    Buffer buffer = new Buffer();
+                    while (read(buffer, 8192) != -1) {
+                        buffer.clear();
+                    }
+                } catch (IOException e) {
+                    abort();
+                }
+            }
+            super.close();
+        }
+
+        private void finish() {
+            if (done) return;
+            done = true;
+            try {
+                cacheSink.close();
+                commit(key, metaTmp, bodyTmp);
+            } catch (IOException e) {
+                deleteQuietly(metaTmp, bodyTmp);
+            }
+        }
+
+        private void abort() {
+            if (done) return;
+            done = true;
+            StreamCloseUtils.close(cacheSink);
+            deleteQuietly(metaTmp, bodyTmp);
+        }
+    }
+}
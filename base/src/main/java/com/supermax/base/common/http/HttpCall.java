@@ -0,0 +1,267 @@
+package com.supermax.base.common.http;
+
+import com.supermax.base.common.aspect.PriorityType;
+import com.supermax.base.common.exception.QsException;
+import com.supermax.base.common.exception.QsExceptionType;
+import com.supermax.base.common.utils.QsHelper;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.Call;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 11:12
+ * @Description 一次接口方法调用，持有请求计划和参数，实际执行交给HttpAdapter
+ */
+final class HttpCall<T> implements QsCall<T> {
+    final HttpAdapter   adapter;
+    final ServiceMethod serviceMethod;
+    final Object[]      args;
+    final Object        requestTag;
+    final Object        group;
+    HttpBuilder         httpBuilder;
+
+    /**
+     * 合并到其他请求时所在的Flight
+     */
+    volatile SingleFlight.Flight flight;
+
+    /**
+     * 已重试次数，同一时刻只会在一个线程里修改
+     */
+    volatile int retryCount;
+
+    /**
+     * 构建请求时确定的优先级
+     */
+    volatile PriorityType priority;
+
+    /**
+     * 在PriorityDispatcher中排队的凭证
+     */
+    volatile PriorityDispatcher.Ticket ticket;
+
+    /**
+     * 返回值为QsStream时，分块回调解析结果
+     */
+    volatile HttpStream.Emitter emitter;
+
+    /**
+     * @ChunkedUpload上传中的分块
+     */
+    volatile HttpUpload<?> upload;
+
+    /**
+     * 设置了TerminalGroup时，本次尝试中已经失败过的terminal，重试前清空
+     */
+    final Set<String> triedTerminals = Collections.synchronizedSet(new HashSet<String>());
+
+    /**
+     * 在子线程同步调用时所在的线程，请求和重试等待直接在这个线程进行，不再占用OkHttp和定时线程
+     */
+    private volatile Thread  blockingThread;
+
+    private volatile Call    rawCall;
+    private PendingTask      pendingTask;
+    private volatile boolean canceled;
+    private boolean          executed;
+
+    HttpCall(HttpAdapter adapter, ServiceMethod serviceMethod, Object[] args, Object requestTag, Object group) {
+        this.adapter = adapter;
+        this.serviceMethod = serviceMethod;
+        this.args = args;
+        this.requestTag = requestTag;
+        this.group = group;
+    }
+
+    @Override public T execute() {
+        markExecuted();
+        BlockingCallback<T> callback = new BlockingCallback<>();
+        // 主线程不能访问网络，仍交给OkHttp的线程执行
+        if (!QsHelper.getInstance().getThreadHelper().isMainThread()) blockingThread = Thread.currentThread();
+        try {
+            adapter.start(this, callback);
+        } finally {
+            blockingThread = null;
+        }
+        return callback.await();
+    }
+
+    @Override public void enqueue(QsCallback<T> callback) {
+        markExecuted();
+        adapter.start(this, new MainThreadCallback<>(this, callback));
+    }
+
+    private void markExecuted() {
+        synchronized (this) {
+            if (executed) {
+                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "method:" + serviceMethod.methodName + " QsCall already executed");
+            }
+            executed = true;
+        }
+    }
+
+    /**
+     * 当前线程是同步调用的线程时返回true，此时请求应该用Call.execute()在当前线程执行
+     */
+    boolean isBlockingThread() {
+        return blockingThread == Thread.currentThread();
+    }
+
+    void setRawCall(Call call) {
+        this.rawCall = call;
+        if (canceled) call.cancel();
+    }
+
+    /**
+     * 延时执行task，cancel时不再等待，立即执行
+     * 同步调用的线程中直接等待delayMs后在当前线程执行，等待被中断时取消请求
+     */
+    void schedule(Runnable task, long delayMs) {
+        PendingTask pending = new PendingTask(task);
+        synchronized (this) {
+            pendingTask = pending;
+        }
+        if (isBlockingThread()) {
+            try {
+                if (!canceled) pending.await(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+            }
+            pending.run();
+            return;
+        }
+        pending.future = QsHelper.getInstance().getThreadHelper().getScheduledThreadPoll().schedule(pending, delayMs, TimeUnit.MILLISECONDS);
+        if (canceled) pending.run();
+    }
+
+    @Override public void cancel() {
+        canceled = true;
+        Call call = rawCall;
+        if (call != null) call.cancel();
+        PriorityDispatcher.Ticket queued = ticket;
+        if (queued != null) queued.cancel();
+        PendingTask pending;
+        synchronized (this) {
+            pending = pendingTask;
+            pendingTask = null;
+        }
+        if (pending != null) pending.run();
+        SingleFlight.Flight joined = flight;
+        if (joined != null) joined.remove(this);
+        HttpUpload<?> uploading = upload;
+        if (uploading != null) uploading.cancel();
+    }
+
+    @Override public boolean isCanceled() {
+        if (canceled) return true;
+        Call call = rawCall;
+        return call != null && call.isCanceled();
+    }
+
+    @Override public synchronized boolean isExecuted() {
+        return executed;
+    }
+
+    @Override public Object getRequestTag() {
+        return requestTag;
+    }
+
+    /**
+     * 只会执行一次的延时任务
+     */
+    private static final class PendingTask implements Runnable {
+        private final    Runnable      task;
+        private final    AtomicBoolean  fired = new AtomicBoolean();
+        private final    CountDownLatch wake  = new CountDownLatch(1);
+        private volatile Future<?>      future;
+
+        PendingTask(Runnable task) {
+            this.task = task;
+        }
+
+        /**
+         * 等待到期或被其他线程提前执行
+         */
+        void await(long delayMs) throws InterruptedException {
+            wake.await(delayMs, TimeUnit.MILLISECONDS);
+        }
+
+        @Override public void run() {
+            if (!fired.compareAndSet(false, true)) return;
+            wake.countDown();
+            Future<?> f = future;
+            if (f != null) f.cancel(false);
+            task.run();
+        }
+    }
+
+    /**
+     * 同步调用的结果，请求在调用线程执行时start返回前已经有结果
+     * 合并请求、分块上传、对冲请求和主线程的同步调用在其他线程完成，需要阻塞等待，等待的线程被中断时取消请求
+     */
+    private final class BlockingCallback<R> implements QsCallback<R> {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private       R              result;
+        private       QsException    exception;
+
+        @Override public void onSuccess(R result) {
+            this.result = result;
+            latch.countDown();
+        }
+
+        @Override public void onFailure(QsException exception) {
+            this.exception = exception;
+            latch.countDown();
+        }
+
+        R await() {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                cancel();
+                Thread.currentThread().interrupt();
+                throw new QsException(QsExceptionType.CANCEL, requestTag, "method:" + serviceMethod.methodName + " interrupted while waiting for response");
+            }
+            if (exception != null) throw exception;
+            return result;
+        }
+    }
+
+    /**
+     * 异步调用时切换到主线程回调，请求已取消则不再回调
+     */
+    private static final class MainThreadCallback<R> implements QsCallback<R> {
+        private final QsCall<R>      call;
+        private final QsCallback<R>  delegate;
+
+        MainThreadCallback(QsCall<R> call, QsCallback<R> delegate) {
+            this.call = call;
+            this.delegate = delegate;
+        }
+
+        @Override public void onSuccess(final R result) {
+            QsHelper.getInstance().getThreadHelper().getMainThread().execute(new Runnable() {
+                @Override public void run() {
+                    if (!call.isCanceled()) delegate.onSuccess(result);
+                }
+            });
+        }
+
+        @Override public void onFailure(final QsException exception) {
+            QsHelper.getInstance().getThreadHelper().getMainThread().execute(new Runnable() {
+                @Override public void run() {
+                    if (!call.isCanceled()) delegate.onFailure(exception);
+                }
+            });
+        }
+    }
+}
@@ -5,19 +5,27 @@ import android.text.TextUtils;
 import com.google.gson.Gson;
 import com.google.gson.JsonIOException;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.supermax.base.common.exception.QsException;
 import com.supermax.base.common.exception.QsExceptionType;
 import com.supermax.base.common.log.L;
 import com.supermax.base.common.utils.StreamCloseUtils;
 
 import java.io.BufferedReader;
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.lang.reflect.Field;
 import java.lang.reflect.Type;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
 
@@ -44,20 +52,93 @@ public class HttpConverter {
         return gson.fromJson(jsonStr, type);
     }
 
+    /**
+     * 获取返回类型对应的解析器，由ServiceMethod缓存复用
+     */
+    TypeAdapter<?> getAdapter(Type type) {
+        return gson.getAdapter(TypeToken.get(type));
+    }
+
+    /**
+     * 直接从字符流解析，不生成中间的Json字符串，空响应体返回null
+     */
+    Object readerToObject(Reader reader, TypeAdapter<?> adapter) {
+        JsonReader jsonReader = new JsonReader(reader);
+        jsonReader.setLenient(true);
+        boolean isEmpty = true;
+        try {
+            jsonReader.peek();
+            isEmpty = false;
+            return adapter.read(jsonReader);
+        } catch (EOFException e) {
+            if (isEmpty) return null;
+            throw new JsonSyntaxException(e);
+        } catch (IllegalStateException e) {
+            throw new JsonSyntaxException(e);
+        } catch (IOException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    /**
+     * 按path找到Json数组，逐个元素解析，每chunkSize个回调一次
+     *
+     * @return false表示被receiver中断
+     */
+    boolean readArray(Reader reader, String[] path, TypeAdapter<?> adapter, int chunkSize, ChunkReceiver receiver) throws IOException {
+        JsonReader jsonReader = new JsonReader(reader);
+        jsonReader.setLenient(true);
+        try {
+            jsonReader.peek();
+        } catch (EOFException e) {
+            return true;
+        }
+        for (String name : path) {
+            jsonReader.beginObject();
+            boolean found = false;
+            while (jsonReader.hasNext()) {
+                if (name.equals(jsonReader.nextName())) {
+                    found = true;
+                    break;
+                }
+                jsonReader.skipValue();
+            }
+            if (!found) throw new JsonSyntaxException("stream array path not found: " + name);
+        }
+        if (jsonReader.peek() == JsonToken.NULL) return true;
+        jsonReader.beginArray();
+        List<Object> chunk = new ArrayList<>(chunkSize);
+        while (jsonReader.hasNext()) {
+            chunk.add(adapter.read(jsonReader));
+            if (chunk.size() >= chunkSize) {
+                if (!receiver.onChunk(chunk)) return false;
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        return chunk.isEmpty() || receiver.onChunk(chunk);
+    }
+
+    interface ChunkReceiver {
+        /**
+         * @return false时停止解析
+         */
+        boolean onChunk(List<Object> chunk);
+    }
+
     RequestBody stringToBody(String methodName, String mimeType, String body) {
         L.i(TAG, "methodName:" + methodName + "  请求体 mimeType:" + mimeType + ", String:" + body);
         return RequestBody.create(MediaType.parse(mimeType), body);
     }
 
-    RequestBody jsonToBody(String methodName, String mimeType, Object object, Type type) {
-        String json = gson.toJson(object, type);
-        L.i(TAG, "methodName:" + methodName + "  请求体 mimeType:" + mimeType + ", Json : " + json);
-        return RequestBody.create(MediaType.parse(mimeType), json);
+    RequestBody jsonToBody(String mimeType, Object object, Type type) {
+        return new JsonRequestBody(gson, MediaType.parse(mimeType), object, type);
     }
 
-    RequestBody fileToBody(String methodName, String mimeType, File file) {
+    RequestBody fileToBody(String methodName, String mimeType, File file, QsProgressListener listener) {
         L.i(TAG, "methodName:" + methodName + "  请求体 mimeType:" + mimeType + ", File:" + file.getPath());
-        return RequestBody.create(MediaType.parse(mimeType), file);
+        long length = file.length();
+        ProgressReporter progress = listener == null ? null : new ProgressReporter(listener, length);
+        return new FileRequestBody(MediaType.parse(mimeType), file, 0, length, progress);
     }
 
     RequestBody byteToBody(String methodName, String mimeType, byte[] bytes) {
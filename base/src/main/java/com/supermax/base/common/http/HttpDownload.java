@@ -0,0 +1,475 @@
+package com.supermax.base.common.http;
+
+import com.supermax.base.common.exception.QsException;
+import com.supermax.base.common.exception.QsExceptionType;
+import com.supermax.base.common.log.L;
+import com.supermax.base.common.utils.QsHelper;
+import com.supermax.base.common.utils.StreamCloseUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.Call;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.Okio;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 22:25
+ * @Description QsDownload的实现
+ * 第一个请求带Range: bytes=0-，服务端返回206且文件足够大时按segmentCount切分，其余分段并行下载，第一个分段复用这个响应
+ * 每个分段通过各自的FileChannel写到临时文件的对应位置，读写只经过Okio的固定大小缓冲
+ * 断点续传时带If-Range，服务端返回200说明文件已变化，清掉临时文件重新下载
+ */
+final class HttpDownload implements QsDownload {
+    private static final String TAG                   = "HttpDownload";
+    private static final String SUFFIX_TMP            = ".download";
+    private static final String SUFFIX_META           = ".download.meta";
+    private static final long   BUFFER_SIZE           = 8192;
+    private static final long   MIN_SEGMENT_SIZE      = 1024 * 1024;
+    private static final long   PROGRESS_INTERVAL_MS  = 300;
+    private static final long   CHECKPOINT_INTERVAL_MS = 1000;
+
+    private final HttpAdapter   adapter;
+    private final String        url;
+    private final File          target;
+    private final File          tmpFile;
+    private final File          metaFile;
+    private final int           segmentCount;
+    private final List<Call>    calls      = new ArrayList<>();
+    private final AtomicBoolean executed   = new AtomicBoolean();
+    private final AtomicLong    downloaded = new AtomicLong();
+    private final AtomicLong    lastProgressAt = new AtomicLong();
+    private final AtomicLong    lastCheckpointAt = new AtomicLong();
+
+    private volatile boolean            canceled;
+    private volatile QsDownloadCallback callback;
+    private volatile long               total = -1;
+    private          String             validator;
+    private          Segment[]          segments;
+
+    HttpDownload(HttpAdapter adapter, String url, File target, int segmentCount) {
+        this.adapter = adapter;
+        this.url = url;
+        this.target = target;
+        this.tmpFile = new File(target.getPath() + SUFFIX_TMP);
+        this.metaFile = new File(target.getPath() + SUFFIX_META);
+        this.segmentCount = Math.max(1, segmentCount);
+    }
+
+    @Override public void enqueue(QsDownloadCallback callback) {
+        if (!executed.compareAndSet(false, true)) throw new IllegalStateException("Already executed.");
+        this.callback = callback;
+        adapter.getHttpClient().dispatcher().executorService().execute(new Runnable() {
+            @Override public void run() {
+                try {
+                    final File file = download();
+                    post(new Runnable() {
+                        @Override public void run() {
+                            QsDownloadCallback cb = HttpDownload.this.callback;
+                            if (cb == null) return;
+                            cb.onProgress(downloaded.get(), total);
+                            cb.onSuccess(file);
+                        }
+                    });
+                } catch (final QsException e) {
+                    L.e(TAG, e.getMessage());
+                    post(new Runnable() {
+                        @Override public void run() {
+                            QsDownloadCallback cb = HttpDownload.this.callback;
+                            if (cb != null) cb.onFailure(e);
+                        }
+                    });
+                } finally {
+                    adapter.onDownloadFinished(HttpDownload.this);
+                }
+            }
+        });
+    }
+
+    @Override public void cancel() {
+        canceled = true;
+        synchronized (calls) {
+            for (Call call : calls) {
+                call.cancel();
+            }
+        }
+    }
+
+    @Override public boolean isCanceled() {
+        return canceled;
+    }
+
+    @Override public String getUrl() {
+        return url;
+    }
+
+    @Override public File getTarget() {
+        return target;
+    }
+
+    private File download() {
+        if (!QsHelper.getInstance().isNetworkAvailable()) {
+            throw new QsException(QsExceptionType.NETWORK_ERROR, null, "network error...  download url:" + url + " message:network disable");
+        }
+        try {
+            if (readMeta()) {
+                L.i(TAG, "resume download url:" + url + " from " + downloaded.get() + "/" + total);
+                try {
+                    runSegments(null);
+                    return finish();
+                } catch (RangeChangedException e) {
+                    L.i(TAG, "remote file changed, restart download url:" + url);
+                }
+            }
+            return downloadFromStart();
+        } catch (IOException e) {
+            checkCanceled();
+            throw new QsException(QsExceptionType.HTTP_ERROR, null, "IOException...  download url:" + url + " message:" + e.getMessage());
+        }
+    }
+
+    private File downloadFromStart() throws IOException {
+        deleteQuietly(tmpFile, metaFile);
+        downloaded.set(0);
+        Response response = execute(new Request.Builder().url(url).header("Range", "bytes=0-").build());
+        int code = response.code();
+        if (code != 200 && code != 206) {
+            StreamCloseUtils.close(response);
+            throw new QsException(QsExceptionType.HTTP_ERROR, null, "http error... download url:" + url + " code:" + code);
+        }
+        long length = code == 206 ? parseTotal(response.header("Content-Range")) : response.body().contentLength();
+        total = length;
+        validator = code == 206 ? validatorOf(response) : null;
+        int count = length > 0 && validator != null ? (int) Math.min(segmentCount, length / MIN_SEGMENT_SIZE) : 1;
+        count = Math.max(1, count);
+        segments = new Segment[count];
+        long size = length > 0 ? length / count : -1;
+        for (int i = 0; i < count; i++) {
+            long start = size < 0 ? 0 : i * size;
+            long end = size < 0 ? -1 : (i == count - 1 ? length - 1 : start + size - 1);
+            segments[i] = new Segment(start, end, start);
+        }
+        if (validator != null) writeMeta();
+        try {
+            runSegments(response);
+        } catch (RangeChangedException e) {
+            throw new IOException("server ignored range request");
+        }
+        return finish();
+    }
+
+    /**
+     * 第一个未完成的分段在当前线程执行，其余交给OkHttp的线程池，等待全部结束
+     */
+    private void runSegments(Response firstResponse) throws IOException {
+        final AtomicReference<IOException> error = new AtomicReference<>();
+        List<Segment> pending = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (!segment.isComplete()) pending.add(segment);
+        }
+        if (pending.isEmpty()) {
+            StreamCloseUtils.close(firstResponse);
+            return;
+        }
+        if (firstResponse != null && pending.get(0).position != 0) {
+            StreamCloseUtils.close(firstResponse);
+            firstResponse = null;
+        }
+        final CountDownLatch latch = new CountDownLatch(pending.size() - 1);
+        for (int i = 1; i < pending.size(); i++) {
+            final Segment segment = pending.get(i);
+            adapter.getHttpClient().dispatcher().executorService().execute(new Runnable() {
+                @Override public void run() {
+                    try {
+                        runSegment(segment, null);
+                    } catch (Exception e) {
+                        IOException exception = e instanceof IOException ? (IOException) e : new IOException(e.getMessage());
+                        if (error.compareAndSet(null, exception)) cancelCalls();
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            });
+        }
+        try {
+            runSegment(pending.get(0), firstResponse);
+        } catch (IOException e) {
+            if (error.compareAndSet(null, e)) cancelCalls();
+        }
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            cancelCalls();
+            Thread.currentThread().interrupt();
+            error.compareAndSet(null, new IOException("interrupted"));
+        }
+        if (validator != null) checkpoint(null);
+        if (error.get() != null) throw error.get();
+    }
+
+    private void runSegment(Segment segment, Response response) throws IOException {
+        if (response == null) {
+            checkCanceled();
+            Request.Builder builder = new Request.Builder().url(url);
+            builder.header("Range", "bytes=" + segment.position + "-" + (segment.end < 0 ? "" : String.valueOf(segment.end)));
+            if (validator != null) builder.header("If-Range", validator);
+            response = execute(builder.build());
+            if (response.code() == 200 || response.code() == 416) {
+                StreamCloseUtils.close(response);
+                throw new RangeChangedException();
+            }
+            if (response.code() != 206) {
+                StreamCloseUtils.close(response);
+                throw new IOException("http error code:" + response.code());
+            }
+        }
+        ResponseBody body = response.body();
+        RandomAccessFile file = null;
+        BufferedSink sink = null;
+        try {
+            file = new RandomAccessFile(tmpFile, "rw");
+            FileChannel channel = file.getChannel();
+            channel.position(segment.position);
+            sink = Okio.buffer(Okio.sink(Channels.newOutputStream(channel)));
+            BufferedSource source = body.source();
+            while (segment.end < 0 || segment.position <= segment.end) {
+                long max = segment.end < 0 ? BUFFER_SIZE : Math.min(BUFFER_SIZE, segment.end - segment.position + 1);
+                long read = source.read(sink.buffer(), max);
+                if (read == -1) break;
+                sink.emit();
+                segment.position += read;
+                downloaded.addAndGet(read);
+                onProgress();
+                if (validator != null) checkpoint(channel);
+            }
+            sink.flush();
+            if (segment.end >= 0 && segment.position <= segment.end) {
+                throw new IOException("unexpected end of stream, segment:" + segment.start + "-" + segment.end + " position:" + segment.position);
+            }
+            if (segment.end < 0) total = segment.position;
+            channel.force(false);
+        } finally {
+            StreamCloseUtils.close(sink, file, response);
+        }
+    }
+
+    /**
+     * 先读取各分段位置，再把文件刷到磁盘，最后写进度，保证进度里的数据都已落盘
+     */
+    private void checkpoint(FileChannel channel) throws IOException {
+        long now = System.currentTimeMillis();
+        if (channel != null) {
+            long last = lastCheckpointAt.get();
+            if (now - last < CHECKPOINT_INTERVAL_MS || !lastCheckpointAt.compareAndSet(last, now)) return;
+        }
+        long[] positions = new long[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            positions[i] = segments[i].position;
+        }
+        if (channel != null) {
+            channel.force(false);
+        } else {
+            RandomAccessFile file = new RandomAccessFile(tmpFile, "rw");
+            try {
+                file.getFD().sync();
+            } finally {
+                StreamCloseUtils.close(file);
+            }
+        }
+        synchronized (this) {
+            writeMeta(positions);
+        }
+    }
+
+    private void writeMeta() throws IOException {
+        long[] positions = new long[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            positions[i] = segments[i].position;
+        }
+        writeMeta(positions);
+    }
+
+    /**
+     * 每行依次为：url、validator、total、分段数，之后每个分段一行"start end position"
+     */
+    private void writeMeta(long[] positions) throws IOException {
+        File tmpMeta = new File(metaFile.getPath() + ".tmp");
+        BufferedSink sink = Okio.buffer(Okio.sink(tmpMeta));
+        try {
+            sink.writeUtf8(url).writeByte('\n');
+            sink.writeUtf8(validator).writeByte('\n');
+            sink.writeDecimalLong(total).writeByte('\n');
+            sink.writeDecimalLong(segments.length).writeByte('\n');
+            for (int i = 0; i < segments.length; i++) {
+                sink.writeDecimalLong(segments[i].start).writeByte(' ');
+                sink.writeDecimalLong(segments[i].end).writeByte(' ');
+                sink.writeDecimalLong(positions[i]).writeByte('\n');
+            }
+        } finally {
+            StreamCloseUtils.close(sink);
+        }
+        if (!tmpMeta.renameTo(metaFile)) throw new IOException("rename " + tmpMeta.getPath() + " failed");
+    }
+
+    /**
+     * 读取断点，url不一致或临时文件不存在时返回false
+     */
+    private boolean readMeta() {
+        if (!metaFile.exists() || !tmpFile.exists()) return false;
+        BufferedSource source = null;
+        try {
+            source = Okio.buffer(Okio.source(metaFile));
+            if (!url.equals(source.readUtf8LineStrict())) return false;
+            String metaValidator = source.readUtf8LineStrict();
+            long metaTotal = Long.parseLong(source.readUtf8LineStrict());
+            int count = Integer.parseInt(source.readUtf8LineStrict());
+            if (metaTotal <= 0 || count <= 0) return false;
+            Segment[] metaSegments = new Segment[count];
+            long done = 0;
+            for (int i = 0; i < count; i++) {
+                String[] values = source.readUtf8LineStrict().split(" ");
+                long start = Long.parseLong(values[0]);
+                long end = Long.parseLong(values[1]);
+                long position = Long.parseLong(values[2]);
+                if (position < start || position > end + 1) return false;
+                metaSegments[i] = new Segment(start, end, position);
+                done += position - start;
+            }
+            validator = metaValidator;
+            total = metaTotal;
+            segments = metaSegments;
+            downloaded.set(done);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            L.e(TAG, "read download meta failed... " + e.getMessage());
+            return false;
+        } finally {
+            StreamCloseUtils.close(source);
+        }
+    }
+
+    private File finish() throws IOException {
+        checkCanceled();
+        if (target.exists() && !target.delete()) throw new IOException("delete " + target.getPath() + " failed");
+        if (!tmpFile.renameTo(target)) throw new IOException("rename " + tmpFile.getPath() + " failed");
+        deleteQuietly(metaFile);
+        L.i(TAG, "download complete url:" + url + " size:" + target.length());
+        return target;
+    }
+
+    private Response execute(Request request) throws IOException {
+        checkCanceled();
+        Call call = adapter.newCall(request, "download");
+        synchronized (calls) {
+            calls.add(call);
+        }
+        if (canceled) call.cancel();
+        return call.execute();
+    }
+
+    private void cancelCalls() {
+        synchronized (calls) {
+            for (Call call : calls) {
+                call.cancel();
+            }
+        }
+    }
+
+    private void checkCanceled() {
+        if (canceled) throw new QsException(QsExceptionType.CANCEL, null, "download canceled url:" + url);
+    }
+
+    private void onProgress() {
+        long now = System.currentTimeMillis();
+        long last = lastProgressAt.get();
+        if (now - last < PROGRESS_INTERVAL_MS || !lastProgressAt.compareAndSet(last, now)) return;
+        final long current = downloaded.get();
+        post(new Runnable() {
+            @Override public void run() {
+                QsDownloadCallback cb = callback;
+                if (cb != null) cb.onProgress(current, total);
+            }
+        });
+    }
+
+    /**
+     * 取消后不再回调
+     */
+    private void post(final Runnable runnable) {
+        if (canceled) return;
+        QsHelper.getInstance().getThreadHelper().getMainThread().execute(new Runnable() {
+            @Override public void run() {
+                if (!canceled) runnable.run();
+            }
+        });
+    }
+
+    /**
+     * Content-Range: bytes 0-1023/4096
+     */
+    private static long parseTotal(String contentRange) {
+        if (contentRange == null) return -1;
+        int index = contentRange.lastIndexOf('/');
+        if (index < 0) return -1;
+        try {
+            return Long.parseLong(contentRange.substring(index + 1).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * If-Range只接受强ETag或Last-Modified
+     */
+    private static String validatorOf(Response response) {
+        String etag = response.header("ETag");
+        if (etag != null && !etag.startsWith("W/")) return etag;
+        return response.header("Last-Modified");
+    }
+
+    private static void deleteQuietly(File... files) {
+        for (File file : files) {
+            if (file.exists() && !file.delete()) L.e(TAG, "delete file failed:" + file.getPath());
+        }
+    }
+
+    private static final class Segment {
+        final    long start;
+        /**
+         * 包含end，长度未知时为-1
+         */
+        final    long end;
+        volatile long position;
+
+        Segment(long start, long end, long position) {
+            this.start = start;
+            this.end = end;
+            this.position = position;
+        }
+
+        boolean isComplete() {
+            return end >= 0 && position > end;
+        }
+    }
+
+    /**
+     * 续传时服务端返回200或416，说明远端文件已经变化
+     */
+    private static final class RangeChangedException extends IOException {
+        private static final long serialVersionUID = 1L;
+    }
+}
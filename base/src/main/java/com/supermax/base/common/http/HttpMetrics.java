@@ -0,0 +1,339 @@
+package com.supermax.base.common.http;
+
+import android.support.annotation.NonNull;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 18:10
+ * @Description 网络请求耗时统计，按接口方法和终端地址分别汇总
+ * 通过OkHttp的EventListener采集各阶段耗时，只对HttpAdapter默认创建的OkHttpClient生效
+ * 获取方式：QsHelper.getInstance().getHttpHelper().getMetrics()
+ */
+public class HttpMetrics {
+
+    public enum Phase {
+        DNS,
+        CONNECT,
+        TLS,
+        REQUEST_WRITE,
+        /**
+         * 请求写完到收到响应头
+         */
+        TTFB,
+        BODY_READ,
+        TOTAL
+    }
+
+    /**
+     * 每个请求结束时回调，在OkHttp的线程里执行，不要做耗时操作
+     */
+    public interface Listener {
+        void onCallEnd(CallRecord record);
+    }
+
+    private final ConcurrentHashMap<Request, String> pendingMethodKeys = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Stats>   methodStats       = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Stats>   terminalStats     = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<Listener>     listeners         = new CopyOnWriteArrayList<>();
+    private final EventListener.Factory              factory           = new EventListener.Factory() {
+        @Override public EventListener create(@NonNull Call call) {
+            Request request = call.request();
+            return new MetricsEventListener(HttpMetrics.this, pendingMethodKeys.remove(request), terminalOf(request.url()));
+        }
+    };
+
+    HttpMetrics() {
+    }
+
+    public EventListener.Factory factory() {
+        return factory;
+    }
+
+    /**
+     * 在newCall之前把请求和接口方法关联起来，create时取出
+     */
+    void bind(Request request, String methodKey) {
+        pendingMethodKeys.put(request, methodKey);
+    }
+
+    void record(CallRecord record) {
+        if (record.methodKey != null) statsOf(methodStats, record.methodKey).add(record);
+        statsOf(terminalStats, record.terminal).add(record);
+        for (Listener listener : listeners) {
+            listener.onCallEnd(record);
+        }
+    }
+
+    public void addListener(Listener listener) {
+        if (listener != null) listeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * key为 接口类名.方法名
+     */
+    public Map<String, Snapshot> snapshotByMethod() {
+        return snapshot(methodStats);
+    }
+
+    /**
+     * key为 scheme://host:port
+     */
+    public Map<String, Snapshot> snapshotByTerminal() {
+        return snapshot(terminalStats);
+    }
+
+    public void reset() {
+        methodStats.clear();
+        terminalStats.clear();
+    }
+
+    private static Stats statsOf(ConcurrentHashMap<String, Stats> map, String key) {
+        Stats stats = map.get(key);
+        if (stats == null) {
+            Stats newStats = new Stats();
+            stats = map.putIfAbsent(key, newStats);
+            if (stats == null) stats = newStats;
+        }
+        return stats;
+    }
+
+    private static Map<String, Snapshot> snapshot(ConcurrentHashMap<String, Stats> map) {
+        HashMap<String, Snapshot> result = new HashMap<>();
+        for (Map.Entry<String, Stats> entry : map.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return result;
+    }
+
+    static String terminalOf(HttpUrl url) {
+        return url.scheme() + "://" + url.host() + ":" + url.port();
+    }
+
+    /**
+     * 一次请求的耗时，单位微秒，未经历的阶段为-1
+     */
+    public static final class CallRecord {
+        public final String methodKey;
+        public final String terminal;
+        public final boolean failed;
+        public final long    bytesOut;
+        public final long    bytesIn;
+        private final long[] durationsUs;
+
+        CallRecord(String methodKey, String terminal, boolean failed, long bytesOut, long bytesIn, long[] durationsUs) {
+            this.methodKey = methodKey;
+            this.terminal = terminal;
+            this.failed = failed;
+            this.bytesOut = bytesOut;
+            this.bytesIn = bytesIn;
+            this.durationsUs = durationsUs;
+        }
+
+        public long getDurationUs(Phase phase) {
+            return durationsUs[phase.ordinal()];
+        }
+
+        @Override public String toString() {
+            StringBuilder sb = new StringBuilder(methodKey == null ? terminal : methodKey);
+            for (Phase phase : Phase.values()) {
+                long us = durationsUs[phase.ordinal()];
+                if (us >= 0) sb.append(' ').append(phase).append('=').append(us / 1000f).append("ms");
+            }
+            return sb.append(" out=").append(bytesOut).append(" in=").append(bytesIn).toString();
+        }
+    }
+
+    /**
+     * 汇总的统计快照，耗时单位毫秒
+     */
+    public static final class Snapshot {
+        public final long calls;
+        public final long failures;
+        public final long bytesOut;
+        public final long bytesIn;
+        private final Histogram.Snapshot[] phases;
+
+        Snapshot(long calls, long failures, long bytesOut, long bytesIn, Histogram.Snapshot[] phases) {
+            this.calls = calls;
+            this.failures = failures;
+            this.bytesOut = bytesOut;
+            this.bytesIn = bytesIn;
+            this.phases = phases;
+        }
+
+        public Histogram.Snapshot get(Phase phase) {
+            return phases[phase.ordinal()];
+        }
+
+        @Override public String toString() {
+            StringBuilder sb = new StringBuilder("calls=").append(calls).append(" failures=").append(failures);
+            for (Phase phase : Phase.values()) {
+                Histogram.Snapshot snapshot = phases[phase.ordinal()];
+                if (snapshot.count > 0) sb.append(' ').append(phase).append('{').append(snapshot).append('}');
+            }
+            return sb.append(" out=").append(bytesOut).append(" in=").append(bytesIn).toString();
+        }
+    }
+
+    private static final class Stats {
+        private final AtomicLong  calls     = new AtomicLong();
+        private final AtomicLong  failures  = new AtomicLong();
+        private final AtomicLong  bytesOut  = new AtomicLong();
+        private final AtomicLong  bytesIn   = new AtomicLong();
+        private final Histogram[] histograms = new Histogram[Phase.values().length];
+
+        Stats() {
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new Histogram();
+            }
+        }
+
+        void add(CallRecord record) {
+            calls.incrementAndGet();
+            if (record.failed) failures.incrementAndGet();
+            if (record.bytesOut > 0) bytesOut.addAndGet(record.bytesOut);
+            if (record.bytesIn > 0) bytesIn.addAndGet(record.bytesIn);
+            for (int i = 0; i < histograms.length; i++) {
+                long us = record.durationsUs[i];
+                if (us >= 0) histograms[i].record(us);
+            }
+        }
+
+        Snapshot snapshot() {
+            Histogram.Snapshot[] phases = new Histogram.Snapshot[histograms.length];
+            for (int i = 0; i < histograms.length; i++) {
+                phases[i] = histograms[i].snapshot();
+            }
+            return new Snapshot(calls.get(), failures.get(), bytesOut.get(), bytesIn.get(), phases);
+        }
+    }
+
+    /**
+     * 无锁直方图，单位微秒
+     * 分桶为对数线性：小于16微秒每个值一个桶，之后每个2的幂区间均分8个桶，相对误差不超过12.5%
+     */
+    public static final class Histogram {
+        private static final int  SUB_BUCKETS = 8;
+        private static final int  LINEAR      = 16;
+        private static final int  MAX_SHIFT   = 37;
+        private static final long MAX_VALUE   = (2L * SUB_BUCKETS << MAX_SHIFT) - 1;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(LINEAR + MAX_SHIFT * SUB_BUCKETS);
+        private final AtomicLong      count   = new AtomicLong();
+        private final AtomicLong      sum     = new AtomicLong();
+        private final AtomicLong      max     = new AtomicLong();
+
+        public void record(long valueUs) {
+            if (valueUs < 0) return;
+            long value = Math.min(valueUs, MAX_VALUE);
+            buckets.incrementAndGet(indexOf(value));
+            count.incrementAndGet();
+            sum.addAndGet(value);
+            long current;
+            while (value > (current = max.get())) {
+                if (max.compareAndSet(current, value)) break;
+            }
+        }
+
+        public Snapshot snapshot() {
+            long[] counts = new long[buckets.length()];
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+            long maxUs = max.get();
+            long sumUs = sum.get();
+            return new Snapshot(total,
+                    total == 0 ? 0 : sumUs / 1000d / total,
+                    percentile(counts, total, 0.50, maxUs),
+                    percentile(counts, total, 0.90, maxUs),
+                    percentile(counts, total, 0.99, maxUs),
+                    maxUs / 1000d);
+        }
+
+        long count() {
+            return count.get();
+        }
+
+        /**
+         * 单位毫秒
+         */
+        double percentile(double quantile) {
+            long[] counts = new long[buckets.length()];
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+            return percentile(counts, total, quantile, max.get());
+        }
+
+        private static int indexOf(long value) {
+            if (value < LINEAR) return (int) value;
+            int shift = 63 - Long.numberOfLeadingZeros(value) - 3;
+            int sub = (int) (value >>> shift) - SUB_BUCKETS;
+            return LINEAR + (shift - 1) * SUB_BUCKETS + sub;
+        }
+
+        private static long upperBoundOf(int index) {
+            if (index < LINEAR) return index;
+            int shift = (index - LINEAR) / SUB_BUCKETS + 1;
+            int sub = (index - LINEAR) % SUB_BUCKETS;
+            return ((long) (SUB_BUCKETS + sub + 1) << shift) - 1;
+        }
+
+        private static double percentile(long[] counts, long total, double quantile, long maxUs) {
+            if (total == 0) return 0;
+            long rank = (long) Math.ceil(total * quantile);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return Math.min(upperBoundOf(i), maxUs) / 1000d;
+            }
+            return maxUs / 1000d;
+        }
+
+        /**
+         * 单位毫秒
+         */
+        public static final class Snapshot {
+            public final long   count;
+            public final double mean;
+            public final double p50;
+            public final double p90;
+            public final double p99;
+            public final double max;
+
+            Snapshot(long count, double mean, double p50, double p90, double p99, double max) {
+                this.count = count;
+                this.mean = mean;
+                this.p50 = p50;
+                this.p90 = p90;
+                this.p99 = p99;
+                this.max = max;
+            }
+
+            @Override public String toString() {
+                return String.format(Locale.US, "n=%d mean=%.1f p50=%.1f p90=%.1f p99=%.1f max=%.1f", count, mean, p50, p90, p99, max);
+            }
+        }
+    }
+}
@@ -4,12 +4,12 @@ import android.support.annotation.NonNull;
 
 import com.supermax.base.common.exception.QsException;
 import com.supermax.base.common.exception.QsExceptionType;
-import com.supermax.base.common.utils.StreamCloseUtils;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.nio.charset.Charset;
 
 import okhttp3.MediaType;
@@ -25,6 +25,7 @@ public class HttpResponse {
     Response response;
     HttpBuilder httpBuilder;
     private DecryptionProvider decryptionProvider;
+    private StreamDecryptionProvider streamDecryptionProvider;
 
     public HttpBuilder getBuilder() {
         return httpBuilder;
@@ -38,50 +39,47 @@ public class HttpResponse {
         this.decryptionProvider = provider;
     }
 
-    String getJsonString() {
-        if (decryptionProvider != null) {
-            try {
-                ResponseBody body = response.body();
-                if (body != null) {
-                    byte[] descryptionBytes = decryptionProvider.decryption(body.bytes());
-                    return new String(descryptionBytes, getChcarset(body));
-                } else {
-                    return null;
-                }
-            } catch (IOException e) {
-                throw new QsException(QsExceptionType.HTTP_ERROR, httpBuilder.getRequestTag(), e.getMessage());
-            } catch (Exception e) {
-                throw new QsException(QsExceptionType.HTTP_ERROR, httpBuilder.getRequestTag(), e.getMessage());
-            }
-        } else {
-            return null;
-        }
+    /**
+     * 边读边解密，不需要把整个响应体读进内存，优先于DecryptionProvider
+     */
+    public void registerStreamDecryptionProvider(StreamDecryptionProvider provider) {
+        this.streamDecryptionProvider = provider;
     }
 
+    public MediaType contentType() {
+        ResponseBody body = response.body();
+        return body == null ? null : body.contentType();
+    }
 
-    private String getJsonFromBody(ResponseBody body, Object requestTag) {
-        Charset chcarset = getChcarset(body);
-        InputStream inputStream = body.byteStream();
-        if (inputStream != null) {
-            InputStreamReader inputStreamReader = new InputStreamReader(inputStream, chcarset);
-            BufferedReader bufferedReader = null;
-            try {
-                bufferedReader = new BufferedReader(inputStreamReader);
-                StringBuilder result = new StringBuilder();
-                String line;
-                while ((line = bufferedReader.readLine()) != null) {
-                    result.append(line).append("\n");
-                }
-                return result.toString();
-            } catch (IOException e) {
-                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, e.getMessage());
-            } catch (Exception e) {
-                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, e.getMessage());
-            } finally {
-                StreamCloseUtils.close(inputStreamReader, inputStream, bufferedReader);
+    /**
+     * 响应体字节流，注册了解密提供者时先解密
+     * 由调用方负责关闭response
+     */
+    public InputStream openStream() {
+        ResponseBody body = response.body();
+        if (body == null) return null;
+        try {
+            if (streamDecryptionProvider != null) {
+                return streamDecryptionProvider.decryption(body.byteStream());
+            } else if (decryptionProvider != null) {
+                return new ByteArrayInputStream(decryptionProvider.decryption(body.bytes()));
+            } else {
+                return body.byteStream();
             }
+        } catch (Exception e) {
+            throw new QsException(QsExceptionType.HTTP_ERROR, httpBuilder.getRequestTag(), e.getMessage());
         }
-        return getJsonFromBody(response.body(), httpBuilder.getRequestTag());
+    }
+
+    /**
+     * 响应体字符流，注册了解密提供者时先解密
+     * 由调用方负责关闭response
+     */
+    public Reader openReader() {
+        ResponseBody body = response.body();
+        if (body == null) return null;
+        if (streamDecryptionProvider == null && decryptionProvider == null) return body.charStream();
+        return new InputStreamReader(openStream(), getChcarset(body));
     }
 
 
@@ -102,4 +100,12 @@ public class HttpResponse {
     public interface DecryptionProvider {
         byte[] decryption(byte[] secretBytes);
     }
+
+    /**
+     * 流式解密提供者，例如返回new CipherInputStream(secretStream, cipher)
+     * 返回的流由框架读取并随response一起关闭
+     */
+    public interface StreamDecryptionProvider {
+        InputStream decryption(InputStream secretStream) throws IOException;
+    }
 }
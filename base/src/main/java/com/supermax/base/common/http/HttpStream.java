@@ -0,0 +1,63 @@
+package com.supermax.base.common.http;
+
+import com.supermax.base.common.exception.QsException;
+import com.supermax.base.common.exception.QsExceptionType;
+import com.supermax.base.common.utils.QsHelper;
+
+import java.util.List;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 20:10
+ * @Description QsStream的实现，解析线程每解析出一块就切到主线程回调
+ */
+final class HttpStream<T> implements QsStream<T> {
+    private final HttpCall<Object> httpCall;
+
+    HttpStream(HttpCall<Object> httpCall) {
+        this.httpCall = httpCall;
+    }
+
+    @Override public void enqueue(final QsStreamCallback<T> callback) {
+        if (httpCall.isExecuted()) {
+            throw new QsException(QsExceptionType.UNEXPECTED, httpCall.requestTag, "method:" + httpCall.serviceMethod.methodName + " QsStream already executed");
+        }
+        httpCall.emitter = new Emitter() {
+            @SuppressWarnings("unchecked") @Override public void emit(final List<Object> items) {
+                QsHelper.getInstance().getThreadHelper().getMainThread().execute(new Runnable() {
+                    @Override public void run() {
+                        if (!httpCall.isCanceled()) callback.onItems((List<T>) items);
+                    }
+                });
+            }
+        };
+        httpCall.enqueue(new QsCallback<Object>() {
+            @Override public void onSuccess(Object result) {
+                callback.onComplete();
+            }
+
+            @Override public void onFailure(QsException exception) {
+                callback.onFailure(exception);
+            }
+        });
+    }
+
+    @Override public void cancel() {
+        httpCall.cancel();
+    }
+
+    @Override public boolean isCanceled() {
+        return httpCall.isCanceled();
+    }
+
+    @Override public Object getRequestTag() {
+        return httpCall.requestTag;
+    }
+
+    /**
+     * 在解析线程中调用
+     */
+    interface Emitter {
+        void emit(List<Object> items);
+    }
+}
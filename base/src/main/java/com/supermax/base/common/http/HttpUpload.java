@@ -0,0 +1,244 @@
+package com.supermax.base.common.http;
+
+import android.support.annotation.NonNull;
+
+import com.supermax.base.common.exception.QsException;
+import com.supermax.base.common.exception.QsExceptionType;
+import com.supermax.base.common.log.L;
+import com.supermax.base.common.utils.QsHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.ByteString;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 23:05
+ * @Description @ChunkedUpload的执行过程，最多parallel个分块同时上传
+ * 每个分块确认后把已确认分块的位图(UploadState)写到本地，文件路径、大小、修改时间、分块大小不变时下次调用从位图继续
+ * 全部分块确认后，最后一个分块的响应按接口返回值解析
+ */
+final class HttpUpload<T> {
+    private static final String TAG = "HttpUpload";
+
+    private final HttpAdapter     adapter;
+    private final HttpCall<T>     httpCall;
+    private final ServiceMethod   serviceMethod;
+    private final Request         request;
+    private final FileRequestBody body;
+    private final QsCallback<T>   callback;
+    private final long            total;
+    private final long            chunkSize;
+    private final int             chunkCount;
+    private final String          uploadId;
+    private final AtomicBoolean   finished = new AtomicBoolean();
+
+    /**
+     * 以下字段都在this锁内访问
+     */
+    private final UploadState                state;
+    private final ArrayDeque<Integer>        pending = new ArrayDeque<>();
+    private final HashMap<Integer, Call>     calls   = new HashMap<>();
+    private final FileRequestBody[]          slices;
+    private final int[]                      retries;
+    private       int                        running;
+
+    HttpUpload(HttpAdapter adapter, HttpCall<T> httpCall, Request request, File directory, QsCallback<T> callback) {
+        this.adapter = adapter;
+        this.httpCall = httpCall;
+        this.serviceMethod = httpCall.serviceMethod;
+        this.request = request;
+        this.body = (FileRequestBody) request.body();
+        this.callback = callback;
+        this.total = body.contentLength();
+        this.chunkSize = serviceMethod.uploadChunkSize;
+        this.chunkCount = (int) Math.max(1, (total + chunkSize - 1) / chunkSize);
+        File file = body.file;
+        this.uploadId = ByteString.encodeUtf8(serviceMethod.metricsKey + "|" + request.url() + "|" + file.getAbsolutePath()
+                + "|" + total + "|" + file.lastModified() + "|" + chunkSize).md5().hex();
+        this.state = new UploadState(new File(directory, uploadId), chunkCount);
+        this.slices = new FileRequestBody[chunkCount];
+        this.retries = new int[chunkCount];
+    }
+
+    void start() {
+        if (!QsHelper.getInstance().isNetworkAvailable()) {
+            fail(new QsException(QsExceptionType.NETWORK_ERROR, httpCall.requestTag, "network error...  method:" + serviceMethod.methodName + " message:network disable"));
+            return;
+        }
+        long done = 0;
+        synchronized (this) {
+            pending.addAll(state.pending());
+            for (int i = 0; i < chunkCount; i++) {
+                if (state.isAcked(i)) done += chunkLength(i);
+            }
+        }
+        if (done > 0) L.i(TAG, "method:" + serviceMethod.methodName + " resume upload from " + done + "/" + total);
+        if (body.progress != null) body.progress.add(done);
+        httpCall.upload = this;
+        if (httpCall.isCanceled()) {
+            cancel();
+            return;
+        }
+        launch();
+    }
+
+    void cancel() {
+        fail(new QsException(QsExceptionType.CANCEL, httpCall.requestTag, "method:" + serviceMethod.methodName + " canceled"));
+    }
+
+    private void launch() {
+        while (true) {
+            int index;
+            synchronized (this) {
+                if (finished.get() || running >= serviceMethod.uploadParallel || pending.isEmpty()) return;
+                index = pending.poll();
+                running++;
+            }
+            send(index);
+        }
+    }
+
+    private void send(final int index) {
+        long start = (long) index * chunkSize;
+        long length = chunkLength(index);
+        String contentRange = total == 0 ? "bytes */0" : "bytes " + start + "-" + (start + length - 1) + "/" + total;
+        FileRequestBody slice;
+        synchronized (this) {
+            slice = slices[index];
+            if (slice == null) slices[index] = slice = body.slice(start, length);
+        }
+        Request chunkRequest = request.newBuilder()
+                .header("Content-Range", contentRange)
+                .header(serviceMethod.uploadSessionHeader, uploadId)
+                .method(request.method(), slice)
+                .build();
+        Call call = adapter.newCall(chunkRequest, serviceMethod.metricsKey);
+        synchronized (this) {
+            if (finished.get()) return;
+            calls.put(index, call);
+        }
+        call.enqueue(new Callback() {
+            @Override public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                onChunkFailure(index, e);
+            }
+
+            @Override public void onResponse(@NonNull Call call, @NonNull Response response) {
+                onChunkResponse(index, response);
+            }
+        });
+    }
+
+    private void onChunkFailure(int index, IOException e) {
+        RetryPolicy retryPolicy = serviceMethod.retryPolicy;
+        if (retryPolicy != null && !finished.get()) {
+            long delay = retryPolicy.delayForFailure(retries[index]);
+            if (delay >= 0) {
+                scheduleRetry(index, delay);
+                return;
+            }
+        }
+        fail(new QsException(QsExceptionType.HTTP_ERROR, httpCall.requestTag, "IOException...  method:" + serviceMethod.methodName + " chunk:" + index + " message:" + e.getMessage()));
+    }
+
+    private void onChunkResponse(int index, Response response) {
+        if (finished.get()) {
+            response.close();
+            return;
+        }
+        if (!response.isSuccessful()) {
+            RetryPolicy retryPolicy = serviceMethod.retryPolicy;
+            if (retryPolicy != null) {
+                long delay = retryPolicy.delayForResponse(retries[index], response);
+                if (delay >= 0) {
+                    response.close();
+                    scheduleRetry(index, delay);
+                    return;
+                }
+            }
+            if (!finished.compareAndSet(false, true)) {
+                response.close();
+                return;
+            }
+            cancelCalls();
+            deliver(response);
+            return;
+        }
+        boolean complete;
+        synchronized (this) {
+            complete = state.ack(index);
+            calls.remove(index);
+            running--;
+            state.save();
+        }
+        if (!complete) {
+            response.close();
+            launch();
+            return;
+        }
+        if (!finished.compareAndSet(false, true)) {
+            response.close();
+            return;
+        }
+        synchronized (this) {
+            state.delete();
+        }
+        deliver(response);
+    }
+
+    /**
+     * 和普通请求一样解析响应，失败的响应也由createResult转成QsException
+     */
+    @SuppressWarnings("unchecked")
+    private void deliver(Response response) {
+        T result;
+        try {
+            result = (T) adapter.createResult(httpCall, response);
+        } catch (QsException e) {
+            callback.onFailure(e);
+            return;
+        } catch (Exception e) {
+            callback.onFailure(new QsException(QsExceptionType.UNEXPECTED, httpCall.requestTag, "create result error...  method:" + serviceMethod.methodName + " message:" + e.getMessage()));
+            return;
+        }
+        callback.onSuccess(result);
+    }
+
+    private void scheduleRetry(final int index, long delay) {
+        retries[index]++;
+        L.i(TAG, "method:" + serviceMethod.methodName + " chunk:" + index + " retry " + retries[index] + " after " + delay + "ms");
+        QsHelper.getInstance().getThreadHelper().getScheduledThreadPoll().schedule(new Runnable() {
+            @Override public void run() {
+                if (!finished.get()) send(index);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void fail(QsException exception) {
+        if (!finished.compareAndSet(false, true)) return;
+        cancelCalls();
+        callback.onFailure(exception);
+    }
+
+    private void cancelCalls() {
+        synchronized (this) {
+            for (Call call : calls.values()) {
+                call.cancel();
+            }
+            calls.clear();
+        }
+    }
+
+    private long chunkLength(int index) {
+        return Math.min(chunkSize, total - (long) index * chunkSize);
+    }
+}
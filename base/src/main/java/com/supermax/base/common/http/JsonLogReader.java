@@ -0,0 +1,60 @@
+package com.supermax.base.common.http;
+
+import android.support.annotation.NonNull;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 13:40
+ * @Description 边解析边记录响应体，只保留前maxLength个字符用于日志输出，避免为打印日志复制整个响应体
+ */
+final class JsonLogReader extends FilterReader {
+    private final StringBuilder logBuilder;
+    private final int           maxLength;
+    private       boolean       truncated;
+
+    JsonLogReader(Reader in, int maxLength) {
+        super(in);
+        this.maxLength = maxLength;
+        this.logBuilder = new StringBuilder(Math.min(maxLength, 1024));
+    }
+
+    @Override public int read() throws IOException {
+        int c = super.read();
+        if (c != -1) record((char) c);
+        return c;
+    }
+
+    @Override public int read(@NonNull char[] cbuf, int off, int len) throws IOException {
+        int count = super.read(cbuf, off, len);
+        if (count > 0) {
+            int remaining = maxLength - logBuilder.length();
+            if (remaining >= count) {
+                logBuilder.append(cbuf, off, count);
+            } else {
+                if (remaining > 0) logBuilder.append(cbuf, off, remaining);
+                truncated = true;
+            }
+        }
+        return count;
+    }
+
+    private void record(char c) {
+        if (logBuilder.length() < maxLength) {
+            logBuilder.append(c);
+        } else {
+            truncated = true;
+        }
+    }
+
+    String getLog() {
+        return logBuilder.toString();
+    }
+
+    boolean isTruncated() {
+        return truncated;
+    }
+}
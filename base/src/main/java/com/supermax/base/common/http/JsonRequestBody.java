@@ -0,0 +1,68 @@
+package com.supermax.base.common.http;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import com.supermax.base.common.log.L;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ByteString;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 23:35
+ * @Description Json请求体，Gson直接写入Okio的sink，不生成中间的Json字符串
+ * 需要压缩时由RequestCompressor把Json直接写进压缩流，否则在第一次使用时序列化成字节
+ */
+final class JsonRequestBody extends RequestBody {
+    private static final String  TAG   = "JsonRequestBody";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Gson      gson;
+    private final MediaType contentType;
+    private final Object    value;
+    private final Type      type;
+    private       ByteString bytes;
+
+    JsonRequestBody(Gson gson, MediaType contentType, Object value, Type type) {
+        this.gson = gson;
+        this.contentType = contentType;
+        this.value = value;
+        this.type = type;
+    }
+
+    @Override public MediaType contentType() {
+        return contentType;
+    }
+
+    @Override public long contentLength() throws IOException {
+        return bytes().size();
+    }
+
+    @Override public void writeTo(BufferedSink sink) throws IOException {
+        sink.write(bytes());
+    }
+
+    private synchronized ByteString bytes() throws IOException {
+        if (bytes == null) {
+            Buffer buffer = new Buffer();
+            writeJson(buffer);
+            bytes = buffer.readByteString();
+            if (L.isEnable()) L.i(TAG, "请求体 mimeType:" + contentType + ", Json : " + bytes.utf8());
+        }
+        return bytes;
+    }
+
+    void writeJson(BufferedSink sink) throws IOException {
+        JsonWriter writer = gson.newJsonWriter(new OutputStreamWriter(sink.outputStream(), UTF_8));
+        gson.toJson(value, type, writer);
+        writer.flush();
+    }
+}
@@ -0,0 +1,142 @@
+package com.supermax.base.common.http;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Map;
+
+import okio.BufferedSink;
+import okio.ByteString;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 19:05
+ * @Description Gson的JsonElement编码为MessagePack，不依赖第三方库
+ * map和array的头部需要先写元素个数，所以编码时先由TypeAdapter生成JsonElement；解码见MessagePackReader，不生成JsonElement
+ */
+final class MessagePackCodec {
+    private static final int MAX_DEPTH = 512;
+
+    private MessagePackCodec() {
+    }
+
+    static void write(JsonElement element, BufferedSink sink) throws IOException {
+        writeValue(element, sink, 0);
+    }
+
+    private static void writeValue(JsonElement element, BufferedSink sink, int depth) throws IOException {
+        if (depth > MAX_DEPTH) throw new IOException("MessagePack nesting too deep");
+        if (element == null || element.isJsonNull()) {
+            sink.writeByte(0xc0);
+        } else if (element.isJsonObject()) {
+            JsonObject object = element.getAsJsonObject();
+            writeHeader(sink, object.size(), 0x80, 0xde, 0xdf);
+            for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                writeString(entry.getKey(), sink);
+                writeValue(entry.getValue(), sink, depth + 1);
+            }
+        } else if (element.isJsonArray()) {
+            JsonArray array = element.getAsJsonArray();
+            writeHeader(sink, array.size(), 0x90, 0xdc, 0xdd);
+            for (JsonElement item : array) {
+                writeValue(item, sink, depth + 1);
+            }
+        } else {
+            JsonPrimitive primitive = element.getAsJsonPrimitive();
+            if (primitive.isBoolean()) {
+                sink.writeByte(primitive.getAsBoolean() ? 0xc3 : 0xc2);
+            } else if (primitive.isNumber()) {
+                writeNumber(primitive.getAsNumber(), sink);
+            } else {
+                writeString(primitive.getAsString(), sink);
+            }
+        }
+    }
+
+    /**
+     * fix格式最多15个元素，之后依次为16位、32位长度
+     */
+    private static void writeHeader(BufferedSink sink, int size, int fixType, int type16, int type32) throws IOException {
+        if (size < 16) {
+            sink.writeByte(fixType | size);
+        } else if (size <= 0xffff) {
+            sink.writeByte(type16).writeShort(size);
+        } else {
+            sink.writeByte(type32).writeInt(size);
+        }
+    }
+
+    private static void writeString(String value, BufferedSink sink) throws IOException {
+        ByteString bytes = ByteString.encodeUtf8(value);
+        int size = bytes.size();
+        if (size < 32) {
+            sink.writeByte(0xa0 | size);
+        } else if (size <= 0xff) {
+            sink.writeByte(0xd9).writeByte(size);
+        } else if (size <= 0xffff) {
+            sink.writeByte(0xda).writeShort(size);
+        } else {
+            sink.writeByte(0xdb).writeInt(size);
+        }
+        sink.write(bytes);
+    }
+
+    private static void writeNumber(Number number, BufferedSink sink) throws IOException {
+        if (number instanceof Double) {
+            sink.writeByte(0xcb).writeLong(Double.doubleToLongBits(number.doubleValue()));
+        } else if (number instanceof Float) {
+            sink.writeByte(0xca).writeInt(Float.floatToIntBits(number.floatValue()));
+        } else if (number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte) {
+            writeLong(number.longValue(), sink);
+        } else if (number instanceof BigInteger) {
+            BigInteger value = (BigInteger) number;
+            if (value.bitLength() < 64) {
+                writeLong(value.longValue(), sink);
+            } else if (value.signum() > 0 && value.bitLength() == 64) {
+                sink.writeByte(0xcf).writeLong(value.longValue());
+            } else {
+                sink.writeByte(0xcb).writeLong(Double.doubleToLongBits(value.doubleValue()));
+            }
+        } else {
+            // LazilyParsedNumber、BigDecimal等，能无损转为long时按整数写入
+            String text = number.toString();
+            try {
+                writeLong(Long.parseLong(text), sink);
+            } catch (NumberFormatException e) {
+                sink.writeByte(0xcb).writeLong(Double.doubleToLongBits(number.doubleValue()));
+            }
+        }
+    }
+
+    private static void writeLong(long value, BufferedSink sink) throws IOException {
+        if (value >= 0) {
+            if (value <= 0x7f) {
+                sink.writeByte((int) value);
+            } else if (value <= 0xff) {
+                sink.writeByte(0xcc).writeByte((int) value);
+            } else if (value <= 0xffff) {
+                sink.writeByte(0xcd).writeShort((int) value);
+            } else if (value <= 0xffffffffL) {
+                sink.writeByte(0xce).writeInt((int) value);
+            } else {
+                sink.writeByte(0xcf).writeLong(value);
+            }
+        } else {
+            if (value >= -32) {
+                sink.writeByte((int) value);
+            } else if (value >= Byte.MIN_VALUE) {
+                sink.writeByte(0xd0).writeByte((int) value);
+            } else if (value >= Short.MIN_VALUE) {
+                sink.writeByte(0xd1).writeShort((int) value);
+            } else if (value >= Integer.MIN_VALUE) {
+                sink.writeByte(0xd2).writeInt((int) value);
+            } else {
+                sink.writeByte(0xd3).writeLong(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.supermax.base.common.http;
+
+import com.google.gson.TypeAdapter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.Okio;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 19:25
+ * @Description MessagePack编解码，复用Gson的TypeAdapter做对象映射，字段规则与Json一致
+ * 解码时由MessagePackReader边读边转成Json字符流，和Json一样流式解析；编码时需要先生成JsonElement
+ * 响应Content-Type为application/x-msgpack时自动使用，请求体需要在接口方法上添加@Codec(MessagePackConverterFactory.class)
+ */
+public final class MessagePackConverterFactory implements Converter.Factory {
+    private static final MediaType MSGPACK = MediaType.parse("application/x-msgpack");
+
+    private final HttpConverter httpConverter;
+
+    MessagePackConverterFactory(HttpConverter httpConverter) {
+        this.httpConverter = httpConverter;
+    }
+
+    @Override public Converter create(Type type, Annotation[] annotations) {
+        return new MessagePackConverter(httpConverter.getAdapter(type));
+    }
+
+    private final class MessagePackConverter implements Converter {
+        private final TypeAdapter<?> adapter;
+
+        MessagePackConverter(TypeAdapter<?> adapter) {
+            this.adapter = adapter;
+        }
+
+        @Override public MediaType contentType() {
+            return MSGPACK;
+        }
+
+        @Override public boolean canRead(MediaType contentType) {
+            if (contentType == null) return false;
+            String subtype = contentType.subtype();
+            return "x-msgpack".equals(subtype) || "msgpack".equals(subtype) || "vnd.msgpack".equals(subtype);
+        }
+
+        @Override public Object read(HttpResponse response) throws IOException {
+            InputStream stream = response.openStream();
+            if (stream == null) return null;
+            return httpConverter.readerToObject(new MessagePackReader(Okio.buffer(Okio.source(stream))), adapter);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override public RequestBody write(Object value, String mimeType) throws IOException {
+            TypeAdapter<Object> valueAdapter = (TypeAdapter<Object>) httpConverter.getAdapter(value.getClass());
+            Buffer buffer = new Buffer();
+            MessagePackCodec.write(valueAdapter.toJsonTree(value), buffer);
+            return RequestBody.create(MSGPACK, buffer.readByteString());
+        }
+    }
+}
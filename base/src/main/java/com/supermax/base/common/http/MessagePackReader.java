@@ -0,0 +1,270 @@
+package com.supermax.base.common.http;
+
+import android.support.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigInteger;
+
+import okio.BufferedSource;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/19 10:20
+ * @Description 把MessagePack边读边转成Json字符流，交给Gson的JsonReader和TypeAdapter直接解析
+ * 不生成JsonElement树，内存中只有当前值和嵌套层级的计数
+ * map的key转为Json字符串，key只支持标量；bin转为数字数组，与Gson默认的byte[]格式一致；ext类型转为null
+ */
+final class MessagePackReader extends Reader {
+    private static final int    MAX_DEPTH = 512;
+    private static final char[] HEX       = "0123456789abcdef".toCharArray();
+
+    private final BufferedSource source;
+    /**
+     * 每一层容器剩余的元素个数，map的key和value各算一个
+     */
+    private final long[]         remaining = new long[MAX_DEPTH + 1];
+    /**
+     * 每一层容器已输出的元素个数
+     */
+    private final long[]         emitted   = new long[MAX_DEPTH + 1];
+    private final boolean[]      isMap     = new boolean[MAX_DEPTH + 1];
+    private       int            depth;
+    private       boolean        started;
+    private final StringBuilder  pending   = new StringBuilder();
+    private       int            pendingPos;
+
+    MessagePackReader(BufferedSource source) {
+        this.source = source;
+    }
+
+    @Override public int read(@NonNull char[] buffer, int offset, int length) throws IOException {
+        if (length == 0) return 0;
+        while (pendingPos >= pending.length()) {
+            pending.setLength(0);
+            pendingPos = 0;
+            if (!nextToken()) return -1;
+        }
+        int count = Math.min(length, pending.length() - pendingPos);
+        pending.getChars(pendingPos, pendingPos + count, buffer, offset);
+        pendingPos += count;
+        return count;
+    }
+
+    @Override public void close() throws IOException {
+        source.close();
+    }
+
+    /**
+     * 输出下一个Json片段，读完时返回false
+     */
+    private boolean nextToken() throws IOException {
+        if (depth == 0) {
+            if (started || source.exhausted()) return false;
+            started = true;
+            readValue(false);
+            return true;
+        }
+        int level = depth - 1;
+        if (remaining[level] == 0) {
+            pending.append(isMap[level] ? '}' : ']');
+            depth--;
+            return true;
+        }
+        boolean isKey = isMap[level] && emitted[level] % 2 == 0;
+        if (emitted[level] > 0) pending.append(isKey ? ',' : (isMap[level] ? ':' : ','));
+        remaining[level]--;
+        emitted[level]++;
+        readValue(isKey);
+        return true;
+    }
+
+    private void readValue(boolean isKey) throws IOException {
+        int b = source.readByte() & 0xff;
+        if (b <= 0x7f) {
+            appendLiteral(String.valueOf(b), isKey);
+        } else if (b >= 0xe0) {
+            appendLiteral(String.valueOf((byte) b), isKey);
+        } else if (b >= 0xa0 && b <= 0xbf) {
+            appendString(source.readUtf8(b & 0x1f));
+        } else if (b >= 0x90 && b <= 0x9f) {
+            beginContainer(b & 0x0f, false, isKey);
+        } else if (b >= 0x80 && b <= 0x8f) {
+            beginContainer(b & 0x0f, true, isKey);
+        } else {
+            switch (b) {
+                case 0xc0:
+                    appendLiteral("null", isKey);
+                    break;
+                case 0xc2:
+                    appendLiteral("false", isKey);
+                    break;
+                case 0xc3:
+                    appendLiteral("true", isKey);
+                    break;
+                case 0xcc:
+                    appendLiteral(String.valueOf(source.readByte() & 0xff), isKey);
+                    break;
+                case 0xcd:
+                    appendLiteral(String.valueOf(source.readShort() & 0xffff), isKey);
+                    break;
+                case 0xce:
+                    appendLiteral(String.valueOf(source.readInt() & 0xffffffffL), isKey);
+                    break;
+                case 0xcf: {
+                    long value = source.readLong();
+                    appendLiteral(value >= 0 ? String.valueOf(value) : BigInteger.valueOf(value).add(BigInteger.ONE.shiftLeft(64)).toString(), isKey);
+                    break;
+                }
+                case 0xd0:
+                    appendLiteral(String.valueOf(source.readByte()), isKey);
+                    break;
+                case 0xd1:
+                    appendLiteral(String.valueOf(source.readShort()), isKey);
+                    break;
+                case 0xd2:
+                    appendLiteral(String.valueOf(source.readInt()), isKey);
+                    break;
+                case 0xd3:
+                    appendLiteral(String.valueOf(source.readLong()), isKey);
+                    break;
+                case 0xca:
+                    appendLiteral(String.valueOf(Float.intBitsToFloat(source.readInt())), isKey);
+                    break;
+                case 0xcb:
+                    appendLiteral(String.valueOf(Double.longBitsToDouble(source.readLong())), isKey);
+                    break;
+                case 0xd9:
+                    appendString(source.readUtf8(source.readByte() & 0xff));
+                    break;
+                case 0xda:
+                    appendString(source.readUtf8(source.readShort() & 0xffff));
+                    break;
+                case 0xdb:
+                    appendString(source.readUtf8(length(source.readInt())));
+                    break;
+                case 0xc4:
+                    appendBinary(source.readByte() & 0xff, isKey);
+                    break;
+                case 0xc5:
+                    appendBinary(source.readShort() & 0xffff, isKey);
+                    break;
+                case 0xc6:
+                    appendBinary(length(source.readInt()), isKey);
+                    break;
+                case 0xdc:
+                    beginContainer(source.readShort() & 0xffff, false, isKey);
+                    break;
+                case 0xdd:
+                    beginContainer(length(source.readInt()), false, isKey);
+                    break;
+                case 0xde:
+                    beginContainer(source.readShort() & 0xffff, true, isKey);
+                    break;
+                case 0xdf:
+                    beginContainer(length(source.readInt()), true, isKey);
+                    break;
+                case 0xd4:
+                    skipExt(1, isKey);
+                    break;
+                case 0xd5:
+                    skipExt(2, isKey);
+                    break;
+                case 0xd6:
+                    skipExt(4, isKey);
+                    break;
+                case 0xd7:
+                    skipExt(8, isKey);
+                    break;
+                case 0xd8:
+                    skipExt(16, isKey);
+                    break;
+                case 0xc7:
+                    skipExt(source.readByte() & 0xff, isKey);
+                    break;
+                case 0xc8:
+                    skipExt(source.readShort() & 0xffff, isKey);
+                    break;
+                case 0xc9:
+                    skipExt(length(source.readInt()), isKey);
+                    break;
+                default:
+                    throw new IOException("MessagePack unknown type: 0x" + Integer.toHexString(b));
+            }
+        }
+    }
+
+    private static int length(int value) throws IOException {
+        if (value < 0) throw new IOException("MessagePack length too large");
+        return value;
+    }
+
+    private void beginContainer(long size, boolean map, boolean isKey) throws IOException {
+        if (isKey) throw new IOException("MessagePack map key must be a scalar");
+        if (depth >= MAX_DEPTH) throw new IOException("MessagePack nesting too deep");
+        remaining[depth] = map ? size * 2 : size;
+        emitted[depth] = 0;
+        isMap[depth] = map;
+        depth++;
+        pending.append(map ? '{' : '[');
+    }
+
+    private void appendBinary(int size, boolean isKey) throws IOException {
+        if (isKey) throw new IOException("MessagePack map key must be a scalar");
+        byte[] bytes = source.readByteArray(size);
+        pending.append('[');
+        for (int i = 0; i < bytes.length; i++) {
+            if (i > 0) pending.append(',');
+            pending.append(bytes[i]);
+        }
+        pending.append(']');
+    }
+
+    private void skipExt(int size, boolean isKey) throws IOException {
+        source.skip(1 + size);
+        appendLiteral("null", isKey);
+    }
+
+    /**
+     * 数字、true/false/null作为map的key时转为字符串
+     */
+    private void appendLiteral(String text, boolean isKey) {
+        if (isKey) {
+            appendString(text);
+        } else {
+            pending.append(text);
+        }
+    }
+
+    private void appendString(String value) {
+        pending.append('"');
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    pending.append("\\\"");
+                    break;
+                case '\\':
+                    pending.append("\\\\");
+                    break;
+                case '\n':
+                    pending.append("\\n");
+                    break;
+                case '\r':
+                    pending.append("\\r");
+                    break;
+                case '\t':
+                    pending.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        pending.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xf]);
+                    } else {
+                        pending.append(c);
+                    }
+                    break;
+            }
+        }
+        pending.append('"');
+    }
+}
@@ -0,0 +1,135 @@
+package com.supermax.base.common.http;
+
+import com.supermax.base.common.http.HttpMetrics.Phase;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.Arrays;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 18:25
+ * @Description 采集单个Call各阶段的耗时，重连时同一阶段的耗时累加
+ */
+final class MetricsEventListener extends EventListener {
+    private final HttpMetrics metrics;
+    private final String      methodKey;
+    private final String      terminal;
+    private final long[]      durationsUs = new long[Phase.values().length];
+
+    private volatile long callStart;
+    private volatile long dnsStart;
+    private volatile long connectStart;
+    private volatile long secureConnectStart;
+    private volatile long requestStart;
+    private volatile long requestEnd;
+    private volatile long responseBodyStart;
+    private volatile long bytesOut;
+    private volatile long bytesIn;
+
+    MetricsEventListener(HttpMetrics metrics, String methodKey, String terminal) {
+        this.metrics = metrics;
+        this.methodKey = methodKey;
+        this.terminal = terminal;
+        Arrays.fill(durationsUs, -1);
+    }
+
+    private static long now() {
+        return System.nanoTime();
+    }
+
+    private void add(Phase phase, long startNanos) {
+        if (startNanos != 0) add(phase, startNanos, now());
+    }
+
+    private void add(Phase phase, long startNanos, long endNanos) {
+        long us = (endNanos - startNanos) / 1000;
+        int index = phase.ordinal();
+        durationsUs[index] = durationsUs[index] < 0 ? us : durationsUs[index] + us;
+    }
+
+    @Override public void callStart(Call call) {
+        callStart = now();
+    }
+
+    @Override public void dnsStart(Call call, String domainName) {
+        dnsStart = now();
+    }
+
+    @Override public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+        add(Phase.DNS, dnsStart);
+    }
+
+    @Override public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        connectStart = now();
+    }
+
+    @Override public void secureConnectStart(Call call) {
+        secureConnectStart = now();
+    }
+
+    @Override public void secureConnectEnd(Call call, Handshake handshake) {
+        add(Phase.TLS, secureConnectStart);
+    }
+
+    @Override public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        add(Phase.CONNECT, connectStart);
+    }
+
+    @Override public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol, IOException ioe) {
+        add(Phase.CONNECT, connectStart);
+    }
+
+    @Override public void requestHeadersStart(Call call) {
+        requestStart = now();
+    }
+
+    @Override public void requestHeadersEnd(Call call, Request request) {
+        requestEnd = now();
+    }
+
+    @Override public void requestBodyEnd(Call call, long byteCount) {
+        requestEnd = now();
+        bytesOut += byteCount;
+    }
+
+    @Override public void responseHeadersStart(Call call) {
+        if (requestStart != 0 && requestEnd != 0) add(Phase.REQUEST_WRITE, requestStart, requestEnd);
+        add(Phase.TTFB, requestEnd);
+    }
+
+    @Override public void responseHeadersEnd(Call call, Response response) {
+    }
+
+    @Override public void responseBodyStart(Call call) {
+        responseBodyStart = now();
+    }
+
+    @Override public void responseBodyEnd(Call call, long byteCount) {
+        add(Phase.BODY_READ, responseBodyStart);
+        bytesIn += byteCount;
+    }
+
+    @Override public void callEnd(Call call) {
+        finish(false);
+    }
+
+    @Override public void callFailed(Call call, IOException ioe) {
+        finish(true);
+    }
+
+    private void finish(boolean failed) {
+        add(Phase.TOTAL, callStart);
+        metrics.record(new HttpMetrics.CallRecord(methodKey, terminal, failed, bytesOut, bytesIn, durationsUs.clone()));
+    }
+}
@@ -0,0 +1,533 @@
+package com.supermax.base.common.http;
+
+import com.supermax.base.common.log.L;
+import com.supermax.base.common.network.NetworkState;
+import com.supermax.base.common.network.NetworkStateMonitor;
+import com.supermax.base.common.utils.QsHelper;
+import com.supermax.base.common.utils.StreamCloseUtils;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ByteString;
+import okio.Okio;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 21:15
+ * @Description @Offline请求的磁盘队列，只追加写入的日志文件，每条记录：type(1) + length(4) + payload + crc32(4)
+ * 请求记录保存完整的method、url、请求头和请求体，重放成功后追加一条确认记录，启动时读取日志还原未确认的请求
+ * 可重试的失败追加一条失败记录，失败次数超过上限或保存时间超过上限的请求会被丢弃，不会一直堵住后面的请求
+ * 日志末尾写了一半的记录会被截掉；确认记录过多时重写日志
+ */
+public class OfflineQueue {
+    private static final String TAG          = "OfflineQueue";
+    static final         String JOURNAL_FILE = "journal";
+    private static final String JOURNAL_TMP  = "journal.tmp";
+
+    private static final byte TYPE_REQUEST = 1;
+    private static final byte TYPE_ACK     = 2;
+    private static final byte TYPE_FAILURE = 3;
+    /**
+     * 每批重放的请求数，一批的确认记录一次写入磁盘
+     */
+    private static final int  BATCH_SIZE        = 16;
+    private static final int  COMPACT_ACK_COUNT = 256;
+    private static final long MIN_BACKOFF_MS    = 2000;
+    private static final long MAX_BACKOFF_MS    = 5 * 60 * 1000;
+    private static final int  DEFAULT_MAX_ATTEMPTS = 10;
+    private static final long DEFAULT_MAX_AGE_MS   = 3 * 24 * 60 * 60 * 1000L;
+
+    /**
+     * 重放时发生IO异常
+     */
+    public static final int CODE_IO_ERROR = -1;
+    /**
+     * 保存时间超过上限，没有再重放
+     */
+    public static final int CODE_EXPIRED  = -2;
+
+    /**
+     * 重放结果回调，在主线程执行，code为服务端响应码
+     * 408、429、5xx和IO异常会保留在队列里稍后重试，不会回调；失败次数用完后丢弃并回调最后一次的code，IO异常为CODE_IO_ERROR
+     * 保存时间超过上限的请求直接丢弃，code为CODE_EXPIRED
+     */
+    public interface Listener {
+        void onReplayed(String methodKey, String idempotencyKey, int code);
+    }
+
+    private final    File                             directory;
+    private final    File                             journalFile;
+    /**
+     * 未确认的请求，key为幂等键，按写入顺序排列
+     */
+    private final    LinkedHashMap<String, Record>    pending   = new LinkedHashMap<>();
+    private final    CopyOnWriteArrayList<Listener>   listeners = new CopyOnWriteArrayList<>();
+    private final    AtomicBoolean                    draining  = new AtomicBoolean();
+    private          int                              ackCount;
+    private          boolean                          initialized;
+    private volatile HttpAdapter                      adapter;
+    private volatile long                             backoffMs = MIN_BACKOFF_MS;
+    private volatile int                              maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private volatile long                             maxAgeMs    = DEFAULT_MAX_AGE_MS;
+
+    public OfflineQueue(File directory) {
+        this.directory = directory;
+        this.journalFile = new File(directory, JOURNAL_FILE);
+    }
+
+    public synchronized int size() {
+        initialize();
+        return pending.size();
+    }
+
+    /**
+     * 丢弃所有未重放的请求
+     */
+    public synchronized void clear() {
+        pending.clear();
+        ackCount = 0;
+        initialized = true;
+        if (journalFile.exists() && !journalFile.delete()) L.e(TAG, "delete journal failed:" + journalFile.getPath());
+    }
+
+    /**
+     * @param maxAttempts 单个请求可重试失败的最多次数，重启后累计
+     * @param maxAgeMs    请求保存后的最长重放时间，单位毫秒
+     */
+    public void setRetryLimit(int maxAttempts, long maxAgeMs) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.maxAgeMs = Math.max(0, maxAgeMs);
+    }
+
+    public void addListener(Listener listener) {
+        if (listener != null) listeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 绑定发送请求的HttpAdapter，网络恢复时自动重放
+     */
+    synchronized void bind(HttpAdapter httpAdapter) {
+        if (adapter == null) {
+            QsHelper.getInstance().getNetworkMonitor().addListener(new NetworkStateMonitor.Listener() {
+                @Override public void onNetworkStateChanged(NetworkState oldState, NetworkState newState) {
+                    if (newState.isAvailable() && !oldState.isAvailable()) {
+                        backoffMs = MIN_BACKOFF_MS;
+                        replay();
+                    }
+                }
+            });
+        }
+        adapter = httpAdapter;
+    }
+
+    /**
+     * 保存请求，返回前已写入磁盘
+     */
+    void enqueue(String methodKey, String idempotencyKey, Request request) throws IOException {
+        Record record = new Record();
+        record.methodKey = methodKey;
+        record.id = idempotencyKey;
+        record.createdAt = System.currentTimeMillis();
+        record.method = request.method();
+        record.url = request.url().toString();
+        record.headers = request.headers();
+        RequestBody body = request.body();
+        if (body != null) {
+            MediaType contentType = body.contentType();
+            record.contentType = contentType == null ? null : contentType.toString();
+            Buffer buffer = new Buffer();
+            body.writeTo(buffer);
+            record.body = buffer.readByteArray();
+        }
+        synchronized (this) {
+            initialize();
+            Buffer buffer = new Buffer();
+            writeRecord(buffer, TYPE_REQUEST, encode(record));
+            append(buffer);
+            pending.put(record.id, record);
+            L.i(TAG, "method:" + methodKey + " saved offline, pending:" + pending.size());
+        }
+        replay();
+    }
+
+    /**
+     * 网络可用时在后台按顺序重放，同一时间只有一个重放任务
+     */
+    public void replay() {
+        final HttpAdapter httpAdapter = adapter;
+        if (httpAdapter == null || !QsHelper.getInstance().isNetworkAvailable()) return;
+        if (!draining.compareAndSet(false, true)) return;
+        httpAdapter.getHttpClient().dispatcher().executorService().execute(new Runnable() {
+            @Override public void run() {
+                boolean stopped = false;
+                try {
+                    stopped = drain(httpAdapter);
+                } finally {
+                    draining.set(false);
+                }
+                if (stopped) {
+                    scheduleReplay();
+                } else if (size() > 0) {
+                    replay();
+                }
+            }
+        });
+    }
+
+    /**
+     * @return true表示遇到可重试的失败，需要稍后继续
+     */
+    private boolean drain(HttpAdapter httpAdapter) {
+        while (true) {
+            List<Record> batch = nextBatch();
+            if (batch.isEmpty()) return false;
+            List<Record> done = new ArrayList<>(batch.size());
+            boolean stopped = false;
+            for (Record record : batch) {
+                if (!QsHelper.getInstance().isNetworkAvailable()) {
+                    stopped = true;
+                    break;
+                }
+                if (System.currentTimeMillis() - record.createdAt > maxAgeMs) {
+                    L.e(TAG, "method:" + record.methodKey + " expired, drop it");
+                    record.code = CODE_EXPIRED;
+                    done.add(record);
+                    continue;
+                }
+                int code = send(httpAdapter, record);
+                if (code < 0 || code == 408 || code == 429 || code >= 500) {
+                    int attempts = recordFailure(record);
+                    if (attempts >= maxAttempts) {
+                        L.e(TAG, "method:" + record.methodKey + " replay failed " + attempts + " times, code:" + code + ", drop it");
+                        record.code = code;
+                        done.add(record);
+                        continue;
+                    }
+                    L.e(TAG, "method:" + record.methodKey + " replay failed, code:" + code);
+                    stopped = true;
+                    break;
+                }
+                if (code < 200 || code >= 300) L.e(TAG, "method:" + record.methodKey + " replay rejected, code:" + code + ", drop it");
+                record.code = code;
+                done.add(record);
+            }
+            try {
+                acknowledge(done);
+            } catch (IOException e) {
+                L.e(TAG, "write journal failed... " + e.getMessage());
+                return true;
+            }
+            notifyReplayed(done);
+            if (stopped) return true;
+            backoffMs = MIN_BACKOFF_MS;
+        }
+    }
+
+    private int send(HttpAdapter httpAdapter, Record record) {
+        RequestBody body = null;
+        if (record.body != null) {
+            body = RequestBody.create(record.contentType == null ? null : MediaType.parse(record.contentType), record.body);
+        } else if (!"GET".equals(record.method) && !"HEAD".equals(record.method) && !"DELETE".equals(record.method)) {
+            body = RequestBody.create(null, new byte[0]);
+        }
+        Request request = new Request.Builder().url(record.url).headers(record.headers).method(record.method, body).build();
+        Response response = null;
+        try {
+            response = httpAdapter.newCall(request, record.methodKey).execute();
+            return response.code();
+        } catch (IOException e) {
+            L.e(TAG, "method:" + record.methodKey + " replay IOException... " + e.getMessage());
+            return CODE_IO_ERROR;
+        } finally {
+            StreamCloseUtils.close(response);
+        }
+    }
+
+    private void scheduleReplay() {
+        final long delay = backoffMs;
+        backoffMs = Math.min(MAX_BACKOFF_MS, delay * 2);
+        QsHelper.getInstance().getThreadHelper().getScheduledThreadPoll().schedule(new Runnable() {
+            @Override public void run() {
+                replay();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void notifyReplayed(final List<Record> records) {
+        if (records.isEmpty() || listeners.isEmpty()) return;
+        QsHelper.getInstance().getThreadHelper().getMainThread().execute(new Runnable() {
+            @Override public void run() {
+                for (Record record : records) {
+                    for (Listener listener : listeners) {
+                        listener.onReplayed(record.methodKey, record.id, record.code);
+                    }
+                }
+            }
+        });
+    }
+
+    private synchronized List<Record> nextBatch() {
+        initialize();
+        List<Record> batch = new ArrayList<>(Math.min(BATCH_SIZE, pending.size()));
+        Iterator<Record> iterator = pending.values().iterator();
+        while (iterator.hasNext() && batch.size() < BATCH_SIZE) {
+            batch.add(iterator.next());
+        }
+        return batch;
+    }
+
+    /**
+     * 追加一条失败记录，写入失败时只在内存中计数
+     *
+     * @return 累计失败次数
+     */
+    private synchronized int recordFailure(Record record) {
+        record.attempts++;
+        Buffer payload = new Buffer();
+        writeString(payload, record.id);
+        Buffer buffer = new Buffer();
+        writeRecord(buffer, TYPE_FAILURE, payload.readByteArray());
+        try {
+            append(buffer);
+        } catch (IOException e) {
+            L.e(TAG, "write journal failed... " + e.getMessage());
+        }
+        return record.attempts;
+    }
+
+    /**
+     * 幂等键对应请求的累计失败次数，不存在时返回-1
+     */
+    synchronized int attempts(String idempotencyKey) {
+        initialize();
+        Record record = pending.get(idempotencyKey);
+        return record == null ? -1 : record.attempts;
+    }
+
+    synchronized int recordFailure(String idempotencyKey) {
+        initialize();
+        Record record = pending.get(idempotencyKey);
+        return record == null ? -1 : recordFailure(record);
+    }
+
+    private synchronized void acknowledge(List<Record> records) throws IOException {
+        if (records.isEmpty()) return;
+        Buffer buffer = new Buffer();
+        for (Record record : records) {
+            Buffer payload = new Buffer();
+            writeString(payload, record.id);
+            writeRecord(buffer, TYPE_ACK, payload.readByteArray());
+        }
+        append(buffer);
+        for (Record record : records) {
+            if (pending.get(record.id) == record) pending.remove(record.id);
+        }
+        ackCount += records.size();
+        if (pending.isEmpty()) {
+            if (!journalFile.delete()) L.e(TAG, "delete journal failed:" + journalFile.getPath());
+            ackCount = 0;
+        } else if (ackCount >= COMPACT_ACK_COUNT && ackCount > pending.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * 只保留未确认的请求和它们的失败次数，写入临时文件后替换日志
+     */
+    private void compact() throws IOException {
+        File tmpFile = new File(directory, JOURNAL_TMP);
+        Buffer buffer = new Buffer();
+        for (Record record : pending.values()) {
+            writeRecord(buffer, TYPE_REQUEST, encode(record));
+            for (int i = 0; i < record.attempts; i++) {
+                Buffer payload = new Buffer();
+                writeString(payload, record.id);
+                writeRecord(buffer, TYPE_FAILURE, payload.readByteArray());
+            }
+        }
+        FileOutputStream out = new FileOutputStream(tmpFile);
+        try {
+            buffer.writeTo(out);
+            out.getFD().sync();
+        } finally {
+            StreamCloseUtils.close(out);
+        }
+        if (!tmpFile.renameTo(journalFile)) throw new IOException("rename " + tmpFile.getPath() + " failed");
+        ackCount = 0;
+    }
+
+    private void append(Buffer buffer) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) throw new IOException("mkdirs " + directory.getPath() + " failed");
+        FileOutputStream out = new FileOutputStream(journalFile, true);
+        try {
+            buffer.writeTo(out);
+            out.getFD().sync();
+        } finally {
+            StreamCloseUtils.close(out);
+        }
+    }
+
+    /**
+     * 读取日志还原未确认的请求，遇到不完整或校验失败的记录时从该处截断
+     */
+    private void initialize() {
+        if (initialized) return;
+        initialized = true;
+        if (!journalFile.exists()) return;
+        long length = journalFile.length();
+        long offset = 0;
+        BufferedSource source = null;
+        try {
+            source = Okio.buffer(Okio.source(journalFile));
+            while (offset < length) {
+                if (length - offset < 9) break;
+                byte type = source.readByte();
+                int size = source.readInt();
+                if (size < 0 || offset + 9 + size > length) break;
+                byte[] payload = source.readByteArray(size);
+                int crc = source.readInt();
+                if (crc != crc32(type, payload)) break;
+                if (type == TYPE_REQUEST) {
+                    Record record = decode(payload);
+                    pending.put(record.id, record);
+                } else if (type == TYPE_ACK) {
+                    pending.remove(readString(new Buffer().write(payload)));
+                    ackCount++;
+                } else if (type == TYPE_FAILURE) {
+                    Record record = pending.get(readString(new Buffer().write(payload)));
+                    if (record != null) record.attempts++;
+                } else {
+                    break;
+                }
+                offset += 9 + size;
+            }
+        } catch (IOException e) {
+            L.e(TAG, "read journal failed... " + e.getMessage());
+        } finally {
+            StreamCloseUtils.close(source);
+        }
+        if (offset < length) truncate(offset);
+        L.i(TAG, "journal loaded, pending:" + pending.size());
+    }
+
+    private void truncate(long offset) {
+        L.e(TAG, "journal is broken at " + offset + ", truncate it");
+        RandomAccessFile file = null;
+        try {
+            file = new RandomAccessFile(journalFile, "rw");
+            file.setLength(offset);
+        } catch (IOException e) {
+            L.e(TAG, "truncate journal failed... " + e.getMessage());
+        } finally {
+            StreamCloseUtils.close(file);
+        }
+    }
+
+    private static void writeRecord(Buffer buffer, byte type, byte[] payload) {
+        buffer.writeByte(type);
+        buffer.writeInt(payload.length);
+        buffer.write(payload);
+        buffer.writeInt(crc32(type, payload));
+    }
+
+    private static int crc32(byte type, byte[] payload) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(type);
+        crc32.update(payload);
+        return (int) crc32.getValue();
+    }
+
+    private static byte[] encode(Record record) {
+        Buffer buffer = new Buffer();
+        writeString(buffer, record.id);
+        writeString(buffer, record.methodKey);
+        buffer.writeLong(record.createdAt);
+        writeString(buffer, record.method);
+        writeString(buffer, record.url);
+        buffer.writeInt(record.headers.size());
+        for (int i = 0; i < record.headers.size(); i++) {
+            writeString(buffer, record.headers.name(i));
+            writeString(buffer, record.headers.value(i));
+        }
+        writeString(buffer, record.contentType);
+        if (record.body == null) {
+            buffer.writeInt(-1);
+        } else {
+            buffer.writeInt(record.body.length);
+            buffer.write(record.body);
+        }
+        return buffer.readByteArray();
+    }
+
+    private static Record decode(byte[] payload) throws IOException {
+        Buffer buffer = new Buffer().write(payload);
+        Record record = new Record();
+        record.id = readString(buffer);
+        record.methodKey = readString(buffer);
+        record.createdAt = buffer.readLong();
+        record.method = readString(buffer);
+        record.url = readString(buffer);
+        int headerCount = buffer.readInt();
+        Headers.Builder headers = new Headers.Builder();
+        for (int i = 0; i < headerCount; i++) {
+            headers.add(readString(buffer), readString(buffer));
+        }
+        record.headers = headers.build();
+        record.contentType = readString(buffer);
+        int bodyLength = buffer.readInt();
+        record.body = bodyLength < 0 ? null : buffer.readByteArray(bodyLength);
+        if (record.id == null || record.method == null || record.url == null) throw new EOFException("bad record");
+        return record;
+    }
+
+    private static void writeString(Buffer buffer, String value) {
+        if (value == null) {
+            buffer.writeInt(-1);
+        } else {
+            ByteString bytes = ByteString.encodeUtf8(value);
+            buffer.writeInt(bytes.size());
+            buffer.write(bytes);
+        }
+    }
+
+    private static String readString(Buffer buffer) throws IOException {
+        int length = buffer.readInt();
+        return length < 0 ? null : buffer.readUtf8(length);
+    }
+
+    private static final class Record {
+        String  id;
+        String  methodKey;
+        long    createdAt;
+        String  method;
+        String  url;
+        Headers headers;
+        String  contentType;
+        byte[]  body;
+        int     attempts;
+        int     code;
+    }
+}
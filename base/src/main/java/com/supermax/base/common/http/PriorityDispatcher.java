@@ -0,0 +1,203 @@
+package com.supermax.base.common.http;
+
+import android.support.annotation.NonNull;
+
+import com.supermax.base.common.aspect.PriorityType;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 17:20
+ * @Description 在OkHttp的Dispatcher前按优先级排队
+ * 总并发不超过OkHttp单域名的并发数，保证请求不会在OkHttp内部按FIFO排队
+ * 每个优先级单独限制并发，低优先级占不满所有位置，高优先级总有空位
+ * 同一优先级内排序值随入队时间单调递增，所以每个优先级一个FIFO队列即可，出队时比较各队头
+ */
+final class PriorityDispatcher {
+    private final int                     maxRunning;
+    private final int[]                   maxRunningPerPriority;
+    private final int[]                   running;
+    /**
+     * 下标为PriorityType.ordinal()
+     */
+    private final List<ArrayDeque<Ticket>> queues;
+    private       int                     runningCount;
+    private       long                    sequence;
+
+    PriorityDispatcher(int maxRunning) {
+        this.maxRunning = maxRunning;
+        PriorityType[] types = PriorityType.values();
+        maxRunningPerPriority = new int[types.length];
+        running = new int[types.length];
+        queues = new ArrayList<>(types.length);
+        for (int i = 0; i < types.length; i++) {
+            queues.add(new ArrayDeque<Ticket>());
+        }
+        maxRunningPerPriority[PriorityType.HIGH.ordinal()] = maxRunning;
+        maxRunningPerPriority[PriorityType.NORMAL.ordinal()] = Math.max(1, maxRunning * 3 / 4);
+        maxRunningPerPriority[PriorityType.LOW.ordinal()] = Math.max(1, maxRunning / 2);
+        maxRunningPerPriority[PriorityType.BACKGROUND.ordinal()] = Math.max(1, maxRunning / 8);
+    }
+
+    void enqueue(HttpCall<?> httpCall, Call call, Callback callback) {
+        PriorityType priority = httpCall.priority == null ? PriorityType.NORMAL : httpCall.priority;
+        Ticket ticket = new Ticket(call, callback, priority);
+        synchronized (this) {
+            ticket.sequence = sequence++;
+            queues.get(priority.ordinal()).add(ticket);
+        }
+        httpCall.ticket = ticket;
+        if (httpCall.isCanceled()) ticket.cancel();
+        promote();
+    }
+
+    /**
+     * 同步请求在调用线程执行，和OkHttp的同步请求一样不排队，也不占用并发数
+     */
+    void execute(HttpCall<?> httpCall, Call call, Callback callback) {
+        Ticket ticket = new Ticket(call, callback, httpCall.priority == null ? PriorityType.NORMAL : httpCall.priority);
+        ticket.state = Ticket.FINISHED;
+        ticket.dispatchedAt = System.currentTimeMillis();
+        httpCall.ticket = ticket;
+        Response response;
+        try {
+            response = call.execute();
+        } catch (IOException e) {
+            callback.onFailure(call, e);
+            return;
+        }
+        try {
+            callback.onResponse(call, response);
+        } catch (IOException e) {
+            response.close();
+            callback.onFailure(call, e);
+        }
+    }
+
+    /**
+     * 取消所有排队中的请求
+     */
+    void cancelAll() {
+        List<Ticket> canceled = new ArrayList<>();
+        synchronized (this) {
+            for (ArrayDeque<Ticket> queue : queues) {
+                canceled.addAll(queue);
+            }
+        }
+        for (Ticket ticket : canceled) {
+            ticket.cancel();
+        }
+    }
+
+    private void promote() {
+        List<Ticket> ready = null;
+        synchronized (this) {
+            while (runningCount < maxRunning) {
+                Ticket next = null;
+                for (int i = 0; i < queues.size(); i++) {
+                    if (running[i] >= maxRunningPerPriority[i]) continue;
+                    Ticket head = queues.get(i).peek();
+                    if (head != null && (next == null || head.before(next))) next = head;
+                }
+                if (next == null) break;
+                int index = next.priority.ordinal();
+                queues.get(index).poll();
+                running[index]++;
+                runningCount++;
+                next.state = Ticket.RUNNING;
+                next.dispatchedAt = System.currentTimeMillis();
+                if (ready == null) ready = new ArrayList<>();
+                ready.add(next);
+            }
+        }
+        if (ready != null) {
+            for (Ticket ticket : ready) {
+                if (ticket.delegate instanceof HedgedCall) ((HedgedCall) ticket.delegate).start(ticket.call);
+                ticket.call.enqueue(ticket);
+            }
+        }
+    }
+
+    private void finished(Ticket ticket) {
+        synchronized (this) {
+            if (ticket.state != Ticket.RUNNING) return;
+            ticket.state = Ticket.FINISHED;
+            running[ticket.priority.ordinal()]--;
+            runningCount--;
+        }
+        promote();
+    }
+
+    /**
+     * 排队中的请求，取消时直接从队列移除
+     */
+    final class Ticket implements Callback {
+        static final int QUEUED   = 0;
+        static final int RUNNING  = 1;
+        static final int FINISHED = 2;
+
+        private final Call         call;
+        private final Callback     delegate;
+        private final PriorityType priority;
+        private final long         sortKey;
+        private       long         sequence;
+        private       int          state = QUEUED;
+        /**
+         * 交给OkHttp的时间，不含在这里排队的时间
+         */
+        private volatile long      dispatchedAt;
+
+        Ticket(Call call, Callback delegate, PriorityType priority) {
+            this.call = call;
+            this.delegate = delegate;
+            this.priority = priority;
+            this.sortKey = System.nanoTime() / 1000000 + priority.agingMs;
+        }
+
+        /**
+         * 从交给OkHttp到现在的耗时，还在排队时返回0
+         */
+        long elapsedMs(long now) {
+            long at = dispatchedAt;
+            return at == 0 ? 0 : now - at;
+        }
+
+        private boolean before(Ticket other) {
+            return sortKey != other.sortKey ? sortKey < other.sortKey : sequence < other.sequence;
+        }
+
+        void cancel() {
+            synchronized (PriorityDispatcher.this) {
+                if (state != QUEUED) return;
+                state = FINISHED;
+                queues.get(priority.ordinal()).remove(this);
+            }
+            call.cancel();
+            delegate.onFailure(call, new IOException("Canceled"));
+        }
+
+        @Override public void onFailure(@NonNull Call call, @NonNull IOException e) {
+            try {
+                delegate.onFailure(call, e);
+            } finally {
+                finished(this);
+            }
+        }
+
+        @Override public void onResponse(@NonNull Call call, @NonNull Response response) throws IOException {
+            try {
+                delegate.onResponse(call, response);
+            } finally {
+                finished(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.supermax.base.common.http;
+
+import com.supermax.base.common.utils.QsHelper;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 22:55
+ * @Description 累计已写出的字节数，最多每PROGRESS_INTERVAL_MS回调一次QsProgressListener
+ */
+final class ProgressReporter {
+    private static final long PROGRESS_INTERVAL_MS = 300;
+
+    private final QsProgressListener listener;
+    private final long               total;
+    private final Executor           executor;
+    private final AtomicLong         current = new AtomicLong();
+    private final AtomicLong         lastAt  = new AtomicLong();
+
+    ProgressReporter(QsProgressListener listener, long total) {
+        this(listener, total, null);
+    }
+
+    /**
+     * @param executor 回调所在的线程，为null时在主线程回调
+     */
+    ProgressReporter(QsProgressListener listener, long total, Executor executor) {
+        this.listener = listener;
+        this.total = total;
+        this.executor = executor;
+    }
+
+    long current() {
+        return current.get();
+    }
+
+    /**
+     * 请求重发时bytes可以为负，撤回上次已统计的部分
+     */
+    void add(long bytes) {
+        long value = current.addAndGet(bytes);
+        long now = System.currentTimeMillis();
+        long last = lastAt.get();
+        if (now - last < PROGRESS_INTERVAL_MS || !lastAt.compareAndSet(last, now)) return;
+        post(value);
+    }
+
+    /**
+     * 不受间隔限制，立即回调当前进度
+     */
+    void flush() {
+        lastAt.set(System.currentTimeMillis());
+        post(current.get());
+    }
+
+    private void post(final long value) {
+        Executor target = executor == null ? QsHelper.getInstance().getThreadHelper().getMainThread() : executor;
+        target.execute(new Runnable() {
+            @Override public void run() {
+                listener.onProgress(value, total);
+            }
+        });
+    }
+}
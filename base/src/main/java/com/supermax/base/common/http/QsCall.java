@@ -0,0 +1,29 @@
+package com.supermax.base.common.http;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 11:05
+ * @Description 异步请求句柄，接口方法返回值声明为QsCall&lt;T&gt;时，代理返回该对象而不是直接发起阻塞请求
+ * 例：@GET("/user/info") QsCall&lt;UserModel&gt; requestUserInfo(@Query("id") String id);
+ */
+public interface QsCall<T> {
+
+    /**
+     * 在当前线程阻塞执行，与直接返回T的接口方法行为一致
+     */
+    T execute();
+
+    /**
+     * 交给OkHttp的Dispatcher异步执行，不占用调用线程，结果在主线程回调
+     * 请求被取消后不再回调
+     */
+    void enqueue(QsCallback<T> callback);
+
+    void cancel();
+
+    boolean isCanceled();
+
+    boolean isExecuted();
+
+    Object getRequestTag();
+}
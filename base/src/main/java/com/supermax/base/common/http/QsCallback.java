@@ -0,0 +1,15 @@
+package com.supermax.base.common.http;
+
+import com.supermax.base.common.exception.QsException;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 11:05
+ * @Description 异步请求回调，均在主线程执行
+ */
+public interface QsCallback<T> {
+
+    void onSuccess(T result);
+
+    void onFailure(QsException exception);
+}
@@ -0,0 +1,25 @@
+package com.supermax.base.common.http;
+
+import java.io.File;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 22:20
+ * @Description 文件下载，通过HttpAdapter.download创建
+ * 下载中的数据保存在"目标文件.download"，进度保存在"目标文件.download.meta"，再次下载同一url到同一文件时从断点继续
+ */
+public interface QsDownload {
+
+    /**
+     * 异步执行，所有回调都在主线程，取消后不再回调；已下载的部分保留，下次继续
+     */
+    void enqueue(QsDownloadCallback callback);
+
+    void cancel();
+
+    boolean isCanceled();
+
+    String getUrl();
+
+    File getTarget();
+}
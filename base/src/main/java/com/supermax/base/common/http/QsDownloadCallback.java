@@ -0,0 +1,22 @@
+package com.supermax.base.common.http;
+
+import com.supermax.base.common.exception.QsException;
+
+import java.io.File;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 22:21
+ * @Description QsDownload的回调，onProgress按固定间隔回调，最后回调onSuccess或onFailure
+ */
+public interface QsDownloadCallback {
+
+    /**
+     * @param total 服务端没有返回长度时为-1
+     */
+    void onProgress(long current, long total);
+
+    void onSuccess(File file);
+
+    void onFailure(QsException exception);
+}
@@ -0,0 +1,11 @@
+package com.supermax.base.common.http;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 22:53
+ * @Description 上传进度，在主线程按固定间隔回调
+ */
+public interface QsProgressListener {
+
+    void onProgress(long current, long total);
+}
@@ -0,0 +1,21 @@
+package com.supermax.base.common.http;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 20:05
+ * @Description 分块返回Json数组的接口返回值，数组还在下载时就开始回调已解析的元素
+ * 例如：@GET("/api/v1/users") @StreamArray(path = "data.list", chunkSize = 20) QsStream&lt;ModelUser&gt; requestUsers();
+ */
+public interface QsStream<T> {
+
+    /**
+     * 异步执行，所有回调都在主线程，取消后不再回调
+     */
+    void enqueue(QsStreamCallback<T> callback);
+
+    void cancel();
+
+    boolean isCanceled();
+
+    Object getRequestTag();
+}
@@ -0,0 +1,22 @@
+package com.supermax.base.common.http;
+
+import com.supermax.base.common.exception.QsException;
+
+import java.util.List;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 20:06
+ * @Description QsStream的回调，onItems可能回调多次，最后回调onComplete或onFailure
+ */
+public interface QsStreamCallback<T> {
+
+    void onItems(List<T> items);
+
+    void onComplete();
+
+    /**
+     * 已经回调过的onItems不会撤回
+     */
+    void onFailure(QsException exception);
+}
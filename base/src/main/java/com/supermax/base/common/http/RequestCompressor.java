@@ -0,0 +1,104 @@
+package com.supermax.base.common.http;
+
+import com.supermax.base.common.aspect.CompressType;
+
+import java.io.IOException;
+import java.util.zip.Deflater;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ByteString;
+import okio.DeflaterSink;
+import okio.ForwardingSink;
+import okio.GzipSink;
+import okio.Okio;
+import okio.Sink;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 23:40
+ * @Description 请求体压缩，原始数据直接写进压缩流，同时保留前minSize个字节
+ * 写完后原始长度不足minSize时使用保留的原始数据，不压缩
+ */
+final class RequestCompressor {
+
+    private RequestCompressor() {
+    }
+
+    /**
+     * @return 压缩后的请求体，不需要压缩时返回原始数据
+     */
+    static RequestBody compress(RequestBody body, CompressType type, long minSize) throws IOException {
+        if (body == null || body instanceof FileRequestBody || type == null || type == CompressType.NONE) return body;
+        if (!(body instanceof JsonRequestBody)) {
+            long length = body.contentLength();
+            if (length >= 0 && length < minSize) return body;
+        }
+        Buffer compressed = new Buffer();
+        Sink compressing = type == CompressType.GZIP ? new GzipSink(compressed) : new DeflaterSink(compressed, new Deflater());
+        TeeSink tee = new TeeSink(compressing, minSize);
+        BufferedSink sink = Okio.buffer(tee);
+        if (body instanceof JsonRequestBody) {
+            ((JsonRequestBody) body).writeJson(sink);
+        } else {
+            body.writeTo(sink);
+        }
+        sink.close();
+        if (tee.head != null) return RequestBody.create(body.contentType(), tee.head.readByteString());
+        return new CompressedBody(body.contentType(), compressed.readByteString(), type.encoding);
+    }
+
+    static String encodingOf(RequestBody body) {
+        return body instanceof CompressedBody ? ((CompressedBody) body).encoding : null;
+    }
+
+    /**
+     * 原始长度不超过limit时把数据复制一份到head，超过后丢弃head
+     */
+    private static final class TeeSink extends ForwardingSink {
+        private final long   limit;
+        private       Buffer head = new Buffer();
+
+        TeeSink(Sink delegate, long limit) {
+            super(delegate);
+            this.limit = limit;
+        }
+
+        @Override public void write(Buffer source, long byteCount) throws IOException {
+            if (head != null) {
+                if (head.size() + byteCount >= limit) {
+                    head = null;
+                } else {
+                    source.copyTo(head, 0, byteCount);
+                }
+            }
+            super.write(source, byteCount);
+        }
+    }
+
+    private static final class CompressedBody extends RequestBody {
+        private final MediaType  contentType;
+        private final ByteString bytes;
+        private final String     encoding;
+
+        CompressedBody(MediaType contentType, ByteString bytes, String encoding) {
+            this.contentType = contentType;
+            this.bytes = bytes;
+            this.encoding = encoding;
+        }
+
+        @Override public MediaType contentType() {
+            return contentType;
+        }
+
+        @Override public long contentLength() {
+            return bytes.size();
+        }
+
+        @Override public void writeTo(BufferedSink sink) throws IOException {
+            sink.write(bytes);
+        }
+    }
+}
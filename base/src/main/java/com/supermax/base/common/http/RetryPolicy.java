@@ -0,0 +1,92 @@
+package com.supermax.base.common.http;
+
+import com.supermax.base.common.aspect.Retry;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import okhttp3.Response;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 16:40
+ * @Description @Retry解析后的重试策略，计算每次重试前需要等待的时长
+ */
+final class RetryPolicy {
+    /**
+     * 不需要重试
+     */
+    static final long NO_RETRY = -1;
+
+    private final int   times;
+    private final long  backoffMs;
+    private final long  maxBackoffMs;
+    private final int[] codes;
+
+    RetryPolicy(Retry retry) {
+        this.times = retry.times();
+        this.backoffMs = retry.backoffMs();
+        this.maxBackoffMs = retry.maxBackoffMs();
+        this.codes = retry.on();
+    }
+
+    /**
+     * IO异常时的等待时长
+     *
+     * @param retryCount 已重试次数
+     */
+    long delayForFailure(int retryCount) {
+        if (retryCount >= times) return NO_RETRY;
+        return backoff(retryCount);
+    }
+
+    /**
+     * 响应码命中on时的等待时长，Retry-After超过maxBackoffMs时放弃重试
+     */
+    long delayForResponse(int retryCount, Response response) {
+        if (retryCount >= times || !retryOn(response.code())) return NO_RETRY;
+        long delay = backoff(retryCount);
+        long retryAfter = parseRetryAfter(response.header("Retry-After"));
+        if (retryAfter > maxBackoffMs) return NO_RETRY;
+        return Math.max(delay, retryAfter);
+    }
+
+    private boolean retryOn(int code) {
+        for (int c : codes) {
+            if (c == code) return true;
+        }
+        return false;
+    }
+
+    /**
+     * full jitter: random(0, min(maxBackoffMs, backoffMs * 2^n))
+     */
+    private long backoff(int retryCount) {
+        long ceiling = backoffMs << Math.min(retryCount, 30);
+        if (ceiling <= 0 || ceiling > maxBackoffMs) ceiling = maxBackoffMs;
+        return (long) (Math.random() * ceiling);
+    }
+
+    /**
+     * Retry-After支持秒数和HTTP-date两种格式，解析失败返回0
+     */
+    private static long parseRetryAfter(String value) {
+        if (value == null) return 0;
+        value = value.trim();
+        try {
+            return Math.max(0, Long.parseLong(value) * 1000);
+        } catch (NumberFormatException ignored) {
+        }
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        try {
+            Date date = format.parse(value);
+            return Math.max(0, date.getTime() - System.currentTimeMillis());
+        } catch (ParseException e) {
+            return 0;
+        }
+    }
+}
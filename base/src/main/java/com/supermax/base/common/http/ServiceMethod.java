@@ -0,0 +1,637 @@
+package com.supermax.base.common.http;
+
+import android.text.TextUtils;
+
+import com.google.gson.reflect.TypeToken;
+import com.supermax.base.common.aspect.Body;
+import com.supermax.base.common.aspect.Cache;
+import com.supermax.base.common.aspect.ChunkedUpload;
+import com.supermax.base.common.aspect.Codec;
+import com.supermax.base.common.aspect.Compress;
+import com.supermax.base.common.aspect.CompressType;
+import com.supermax.base.common.aspect.DELETE;
+import com.supermax.base.common.aspect.FormBody;
+import com.supermax.base.common.aspect.GET;
+import com.supermax.base.common.aspect.HEAD;
+import com.supermax.base.common.aspect.Hedge;
+import com.supermax.base.common.aspect.Offline;
+import com.supermax.base.common.aspect.PATCH;
+import com.supermax.base.common.aspect.POST;
+import com.supermax.base.common.aspect.PUT;
+import com.supermax.base.common.aspect.Path;
+import com.supermax.base.common.aspect.Priority;
+import com.supermax.base.common.aspect.Progress;
+import com.supermax.base.common.aspect.PriorityType;
+import com.supermax.base.common.aspect.Query;
+import com.supermax.base.common.aspect.Retry;
+import com.supermax.base.common.aspect.SingleFlight;
+import com.supermax.base.common.aspect.StreamArray;
+import com.supermax.base.common.aspect.TERMINAL;
+import com.supermax.base.common.exception.QsException;
+import com.supermax.base.common.exception.QsExceptionType;
+
+import java.io.File;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import okhttp3.MediaType;
+import okhttp3.Response;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 10:12
+ * @Description 接口方法的请求计划，每个Method只解析一次注解，之后的请求直接复用
+ */
+final class ServiceMethod {
+    private static final Pattern PATH_REPLACE = Pattern.compile("\\{\\w*\\}");
+
+    final String             methodName;
+    /**
+     * 接口类名.方法名，用于耗时统计
+     */
+    final String             metricsKey;
+    final String             requestType;
+    final String             path;
+    final String             terminal;
+    final boolean            isQsCall;
+    final boolean            isStream;
+    /**
+     * 解析响应体用的类型，QsCall、QsStream时为泛型参数，原始类型为returnType
+     */
+    final Type               resultType;
+    final Class<?>           returnType;
+    /**
+     * 区分不同返回类型的key，用于缓存和请求合并
+     */
+    final String             resultTypeKey;
+    /**
+     * @StreamArray配置
+     */
+    final String[]           streamPath;
+    final int                streamChunkSize;
+    /**
+     * 能解析返回值的编解码器，按注册顺序排列，void和Response时为null
+     */
+    final Converter[]        responseConverters;
+    /**
+     * 响应未声明Content-Type或没有匹配的编解码器时使用
+     */
+    final Converter          responseConverter;
+    /**
+     * @Codec指定编解码器时的Accept请求头
+     */
+    final String             accept;
+    final ParameterHandler[] parameterHandlers;
+    /**
+     * @Cache配置，单位毫秒，cacheMaxAge小于0表示不缓存
+     */
+    final long               cacheMaxAge;
+    final long               cacheStale;
+    final boolean            cachePrivate;
+    final boolean            singleFlight;
+    /**
+     * @Retry配置，null表示不重试
+     */
+    final RetryPolicy        retryPolicy;
+    /**
+     * @Priority配置，null表示未声明
+     */
+    final PriorityType       priority;
+    /**
+     * @Offline的幂等键请求头，null表示不支持离线
+     */
+    final String             idempotencyHeader;
+    /**
+     * @ChunkedUpload配置，uploadChunkSize小于等于0表示不分块
+     */
+    final long               uploadChunkSize;
+    final int                uploadParallel;
+    final String             uploadSessionHeader;
+    /**
+     * @Compress配置，null表示未声明，使用HttpBuilder的配置
+     */
+    final CompressType       compressType;
+    final long               compressMinSize;
+    /**
+     * @Hedge配置，null表示不对冲
+     */
+    final HedgePolicy        hedgePolicy;
+
+    /**
+     * path按'{xx}'预先切分好的片段
+     */
+    private final String[] pathSegments;
+
+    private ServiceMethod(Builder builder) {
+        this.methodName = builder.method.getName();
+        this.metricsKey = builder.method.getDeclaringClass().getSimpleName() + "." + methodName;
+        this.requestType = builder.requestType;
+        this.path = builder.path;
+        this.terminal = builder.terminal;
+        this.isQsCall = builder.isQsCall;
+        this.isStream = builder.isStream;
+        this.resultType = builder.resultType;
+        this.returnType = builder.returnType;
+        this.resultTypeKey = resultType instanceof Class ? ((Class<?>) resultType).getName() : resultType.toString();
+        this.streamPath = builder.streamPath;
+        this.streamChunkSize = builder.streamChunkSize;
+        this.responseConverters = builder.responseConverters;
+        this.responseConverter = builder.responseConverter;
+        this.accept = builder.accept;
+        this.parameterHandlers = builder.parameterHandlers;
+        this.cacheMaxAge = builder.cacheMaxAge;
+        this.cacheStale = builder.cacheStale;
+        this.cachePrivate = builder.cache != null && builder.cache.allowPrivate();
+        this.singleFlight = builder.singleFlight;
+        this.retryPolicy = builder.retryPolicy;
+        this.priority = builder.priority;
+        this.idempotencyHeader = builder.offline == null ? null : builder.offline.idempotencyHeader();
+        this.uploadChunkSize = builder.chunkedUpload == null ? 0 : builder.chunkedUpload.chunkSize();
+        this.uploadParallel = builder.chunkedUpload == null ? 0 : builder.chunkedUpload.parallel();
+        this.uploadSessionHeader = builder.chunkedUpload == null ? null : builder.chunkedUpload.sessionHeader();
+        this.compressType = builder.compress == null ? null : builder.compress.value();
+        this.compressMinSize = builder.compress == null ? 0 : builder.compress.minSize();
+        this.hedgePolicy = builder.hedge == null ? null : new HedgePolicy(builder.hedge);
+        this.pathSegments = PATH_REPLACE.split(builder.path);
+    }
+
+    static ServiceMethod parse(Method method, List<Converter.Factory> converterFactories, Object requestTag) {
+        return new Builder(method, converterFactories, requestTag).build();
+    }
+
+    /**
+     * 按响应的Content-Type选择编解码器
+     */
+    Converter responseConverter(MediaType contentType) {
+        if (contentType == null || responseConverter.canRead(contentType)) return responseConverter;
+        for (Converter converter : responseConverters) {
+            if (converter.canRead(contentType)) return converter;
+        }
+        return responseConverter;
+    }
+
+    boolean isCacheable() {
+        return cacheMaxAge >= 0;
+    }
+
+    /**
+     * 同一请求不同返回类型的接口不能共用解析好的对象
+     */
+    String memoryCacheKey(String cacheKey) {
+        return resultTypeKey + "|" + cacheKey;
+    }
+
+    /**
+     * 原始Response只能被一个调用方读取，QsStream的结果边解析边回调，都不能合并
+     */
+    boolean canShareResult() {
+        return returnType != Response.class && !isStream;
+    }
+
+    boolean hasBody() {
+        return hasBody(requestType);
+    }
+
+    static boolean hasBody(String requestType) {
+        return !"GET".equals(requestType) && !"HEAD".equals(requestType);
+    }
+
+    /**
+     * 按参数注解收集本次请求的参数
+     */
+    RequestParams bindParams(Object[] args, HashMap<String, String> urlParameters) {
+        RequestParams requestParams = new RequestParams();
+        if (urlParameters != null && !urlParameters.isEmpty()) {
+            requestParams.params = new HashMap<>(urlParameters);
+        }
+        if (args != null) {
+            for (int i = 0; i < parameterHandlers.length; i++) {
+                ParameterHandler handler = parameterHandlers[i];
+                if (handler != null) handler.apply(requestParams, args[i]);
+            }
+        }
+        return requestParams;
+    }
+
+    StringBuilder buildUrl(String terminal, RequestParams requestParams, Object requestTag) {
+        if (TextUtils.isEmpty(terminal)) {
+            throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "url terminal error... method:" + methodName + "  terminal is null...");
+        }
+        StringBuilder url = new StringBuilder(terminal);
+        Object pathArg = requestParams.pathArg;
+        if (requestParams.hasPathArg) {
+            if (!(pathArg instanceof String[])) {
+                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "params error method:" + methodName + "  @Path annotation only fix String[] arg !");
+            }
+            String[] param = (String[]) pathArg;
+            if (pathSegments.length - param.length > 1) {
+                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "params error method:" + methodName + "  the path with '{xx}' is more than @Path annotation arg length!");
+            }
+            for (int index = 0; index < pathSegments.length; index++) {
+                url.append(pathSegments[index]);
+                if (index < param.length) url.append(param[index]);
+            }
+        } else {
+            url.append(path);
+        }
+
+        HashMap<String, String> params = requestParams.params;
+        if (params != null && !params.isEmpty()) {
+            boolean hasQuery = url.indexOf("?") >= 0;
+            for (String key : params.keySet()) {
+                String value = params.get(key);
+                if (value != null) {
+                    url.append(hasQuery ? "&" : "?").append(key).append("=").append(value);
+                    hasQuery = true;
+                }
+            }
+        }
+        return url;
+    }
+
+    /**
+     * 单次请求收集到的参数
+     */
+    static class RequestParams {
+        HashMap<String, String> params;
+        boolean                 hasPathArg;
+        Object                  pathArg;
+        Object                  body;
+        String                  mimeType;
+        Converter               bodyConverter;
+        Object                  formBody;
+        QsProgressListener      progressListener;
+    }
+
+    /**
+     * 参数绑定器，一个参数对应一个
+     */
+    abstract static class ParameterHandler {
+        abstract void apply(RequestParams requestParams, Object value);
+    }
+
+    static final class QueryHandler extends ParameterHandler {
+        private final String key;
+
+        QueryHandler(String key) {
+            this.key = key;
+        }
+
+        @Override void apply(RequestParams requestParams, Object value) {
+            if (requestParams.params == null) requestParams.params = new HashMap<>();
+            requestParams.params.put(key, value == null ? "" : String.valueOf(value));
+        }
+    }
+
+    static final class PathHandler extends ParameterHandler {
+        @Override void apply(RequestParams requestParams, Object value) {
+            if (!requestParams.hasPathArg) {
+                requestParams.hasPathArg = true;
+                requestParams.pathArg = value;
+            }
+        }
+    }
+
+    static final class BodyHandler extends ParameterHandler {
+        private final String    mimeType;
+        private final Converter converter;
+
+        BodyHandler(String mimeType, Converter converter) {
+            this.mimeType = mimeType;
+            this.converter = converter;
+        }
+
+        @Override void apply(RequestParams requestParams, Object value) {
+            if (requestParams.body == null) {
+                requestParams.body = value;
+                requestParams.mimeType = mimeType;
+                requestParams.bodyConverter = converter;
+            }
+        }
+    }
+
+    static final class ProgressHandler extends ParameterHandler {
+        @Override void apply(RequestParams requestParams, Object value) {
+            requestParams.progressListener = (QsProgressListener) value;
+        }
+    }
+
+    static final class FormBodyHandler extends ParameterHandler {
+        @Override void apply(RequestParams requestParams, Object value) {
+            requestParams.formBody = value;
+        }
+    }
+
+    static final class Builder {
+        final Method                  method;
+        final List<Converter.Factory> converterFactories;
+        final Object                  requestTag;
+        String               requestType;
+        String               path;
+        String               terminal;
+        boolean              isQsCall;
+        boolean              isStream;
+        Type                 resultType;
+        Class<?>             returnType;
+        String[]             streamPath;
+        int                  streamChunkSize;
+        Converter[]          responseConverters;
+        Converter            responseConverter;
+        String               accept;
+        Class<? extends Converter.Factory> codec;
+        ParameterHandler[]   parameterHandlers;
+        long                 cacheMaxAge = -1;
+        long                 cacheStale;
+        Cache                cache;
+        boolean              singleFlight;
+        RetryPolicy          retryPolicy;
+        PriorityType         priority;
+        Offline              offline;
+        ChunkedUpload        chunkedUpload;
+        Compress             compress;
+        Hedge                hedge;
+        Type                 bodyType;
+
+        Builder(Method method, List<Converter.Factory> converterFactories, Object requestTag) {
+            this.method = method;
+            this.converterFactories = converterFactories;
+            this.requestTag = requestTag;
+        }
+
+        ServiceMethod build() {
+            Annotation[] annotations = method.getAnnotations();
+            if (annotations.length < 1) {
+                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "Annotation error ... the method " + method.getName() + "must be have a annotation for (@GET @POST @PUT)");
+            }
+            for (Annotation annotation : annotations) {
+                parseMethodAnnotation(annotation);
+            }
+            if (requestType == null) {
+                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "Annotation error... the method:" + method.getName() + "create(Object.class) the method must has an annotation, such as:@PUT @POST or @GET...");
+            }
+            if (TextUtils.isEmpty(path)) {
+                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "url path error... method:" + method.getName() + "  path is null...");
+            }
+            if (!path.startsWith("/")) {
+                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "url path error... method:" + method.getName() + "  path=" + path + "  (path is not start with '/')");
+            }
+
+            Annotation[][] parameterAnnotations = method.getParameterAnnotations();//参数可以有多个注解，但这里是不允许的
+            Type[] parameterTypes = method.getGenericParameterTypes();
+            parameterHandlers = new ParameterHandler[parameterAnnotations.length];
+            for (int i = 0; i < parameterAnnotations.length; i++) {
+                parameterHandlers[i] = parseParameter(parameterAnnotations[i], parameterTypes[i]);
+            }
+
+            parseReturnType();
+            if (codec != null && responseConverter != null) {
+                MediaType contentType = responseConverter.contentType();
+                if (contentType != null) accept = contentType.toString();
+            }
+            if (cache != null) parseCache();
+            if (offline != null) parseOffline();
+            if (chunkedUpload != null) parseChunkedUpload();
+            if (hedge != null) parseHedge();
+            return new ServiceMethod(this);
+        }
+
+        /**
+         * 返回值为QsCall&lt;T&gt;时按T解析响应体，QsStream&lt;T&gt;时按数组元素T分块解析，T可以是泛型
+         */
+        private void parseReturnType() {
+            resultType = method.getGenericReturnType();
+            returnType = method.getReturnType();
+            if (returnType == QsCall.class || returnType == QsStream.class) {
+                isQsCall = returnType == QsCall.class;
+                isStream = returnType == QsStream.class;
+                String wrapper = returnType.getSimpleName();
+                if (!(resultType instanceof ParameterizedType)) {
+                    throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "return type error... method:" + method.getName() + " " + wrapper + " must declare a result type, such as " + wrapper + "<Model>");
+                }
+                resultType = ((ParameterizedType) resultType).getActualTypeArguments()[0];
+                if (resultType instanceof WildcardType) resultType = ((WildcardType) resultType).getUpperBounds()[0];
+                returnType = TypeToken.get(resultType).getRawType();
+                if (returnType == Void.class) {
+                    returnType = void.class;
+                    resultType = void.class;
+                }
+            }
+            if (hasTypeVariable(resultType)) {
+                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "return type error... method:" + method.getName() + " return type can not contain type variable, current:" + resultType);
+            }
+            if (isStream) {
+                if (returnType == void.class || returnType == Response.class) {
+                    throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "return type error... method:" + method.getName() + " QsStream not support " + returnType.getSimpleName());
+                }
+                StreamArray streamArray = method.getAnnotation(StreamArray.class);
+                String arrayPath = streamArray == null ? "" : streamArray.path();
+                streamPath = TextUtils.isEmpty(arrayPath) ? new String[0] : arrayPath.split("\\.");
+                streamChunkSize = streamArray == null ? 20 : Math.max(1, streamArray.chunkSize());
+                return;
+            }
+            if (returnType != void.class && returnType != Response.class) {
+                List<Converter> converters = new ArrayList<>();
+                for (Converter.Factory factory : converterFactories) {
+                    Converter converter = factory.create(resultType, method.getAnnotations());
+                    if (converter != null) converters.add(converter);
+                }
+                if (converters.isEmpty()) {
+                    throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "return type error... method:" + method.getName() + " no converter for " + returnType.getName());
+                }
+                responseConverters = converters.toArray(new Converter[converters.size()]);
+                Converter preferred = codec == null ? null : findConverter(converterFactories, resultType);
+                responseConverter = preferred != null ? preferred : responseConverters[0];
+            }
+        }
+
+        private static boolean hasTypeVariable(Type type) {
+            if (type instanceof TypeVariable) return true;
+            if (type instanceof GenericArrayType) return hasTypeVariable(((GenericArrayType) type).getGenericComponentType());
+            if (type instanceof WildcardType) return hasTypeVariable(((WildcardType) type).getUpperBounds()[0]);
+            if (type instanceof ParameterizedType) {
+                for (Type argument : ((ParameterizedType) type).getActualTypeArguments()) {
+                    if (hasTypeVariable(argument)) return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @Codec指定的编解码器，未指定时返回null
+         */
+        private Converter findConverter(List<Converter.Factory> factories, Type type) {
+            if (codec == null) return null;
+            for (Converter.Factory factory : factories) {
+                if (codec.isInstance(factory)) {
+                    Converter converter = factory.create(type, method.getAnnotations());
+                    if (converter == null) {
+                        throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "Annotation error... the method:" + method.getName() + " @Codec(" + codec.getSimpleName() + ") not support " + type);
+                    }
+                    return converter;
+                }
+            }
+            throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "Annotation error... the method:" + method.getName() + " @Codec(" + codec.getSimpleName() + ") is not registered in HttpAdapter");
+        }
+
+        /**
+         * @Body的编解码器，String、File、byte[]直接作为请求体，不需要编码
+         */
+        private Converter bodyConverter(Type type) {
+            if (type == String.class || type == File.class || type == byte[].class) return null;
+            Converter preferred = findConverter(converterFactories, type);
+            if (preferred != null) return preferred;
+            for (Converter.Factory factory : converterFactories) {
+                Converter converter = factory.create(type, method.getAnnotations());
+                if (converter != null) return converter;
+            }
+            throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "params error method:" + method.getName() + " no converter for @Body type " + type);
+        }
+
+        private void parseMethodAnnotation(Annotation annotation) {
+            if (annotation instanceof TERMINAL) {
+                terminal = ((TERMINAL) annotation).value();
+            } else if (annotation instanceof POST) {
+                setRequestType("POST", ((POST) annotation).value());
+            } else if (annotation instanceof GET) {
+                setRequestType("GET", ((GET) annotation).value());
+            } else if (annotation instanceof PUT) {
+                setRequestType("PUT", ((PUT) annotation).value());
+            } else if (annotation instanceof DELETE) {
+                setRequestType("DELETE", ((DELETE) annotation).value());
+            } else if (annotation instanceof HEAD) {
+                setRequestType("HEAD", ((HEAD) annotation).value());
+            } else if (annotation instanceof PATCH) {
+                setRequestType("PATCH", ((PATCH) annotation).value());
+            } else if (annotation instanceof Cache) {
+                cache = (Cache) annotation;
+            } else if (annotation instanceof SingleFlight) {
+                singleFlight = true;
+            } else if (annotation instanceof Codec) {
+                codec = ((Codec) annotation).value();
+            } else if (annotation instanceof Compress) {
+                compress = (Compress) annotation;
+                if (compress.minSize() < 0) {
+                    throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "Annotation error... the method:" + method.getName() + " @Compress minSize can not be negative");
+                }
+            } else if (annotation instanceof ChunkedUpload) {
+                chunkedUpload = (ChunkedUpload) annotation;
+            } else if (annotation instanceof Hedge) {
+                hedge = (Hedge) annotation;
+            } else if (annotation instanceof Offline) {
+                offline = (Offline) annotation;
+            } else if (annotation instanceof Priority) {
+                priority = ((Priority) annotation).value();
+            } else if (annotation instanceof Retry) {
+                Retry retry = (Retry) annotation;
+                if (retry.times() < 0 || retry.backoffMs() < 0 || retry.maxBackoffMs() < 0) {
+                    throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "Annotation error... the method:" + method.getName() + " @Retry times and backoff can not be negative");
+                }
+                if (retry.times() > 0) retryPolicy = new RetryPolicy(retry);
+            }
+        }
+
+        private void parseCache() {
+            if (isStream) {
+                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "Annotation error... the method:" + method.getName() + " @Cache not support QsStream");
+            }
+            if (!"GET".equals(requestType)) {
+                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "Annotation error... the method:" + method.getName() + " @Cache only support @GET");
+            }
+            if (responseConverters == null) {
+                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "Annotation error... the method:" + method.getName() + " @Cache not support return type " + returnType.getSimpleName());
+            }
+            if (cache.maxAge() < 0 || cache.staleWhileRevalidate() < 0) {
+                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "Annotation error... the method:" + method.getName() + " @Cache maxAge and staleWhileRevalidate can not be negative");
+            }
+            cacheMaxAge = TimeUnit.SECONDS.toMillis(cache.maxAge());
+            cacheStale = TimeUnit.SECONDS.toMillis(cache.staleWhileRevalidate());
+        }
+
+        /**
+         * 离线请求在网络恢复后才真正发出，调用方拿不到响应，所以只支持没有返回值的写请求
+         */
+        private void parseOffline() {
+            if (!hasBody(requestType)) {
+                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "Annotation error... the method:" + method.getName() + " @Offline not support @" + requestType);
+            }
+            if (isStream || returnType != void.class) {
+                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "Annotation error... the method:" + method.getName() + " @Offline only support void or QsCall<Void>");
+            }
+            if (TextUtils.isEmpty(offline.idempotencyHeader())) {
+                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "Annotation error... the method:" + method.getName() + " @Offline idempotencyHeader is empty");
+            }
+        }
+
+        private void parseChunkedUpload() {
+            if (!hasBody(requestType) || bodyType != File.class) {
+                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "Annotation error... the method:" + method.getName() + " @ChunkedUpload need a @Body File param");
+            }
+            if (offline != null || isStream) {
+                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "Annotation error... the method:" + method.getName() + " @ChunkedUpload not support @Offline or QsStream");
+            }
+            if (chunkedUpload.chunkSize() <= 0 || chunkedUpload.parallel() <= 0 || TextUtils.isEmpty(chunkedUpload.sessionHeader())) {
+                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "Annotation error... the method:" + method.getName() + " @ChunkedUpload chunkSize and parallel must be positive");
+            }
+        }
+
+        /**
+         * 对冲会让同一个请求发出两次，只允许幂等的读请求
+         */
+        private void parseHedge() {
+            if (!"GET".equals(requestType) && !"HEAD".equals(requestType)) {
+                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "Annotation error... the method:" + method.getName() + " @Hedge only support @GET or @HEAD");
+            }
+            if (hedge.percentile() <= 0 || hedge.percentile() >= 1 || hedge.budget() < 0 || hedge.minSamples() < 1) {
+                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "Annotation error... the method:" + method.getName() + " @Hedge percentile must be in (0, 1), budget can not be negative and minSamples must be positive");
+            }
+        }
+
+        private void setRequestType(String requestType, String path) {
+            if (this.requestType != null) {
+                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "Annotation error... the method:" + method.getName() + " only one of @GET @POST @PUT @DELETE @HEAD @PATCH is allowed");
+            }
+            this.requestType = requestType;
+            this.path = path;
+        }
+
+        /**
+         * 每个参数有且仅有一个注解
+         */
+        private ParameterHandler parseParameter(Annotation[] annotationArr, Type type) {
+            if (annotationArr.length != 1) {
+                throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "params error method:" + method.getName() + "  params have to have one annotation, such as @Query @Path");
+            }
+            Annotation annotation = annotationArr[0];
+            if (annotation instanceof Body) {
+                String mimeType = ((Body) annotation).mimeType();
+                if (TextUtils.isEmpty(mimeType)) {
+                    throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "request body exception ... methos " + method.getName() + " the annotaiton @Body not have mimeType value");
+                }
+                bodyType = type;
+                return new BodyHandler(mimeType, bodyConverter(type));
+            } else if (annotation instanceof Query) {
+                return new QueryHandler(((Query) annotation).value());
+            } else if (annotation instanceof Path) {
+                return new PathHandler();
+            } else if (annotation instanceof FormBody) {
+                return new FormBodyHandler();
+            } else if (annotation instanceof Progress) {
+                if (type != QsProgressListener.class) {
+                    throw new QsException(QsExceptionType.UNEXPECTED, requestTag, "params error method:" + method.getName() + " @Progress only support QsProgressListener");
+                }
+                return new ProgressHandler();
+            }
+            return null;
+        }
+    }
+}
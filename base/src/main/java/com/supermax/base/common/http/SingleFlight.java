@@ -0,0 +1,154 @@
+package com.supermax.base.common.http;
+
+import com.supermax.base.common.exception.QsException;
+import com.supermax.base.common.exception.QsExceptionType;
+import com.supermax.base.common.log.L;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import okhttp3.FormBody;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 15:46
+ * @Description 相同请求合并执行，第一个调用方发起网络请求，之后的调用方只等待结果
+ * 网络请求不属于任何一个调用方，某个调用方取消时只移除它自己，所有调用方都取消后才取消网络请求
+ */
+final class SingleFlight {
+    private static final String TAG = "SingleFlight";
+
+    private final HttpAdapter                        adapter;
+    private final ConcurrentHashMap<String, Flight>  flights = new ConcurrentHashMap<>();
+
+    SingleFlight(HttpAdapter adapter) {
+        this.adapter = adapter;
+    }
+
+    /**
+     * 请求合并的key，无法合并时返回null
+     * 只合并没有请求体和表单请求体的请求，计算key不会触发序列化、读取文件或上传进度回调
+     */
+    static String key(ServiceMethod serviceMethod, Request request) {
+        RequestBody body = request.body();
+        if (body != null && !(body instanceof FormBody)) return null;
+        StringBuilder builder = new StringBuilder();
+        builder.append(serviceMethod.resultTypeKey).append('\n');
+        builder.append(request.method()).append(' ').append(request.url()).append('\n');
+        builder.append(request.headers().toString());
+        if (body != null) {
+            FormBody formBody = (FormBody) body;
+            for (int i = 0, size = formBody.size(); i < size; i++) {
+                builder.append(formBody.encodedName(i)).append('=').append(formBody.encodedValue(i)).append('&');
+            }
+        }
+        return builder.toString();
+    }
+
+    <T> void execute(String key, HttpCall<T> httpCall, Request request, HttpCache.Entry cacheEntry, QsCallback<T> callback) {
+        Waiter waiter = new Waiter(httpCall, callback);
+        while (true) {
+            Flight flight = flights.get(key);
+            if (flight != null) {
+                if (flight.add(waiter)) {
+                    L.i(TAG, "method:" + httpCall.serviceMethod.methodName + " join in-flight request, requestTag:" + httpCall.requestTag);
+                    return;
+                }
+                flights.remove(key, flight);
+                continue;
+            }
+            Flight newFlight = new Flight(key);
+            newFlight.add(waiter);
+            if (flights.putIfAbsent(key, newFlight) == null) {
+                newFlight.launch(httpCall, request, cacheEntry);
+                return;
+            }
+        }
+    }
+
+    final class Flight implements QsCallback<Object> {
+        private final String       key;
+        private final List<Waiter> waiters = new ArrayList<>();
+        private       HttpCall<?>  networkCall;
+        private       boolean      done;
+
+        Flight(String key) {
+            this.key = key;
+        }
+
+        synchronized boolean add(Waiter waiter) {
+            if (done) return false;
+            waiters.add(waiter);
+            waiter.httpCall.flight = this;
+            return true;
+        }
+
+        void launch(HttpCall<?> httpCall, Request request, HttpCache.Entry cacheEntry) {
+            HttpCall<Object> call = new HttpCall<>(adapter, httpCall.serviceMethod, httpCall.args, null, null);
+            call.httpBuilder = httpCall.httpBuilder;
+            call.priority = httpCall.priority;
+            synchronized (this) {
+                networkCall = call;
+            }
+            adapter.sendRequest(call, request, cacheEntry, this);
+        }
+
+        void remove(HttpCall<?> httpCall) {
+            Waiter removed = null;
+            HttpCall<?> callToCancel = null;
+            synchronized (this) {
+                if (done) return;
+                for (int i = 0; i < waiters.size(); i++) {
+                    if (waiters.get(i).httpCall == httpCall) {
+                        removed = waiters.remove(i);
+                        break;
+                    }
+                }
+                if (removed != null && waiters.isEmpty()) {
+                    done = true;
+                    callToCancel = networkCall;
+                }
+            }
+            if (removed == null) return;
+            if (callToCancel != null) {
+                flights.remove(key, this);
+                callToCancel.cancel();
+            }
+            removed.callback.onFailure(new QsException(QsExceptionType.CANCEL, httpCall.requestTag, "method:" + httpCall.serviceMethod.methodName + " canceled"));
+        }
+
+        @Override public void onSuccess(Object result) {
+            for (Waiter waiter : finish()) {
+                waiter.callback.onSuccess(result);
+            }
+        }
+
+        @Override public void onFailure(QsException exception) {
+            for (Waiter waiter : finish()) {
+                waiter.callback.onFailure(new QsException(exception.getExceptionType(), waiter.httpCall.requestTag, exception.getMessage()));
+            }
+        }
+
+        private List<Waiter> finish() {
+            flights.remove(key, this);
+            synchronized (this) {
+                done = true;
+                return new ArrayList<>(waiters);
+            }
+        }
+    }
+
+    private static final class Waiter {
+        final HttpCall<?>         httpCall;
+        final QsCallback<Object>  callback;
+
+        @SuppressWarnings("unchecked")
+        Waiter(HttpCall<?> httpCall, QsCallback<?> callback) {
+            this.httpCall = httpCall;
+            this.callback = (QsCallback<Object>) callback;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.supermax.base.common.http;
+
+import android.text.TextUtils;
+
+import com.supermax.base.common.exception.QsException;
+import com.supermax.base.common.exception.QsExceptionType;
+import com.supermax.base.common.log.L;
+import com.supermax.base.common.utils.QsHelper;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.net.ssl.SSLHandshakeException;
+
+import okhttp3.Request;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/19 00:00
+ * @Description 一组互为镜像的terminal，每个terminal有自己的熔断器
+ * ordered：按添加顺序优先使用靠前的可用terminal；weighted：在可用的terminal中按权重随机选择
+ * 幂等的请求(GET、HEAD、PUT、DELETE、OPTIONS或带@Offline幂等键)发生IO异常或5xx时立即换下一个可用的terminal重发
+ * 其他请求可能已经到达服务端，只在建立连接失败时换terminal；所有terminal都熔断时直接失败，不再等待超时
+ * 熔断状态保存在对象里，应当全局只创建一次，在QsApplication.initHttpAdapter中通过HttpBuilder.setTerminalGroup设置
+ */
+public final class TerminalGroup {
+    private static final String TAG = "TerminalGroup";
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * 熔断状态变化回调，在主线程执行
+     */
+    public interface Listener {
+        void onStateChanged(String terminal, State oldState, State newState);
+    }
+
+    /**
+     * 某个terminal当前的熔断状态和窗口内的统计
+     */
+    public static final class TerminalState {
+        public final String terminal;
+        public final State  state;
+        public final int    requests;
+        public final float  failureRate;
+        public final float  slowRate;
+
+        TerminalState(String terminal, State state, int requests, float failureRate, float slowRate) {
+            this.terminal = terminal;
+            this.state = state;
+            this.requests = requests;
+            this.failureRate = failureRate;
+            this.slowRate = slowRate;
+        }
+
+        @Override public String toString() {
+            return terminal + " " + state + " requests=" + requests + " failureRate=" + failureRate + " slowRate=" + slowRate;
+        }
+    }
+
+    private final boolean                             weighted;
+    private final List<CircuitBreaker>                breakers  = new CopyOnWriteArrayList<>();
+    private final CopyOnWriteArrayList<Listener>      listeners = new CopyOnWriteArrayList<>();
+    private final Random                              random    = new Random();
+
+    long  windowMs             = 10000;
+    int   minRequests          = 5;
+    float failureRateThreshold = 0.5f;
+    long  slowCallMs           = 3000;
+    float slowRateThreshold    = 0.8f;
+    long  openMs               = 5000;
+    long  maxOpenMs            = 60000;
+
+    private TerminalGroup(boolean weighted) {
+        this.weighted = weighted;
+    }
+
+    public static TerminalGroup ordered(String... terminals) {
+        TerminalGroup group = new TerminalGroup(false);
+        for (String terminal : terminals) {
+            group.add(terminal, 1);
+        }
+        return group;
+    }
+
+    public static TerminalGroup weighted() {
+        return new TerminalGroup(true);
+    }
+
+    public TerminalGroup add(String terminal) {
+        return add(terminal, 1);
+    }
+
+    /**
+     * @param weight 只在weighted模式下生效
+     */
+    public TerminalGroup add(String terminal, int weight) {
+        if (TextUtils.isEmpty(terminal) || weight <= 0) {
+            throw new QsException(QsExceptionType.UNEXPECTED, null, "terminal is empty or weight <= 0...");
+        }
+        if (terminal.endsWith("/")) terminal = terminal.substring(0, terminal.length() - 1);
+        breakers.add(new CircuitBreaker(terminal, weight, this));
+        return this;
+    }
+
+    /**
+     * 滚动窗口内至少minRequests个请求，失败率达到failureRate时熔断
+     */
+    public TerminalGroup setFailureThreshold(long windowMs, int minRequests, float failureRate) {
+        this.windowMs = windowMs;
+        this.minRequests = minRequests;
+        this.failureRateThreshold = failureRate;
+        return this;
+    }
+
+    /**
+     * 耗时超过slowCallMs的请求比例达到slowRate时熔断
+     */
+    public TerminalGroup setSlowThreshold(long slowCallMs, float slowRate) {
+        this.slowCallMs = slowCallMs;
+        this.slowRateThreshold = slowRate;
+        return this;
+    }
+
+    /**
+     * 熔断后等待openMs进入半开状态，连续熔断时翻倍，最长maxOpenMs
+     */
+    public TerminalGroup setOpenDuration(long openMs, long maxOpenMs) {
+        this.openMs = openMs;
+        this.maxOpenMs = maxOpenMs;
+        return this;
+    }
+
+    public void addListener(Listener listener) {
+        if (listener != null) listeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public List<TerminalState> getStates() {
+        long now = System.currentTimeMillis();
+        List<TerminalState> states = new ArrayList<>(breakers.size());
+        for (CircuitBreaker breaker : breakers) {
+            states.add(breaker.snapshot(now));
+        }
+        return states;
+    }
+
+    /**
+     * 拼接url使用的terminal，保证缓存和请求合并的key不随故障转移变化
+     */
+    String primary() {
+        if (breakers.isEmpty()) throw new QsException(QsExceptionType.UNEXPECTED, null, "terminal group is empty...");
+        return breakers.get(0).terminal;
+    }
+
+    boolean hasAvailable(Collection<String> tried) {
+        long now = System.currentTimeMillis();
+        for (CircuitBreaker breaker : breakers) {
+            if (!tried.contains(breaker.terminal) && breaker.isAvailable(now)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 选择一个未尝试过且熔断器放行的terminal，没有时返回null
+     */
+    CircuitBreaker select(Collection<String> tried) {
+        long now = System.currentTimeMillis();
+        List<CircuitBreaker> candidates = new ArrayList<>(breakers.size());
+        for (CircuitBreaker breaker : breakers) {
+            if (!tried.contains(breaker.terminal) && breaker.isAvailable(now)) candidates.add(breaker);
+        }
+        while (!candidates.isEmpty()) {
+            CircuitBreaker breaker = weighted ? pickWeighted(candidates) : candidates.get(0);
+            if (breaker.tryAcquire(now)) return breaker;
+            candidates.remove(breaker);
+        }
+        return null;
+    }
+
+    private CircuitBreaker pickWeighted(List<CircuitBreaker> candidates) {
+        int total = 0;
+        for (CircuitBreaker breaker : candidates) {
+            total += breaker.weight;
+        }
+        int value;
+        synchronized (random) {
+            value = random.nextInt(total);
+        }
+        for (CircuitBreaker breaker : candidates) {
+            value -= breaker.weight;
+            if (value < 0) return breaker;
+        }
+        return candidates.get(candidates.size() - 1);
+    }
+
+    /**
+     * 请求重发不会产生副作用，失败后可以换terminal
+     */
+    static boolean isReplayable(Request request, String idempotencyHeader) {
+        if (idempotencyHeader != null && request.header(idempotencyHeader) != null) return true;
+        switch (request.method()) {
+            case "GET":
+            case "HEAD":
+            case "PUT":
+            case "DELETE":
+            case "OPTIONS":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 连接还没有建立，请求一定没有发出
+     */
+    static boolean isConnectFailure(IOException e) {
+        return e instanceof ConnectException || e instanceof NoRouteToHostException || e instanceof UnknownHostException
+                || e instanceof SSLHandshakeException;
+    }
+
+    /**
+     * 把请求url的from前缀替换为to
+     */
+    static Request rewrite(Request request, String from, String to) {
+        if (from == null || from.equals(to)) return request;
+        String url = request.url().toString();
+        if (!url.startsWith(from)) return request;
+        return request.newBuilder().url(to + url.substring(from.length())).build();
+    }
+
+    void onStateChanged(final String terminal, final State oldState, final State newState) {
+        L.i(TAG, "terminal:" + terminal + " " + oldState + " -> " + newState);
+        if (listeners.isEmpty()) return;
+        QsHelper.getInstance().getThreadHelper().getMainThread().execute(new Runnable() {
+            @Override public void run() {
+                for (Listener listener : listeners) {
+                    listener.onStateChanged(terminal, oldState, newState);
+                }
+            }
+        });
+    }
+}
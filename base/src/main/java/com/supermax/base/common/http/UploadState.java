@@ -0,0 +1,119 @@
+package com.supermax.base.common.http;
+
+import com.supermax.base.common.log.L;
+import com.supermax.base.common.utils.StreamCloseUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.Okio;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/19 14:40
+ * @Description 分块上传已确认分块的位图，文件内容：分块数 + 位图
+ * 分块数不一致或文件损坏时从头上传；不是线程安全的，由HttpUpload在自己的锁内访问
+ */
+final class UploadState {
+    private static final String TAG = "UploadState";
+
+    private final File      file;
+    private final int       chunkCount;
+    private final boolean[] acked;
+    private       int       ackedCount;
+
+    UploadState(File file, int chunkCount) {
+        this.file = file;
+        this.chunkCount = chunkCount;
+        this.acked = read();
+        for (boolean chunkAcked : acked) {
+            if (chunkAcked) ackedCount++;
+        }
+    }
+
+    boolean isAcked(int index) {
+        return acked[index];
+    }
+
+    /**
+     * 需要上传的分块；全部已确认时重传最后一块，用它的响应作为接口的返回值
+     */
+    ArrayDeque<Integer> pending() {
+        ArrayDeque<Integer> pending = new ArrayDeque<>();
+        for (int i = 0; i < chunkCount; i++) {
+            if (!acked[i]) pending.add(i);
+        }
+        if (pending.isEmpty()) {
+            int last = chunkCount - 1;
+            acked[last] = false;
+            ackedCount--;
+            pending.add(last);
+        }
+        return pending;
+    }
+
+    /**
+     * @return 是否全部分块都已确认
+     */
+    boolean ack(int index) {
+        if (!acked[index]) {
+            acked[index] = true;
+            ackedCount++;
+        }
+        return ackedCount == chunkCount;
+    }
+
+    void delete() {
+        if (file.exists() && !file.delete()) L.e(TAG, "delete upload state failed:" + file.getPath());
+    }
+
+    private boolean[] read() {
+        boolean[] state = new boolean[chunkCount];
+        if (!file.exists()) return state;
+        BufferedSource source = null;
+        try {
+            source = Okio.buffer(Okio.source(file));
+            if (source.readInt() != chunkCount) return state;
+            byte[] bits = source.readByteArray((chunkCount + 7) / 8);
+            for (int i = 0; i < chunkCount; i++) {
+                state[i] = (bits[i / 8] & (1 << (i % 8))) != 0;
+            }
+        } catch (IOException e) {
+            L.e(TAG, "read upload state failed... " + e.getMessage());
+            Arrays.fill(state, false);
+        } finally {
+            StreamCloseUtils.close(source);
+        }
+        return state;
+    }
+
+    /**
+     * 先写临时文件再替换，写到一半被杀不会留下损坏的位图
+     */
+    void save() {
+        File directory = file.getParentFile();
+        if (!directory.exists() && !directory.mkdirs()) return;
+        File tmpFile = new File(file.getPath() + ".tmp");
+        BufferedSink sink = null;
+        try {
+            sink = Okio.buffer(Okio.sink(tmpFile));
+            sink.writeInt(chunkCount);
+            byte[] bits = new byte[(chunkCount + 7) / 8];
+            for (int i = 0; i < chunkCount; i++) {
+                if (acked[i]) bits[i / 8] |= 1 << (i % 8);
+            }
+            sink.write(bits);
+            sink.close();
+            sink = null;
+            if (!tmpFile.renameTo(file)) L.e(TAG, "rename upload state failed:" + file.getPath());
+        } catch (IOException e) {
+            L.e(TAG, "write upload state failed... " + e.getMessage());
+        } finally {
+            StreamCloseUtils.close(sink);
+        }
+    }
+}
@@ -23,6 +23,10 @@ public class L {
         enable = isLogOpen;
     }
 
+    public static boolean isEnable() {
+        return enable;
+    }
+
     public static void i(String tag, String message) {
         println(Log.INFO, tag, message);
     }
@@ -0,0 +1,82 @@
+package com.supermax.base.common.network;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 20:40
+ * @Description 网络状态快照，不可变
+ * equals只比较是否可用、是否计费和网络类型，带宽估算值频繁变化，不算作网络状态变化
+ */
+public final class NetworkState {
+    public static final int TRANSPORT_NONE     = 0;
+    public static final int TRANSPORT_WIFI     = 1;
+    public static final int TRANSPORT_CELLULAR = 2;
+    public static final int TRANSPORT_ETHERNET = 3;
+    public static final int TRANSPORT_OTHER    = 4;
+
+    static final NetworkState UNAVAILABLE = new NetworkState(false, false, TRANSPORT_NONE, -1, -1);
+
+    private final boolean available;
+    private final boolean metered;
+    private final int     transport;
+    private final int     downstreamKbps;
+    private final int     upstreamKbps;
+
+    NetworkState(boolean available, boolean metered, int transport, int downstreamKbps, int upstreamKbps) {
+        this.available = available;
+        this.metered = metered;
+        this.transport = transport;
+        this.downstreamKbps = downstreamKbps;
+        this.upstreamKbps = upstreamKbps;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * 是否按流量计费，通常为移动网络或热点
+     */
+    public boolean isMetered() {
+        return metered;
+    }
+
+    /**
+     * TRANSPORT_WIFI、TRANSPORT_CELLULAR等
+     */
+    public int getTransport() {
+        return transport;
+    }
+
+    /**
+     * 系统估算的下行带宽，Android 5.0以下或未知时为-1，变化时不会通知Listener
+     */
+    public int getDownstreamKbps() {
+        return downstreamKbps;
+    }
+
+    /**
+     * 系统估算的上行带宽，Android 5.0以下或未知时为-1，变化时不会通知Listener
+     */
+    public int getUpstreamKbps() {
+        return upstreamKbps;
+    }
+
+    @Override public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof NetworkState)) return false;
+        NetworkState that = (NetworkState) o;
+        return available == that.available && metered == that.metered && transport == that.transport;
+    }
+
+    @Override public int hashCode() {
+        int result = available ? 1 : 0;
+        result = 31 * result + (metered ? 1 : 0);
+        result = 31 * result + transport;
+        return result;
+    }
+
+    @Override public String toString() {
+        return "NetworkState{available=" + available + ", metered=" + metered + ", transport=" + transport
+                + ", downstreamKbps=" + downstreamKbps + ", upstreamKbps=" + upstreamKbps + "}";
+    }
+}
@@ -0,0 +1,201 @@
+package com.supermax.base.common.network;
+
+import android.annotation.SuppressLint;
+import android.annotation.TargetApi;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkInfo;
+import android.net.NetworkRequest;
+import android.os.Build;
+
+import com.supermax.base.common.log.L;
+import com.supermax.base.common.utils.QsHelper;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 20:45
+ * @Description 网络状态监听，只在网络变化时查询一次系统服务，平时直接读取缓存的快照
+ * Android 7.0及以上直接使用默认网络回调中的NetworkCapabilities
+ * Android 5.0~6.0收到NetworkCallback后重新查询，5.0以下使用CONNECTIVITY_ACTION广播
+ * 需要ACCESS_NETWORK_STATE权限
+ */
+public class NetworkStateMonitor {
+    private static final String TAG = "NetworkStateMonitor";
+
+    /**
+     * 网络状态变化回调，在主线程执行
+     */
+    public interface Listener {
+        void onNetworkStateChanged(NetworkState oldState, NetworkState newState);
+    }
+
+    private static volatile NetworkStateMonitor instance;
+
+    private final    Context                        context;
+    private final    ConnectivityManager            connectivityManager;
+    private final    CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile NetworkState                   state;
+
+    public static NetworkStateMonitor getInstance() {
+        if (instance == null) {
+            synchronized (NetworkStateMonitor.class) {
+                if (instance == null) instance = new NetworkStateMonitor(QsHelper.getInstance().getApplication());
+            }
+        }
+        return instance;
+    }
+
+    private NetworkStateMonitor(Context context) {
+        this.context = context.getApplicationContext();
+        this.connectivityManager = (ConnectivityManager) this.context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        this.state = queryState();
+        register();
+    }
+
+    /**
+     * 当前网络状态快照，不会发起系统调用
+     */
+    public NetworkState getState() {
+        return state;
+    }
+
+    public boolean isAvailable() {
+        return state.isAvailable();
+    }
+
+    public void addListener(Listener listener) {
+        if (listener != null) listeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private void register() {
+        if (connectivityManager == null) return;
+        try {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+                registerDefaultNetworkCallback();
+            } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+                registerNetworkCallback();
+            } else {
+                registerReceiver();
+            }
+        } catch (Exception e) {
+            L.e(TAG, "register network monitor failed... " + e.getMessage());
+        }
+    }
+
+    @SuppressLint("MissingPermission") @TargetApi(Build.VERSION_CODES.N)
+    private void registerDefaultNetworkCallback() {
+        connectivityManager.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+            @Override public void onCapabilitiesChanged(Network network, NetworkCapabilities capabilities) {
+                update(stateOf(capabilities));
+            }
+
+            @Override public void onLost(Network network) {
+                update(NetworkState.UNAVAILABLE);
+            }
+        });
+    }
+
+    @SuppressLint("MissingPermission") @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private void registerNetworkCallback() {
+        NetworkRequest request = new NetworkRequest.Builder().addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET).build();
+        connectivityManager.registerNetworkCallback(request, new ConnectivityManager.NetworkCallback() {
+            @Override public void onAvailable(Network network) {
+                update(queryState());
+            }
+
+            @Override public void onCapabilitiesChanged(Network network, NetworkCapabilities capabilities) {
+                update(queryState());
+            }
+
+            @Override public void onLost(Network network) {
+                update(queryState());
+            }
+        });
+    }
+
+    @SuppressWarnings("deprecation")
+    private void registerReceiver() {
+        context.registerReceiver(new BroadcastReceiver() {
+            @Override public void onReceive(Context context, Intent intent) {
+                update(queryState());
+            }
+        }, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
+    }
+
+    /**
+     * 只有带宽估算变化时静默更新快照，不通知、不打日志
+     */
+    private void update(final NetworkState newState) {
+        final NetworkState oldState = state;
+        state = newState;
+        if (newState.equals(oldState)) return;
+        L.i(TAG, "network state changed... " + newState);
+        if (listeners.isEmpty()) return;
+        QsHelper.getInstance().getThreadHelper().getMainThread().execute(new Runnable() {
+            @Override public void run() {
+                for (Listener listener : listeners) {
+                    listener.onNetworkStateChanged(oldState, newState);
+                }
+            }
+        });
+    }
+
+    @SuppressLint("MissingPermission") @SuppressWarnings("deprecation")
+    private NetworkState queryState() {
+        if (connectivityManager == null) return NetworkState.UNAVAILABLE;
+        try {
+            NetworkInfo info = connectivityManager.getActiveNetworkInfo();
+            if (info == null || !info.isConnected()) return NetworkState.UNAVAILABLE;
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+                NetworkCapabilities capabilities = connectivityManager.getNetworkCapabilities(connectivityManager.getActiveNetwork());
+                if (capabilities != null) return stateOf(capabilities);
+            }
+            return new NetworkState(true, connectivityManager.isActiveNetworkMetered(), transportOf(info.getType()), -1, -1);
+        } catch (Exception e) {
+            L.e(TAG, "query network state failed... " + e.getMessage());
+            return NetworkState.UNAVAILABLE;
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private static NetworkState stateOf(NetworkCapabilities capabilities) {
+        boolean available = capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET);
+        boolean metered = !capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED);
+        int transport;
+        if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_WIFI)) {
+            transport = NetworkState.TRANSPORT_WIFI;
+        } else if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_CELLULAR)) {
+            transport = NetworkState.TRANSPORT_CELLULAR;
+        } else if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_ETHERNET)) {
+            transport = NetworkState.TRANSPORT_ETHERNET;
+        } else {
+            transport = NetworkState.TRANSPORT_OTHER;
+        }
+        return new NetworkState(available, metered, transport, capabilities.getLinkDownstreamBandwidthKbps(), capabilities.getLinkUpstreamBandwidthKbps());
+    }
+
+    @SuppressWarnings("deprecation")
+    private static int transportOf(int type) {
+        switch (type) {
+            case ConnectivityManager.TYPE_WIFI:
+                return NetworkState.TRANSPORT_WIFI;
+            case ConnectivityManager.TYPE_MOBILE:
+                return NetworkState.TRANSPORT_CELLULAR;
+            case ConnectivityManager.TYPE_ETHERNET:
+                return NetworkState.TRANSPORT_ETHERNET;
+            default:
+                return NetworkState.TRANSPORT_OTHER;
+        }
+    }
+}
@@ -14,14 +14,23 @@ import java.lang.reflect.Method;
 public class HttpHandler implements InvocationHandler{
     private final HttpAdapter adapter;
     private final Object      tag;
+    private final Object      group;
 
     public HttpHandler(HttpAdapter adapter, Object tag) {
+        this(adapter, tag, null);
+    }
+
+    /**
+     * @param group 请求分组，可以用HttpAdapter.cancelRequestGroup一次取消整组请求
+     */
+    public HttpHandler(HttpAdapter adapter, Object tag, Object group) {
         this.adapter = adapter;
         this.tag = tag;
+        this.group = group;
     }
 
     @Override public Object invoke(Object proxy, Method method, final Object[] args) throws Throwable {
         L.i("HttpHandler", "网络请求代理方法：" + method.getName() + "  requestTag:" + tag);
-        return adapter.startRequest(method, args, tag);
+        return adapter.startRequest(method, args, tag, group);
     }
 }
@@ -0,0 +1,113 @@
+package com.supermax.base.common.threadpoll;
+
+import com.supermax.base.common.log.L;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/19 03:10
+ * @Description 按(owner, key)防抖和节流，每个槽位只保存最后一次提交的任务，被覆盖的任务直接丢弃
+ * 计时交给定时线程池，到期的任务在定时线程中交给调用方指定的线程池，不在这里执行耗时操作
+ * 槽位在没有待执行任务时移除，cancel时丢弃owner名下所有待执行的任务
+ * 到期的任务被目标线程池拒绝时打印日志，不会在定时线程池里悄悄丢失
+ */
+final class CallLimiter {
+    private final Map<Object, Map<Object, Slot>> slots = new IdentityHashMap<>();
+
+    /**
+     * 每次提交都重新计时，delayMs内没有新的提交时执行最后一次提交的任务
+     */
+    void debounce(Object owner, Object key, long delayMs, Runnable task) {
+        synchronized (this) {
+            Slot slot = slot(owner, key, true);
+            slot.latest = task;
+            if (slot.timer != null) slot.timer.cancel(false);
+            slot.timer = schedule(owner, key, slot, ++slot.generation, delayMs, false);
+        }
+    }
+
+    /**
+     * 窗口外的提交立即执行并开启windowMs的窗口，窗口内只保留最后一次提交，窗口结束时执行并开启下一个窗口
+     */
+    void throttle(Object owner, Object key, long windowMs, Runnable task) {
+        synchronized (this) {
+            Slot slot = slot(owner, key, false);
+            if (slot != null) {
+                slot.latest = task;
+                return;
+            }
+            slot = slot(owner, key, true);
+            slot.timer = schedule(owner, key, slot, ++slot.generation, windowMs, true);
+        }
+        task.run();
+    }
+
+    void cancel(Object owner) {
+        Map<Object, Slot> removed;
+        synchronized (this) {
+            removed = slots.remove(owner);
+        }
+        if (removed == null) return;
+        for (Slot slot : removed.values()) {
+            if (slot.timer != null) slot.timer.cancel(false);
+        }
+    }
+
+    private ScheduledFuture<?> schedule(final Object owner, final Object key, final Slot slot, final long generation, final long delayMs, final boolean throttle) {
+        return QsThreadPollHelper.getInstance().getScheduledThreadPoll().schedule(new Runnable() {
+            @Override public void run() {
+                Runnable task;
+                synchronized (CallLimiter.this) {
+                    if (slot(owner, key, false) != slot || slot.generation != generation) return;
+                    task = slot.latest;
+                    slot.latest = null;
+                    if (throttle && task != null) {
+                        slot.timer = schedule(owner, key, slot, ++slot.generation, delayMs, true);
+                    } else {
+                        remove(owner, key);
+                    }
+                }
+                if (task == null) return;
+                try {
+                    task.run();
+                } catch (RejectedExecutionException e) {
+                    L.e("CallLimiter", "limited task of " + owner.getClass().getSimpleName() + " rejected... " + e.getMessage());
+                }
+            }
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private Slot slot(Object owner, Object key, boolean create) {
+        Map<Object, Slot> ownerSlots = slots.get(owner);
+        if (ownerSlots == null) {
+            if (!create) return null;
+            ownerSlots = new HashMap<>();
+            slots.put(owner, ownerSlots);
+        }
+        Slot slot = ownerSlots.get(key);
+        if (slot == null && create) {
+            slot = new Slot();
+            ownerSlots.put(key, slot);
+        }
+        return slot;
+    }
+
+    private void remove(Object owner, Object key) {
+        Map<Object, Slot> ownerSlots = slots.get(owner);
+        if (ownerSlots == null) return;
+        ownerSlots.remove(key);
+        if (ownerSlots.isEmpty()) slots.remove(owner);
+    }
+
+    private static final class Slot {
+        private Runnable           latest;
+        private ScheduledFuture<?> timer;
+        private long               generation;
+    }
+}
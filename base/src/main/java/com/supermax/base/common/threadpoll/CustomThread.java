@@ -9,13 +9,20 @@ import android.os.Process;
  */
 public class CustomThread extends Thread{
 
+    private final int threadPriority;
+
     public CustomThread(Runnable runnable, String name) {
+        this(runnable, name, Process.THREAD_PRIORITY_BACKGROUND);
+    }
+
+    public CustomThread(Runnable runnable, String name, int threadPriority) {
         super(runnable, name);
+        this.threadPriority = threadPriority;
     }
 
     @Override
     public void run() {
-        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+        Process.setThreadPriority(threadPriority);
         super.run();
     }
 }
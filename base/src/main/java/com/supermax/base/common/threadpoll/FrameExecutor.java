@@ -0,0 +1,73 @@
+package com.supermax.base.common.threadpoll;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.view.Choreographer;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/19 02:30
+ * @Description 按Choreographer帧合并的主线程执行器
+ * 任务先进入无锁队列，每帧在绘制前统一执行一次，同一帧内多次修改UI只触发一次布局和绘制
+ * 每帧最多执行budget时长，至少执行一个任务，剩下的留到下一帧
+ */
+public class FrameExecutor implements Executor, Choreographer.FrameCallback {
+    private static final long DEFAULT_BUDGET_MS = 8;
+
+    private static FrameExecutor frameExecutor = new FrameExecutor();
+
+    private final ConcurrentLinkedQueue<Runnable> queue     = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean                   scheduled = new AtomicBoolean();
+    private final Handler                         handler   = new Handler(Looper.getMainLooper());
+    private final Runnable                        postFrame = new Runnable() {
+        @Override public void run() {
+            Choreographer.getInstance().postFrameCallback(FrameExecutor.this);
+        }
+    };
+    private volatile long budgetNs = TimeUnit.MILLISECONDS.toNanos(DEFAULT_BUDGET_MS);
+
+    static FrameExecutor getInstance() {
+        return frameExecutor;
+    }
+
+    /**
+     * 每帧执行任务的时长上限，单位毫秒
+     */
+    public void setBudget(long budgetMs) {
+        budgetNs = TimeUnit.MILLISECONDS.toNanos(Math.max(1, budgetMs));
+    }
+
+    @Override public void execute(@NonNull Runnable command) {
+        queue.offer(command);
+        scheduleFrame();
+    }
+
+    @Override public void doFrame(long frameTimeNanos) {
+        long deadline = System.nanoTime() + budgetNs;
+        try {
+            Runnable task;
+            while ((task = queue.poll()) != null) {
+                task.run();
+                if (System.nanoTime() >= deadline) break;
+            }
+        } finally {
+            scheduled.set(false);
+            if (!queue.isEmpty()) scheduleFrame();
+        }
+    }
+
+    private void scheduleFrame() {
+        if (!scheduled.compareAndSet(false, true)) return;
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            postFrame.run();
+        } else {
+            handler.post(postFrame);
+        }
+    }
+}
@@ -2,18 +2,67 @@ package com.supermax.base.common.threadpoll;
 
 import com.supermax.base.mvp.model.QsConstants;
 
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 /**
  * @Author yinzh
  * @Date   2018/10/16 15:25
- * @Description
+ * @Description 排队的任务按优先级执行，普通Runnable按NORMAL处理
+ * IO密集任务，队列有容量上限，满了以后才扩容到maxPoolSize，见{@link LanePolicy}
  */
 public class HttpThreadPoll extends ThreadPoolExecutor{
 
-    HttpThreadPoll(int thradCount){
-        super(thradCount, thradCount, 0, TimeUnit.MICROSECONDS, new LinkedBlockingDeque<Runnable>(), ThreadUtils.generateThread(QsConstants.NAME_HTTP_THREAD, true));
+    HttpThreadPoll(LanePolicy policy){
+        super(policy.corePoolSize, policy.maxPoolSize, 0, TimeUnit.MILLISECONDS, new BoundedPriorityQueue(policy.queueCapacity), ThreadUtils.generateThread(QsConstants.NAME_HTTP_THREAD, true, policy.threadPriority));
+        policy.apply(this, QsConstants.NAME_HTTP_THREAD);
+    }
+
+    @Override public void execute(Runnable command) {
+        if (command instanceof PriorityRunnable) {
+            super.execute(command);
+        } else {
+            super.execute(new PriorityRunnable(command, null));
+        }
+    }
+
+    /**
+     * PriorityBlockingQueue没有容量限制，ThreadPoolExecutor只在offer返回false时扩容或拒绝
+     * 只有offer会增加元素，offer之间互斥即可保证不超过容量
+     */
+    static final class BoundedPriorityQueue extends PriorityBlockingQueue<Runnable> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        BoundedPriorityQueue(int capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override public synchronized boolean offer(Runnable runnable) {
+            return size() < capacity && super.offer(runnable);
+        }
+
+        @Override public int remainingCapacity() {
+            return Math.max(0, capacity - size());
+        }
+
+        /**
+         * 移除最后才会执行的任务给runnable腾出位置，runnable本身排在最后时不移除
+         *
+         * @return 被丢弃的任务，runnable排在最后时返回runnable，队列有空位时返回null
+         */
+        @SuppressWarnings("unchecked")
+        synchronized Runnable evictLast(Runnable runnable) {
+            if (size() < capacity) return null;
+            Runnable last = null;
+            for (Runnable queued : this) {
+                if (last == null || ((Comparable<Runnable>) queued).compareTo(last) > 0) last = queued;
+            }
+            if (last == null || ((Comparable<Runnable>) runnable).compareTo(last) > 0) return runnable;
+            remove(last);
+            return last;
+        }
     }
 }
@@ -0,0 +1,140 @@
+package com.supermax.base.common.threadpoll;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/19 02:50
+ * @Description 主线程空闲时执行的任务，适合推迟到首帧绘制之后的初始化工作
+ * 主线程MessageQueue空闲时通过IdleHandler按时间片执行，每片最多budget时长，至少执行一个任务
+ * 一片执行完还有任务时发一个空消息，让输入和绘制消息先处理，下次空闲再继续
+ * 每个任务有最长推迟时间，到期后不管主线程是否空闲都会执行；只保留一个到期消息，对应最早的到期时间，执行后按剩余任务重新设置
+ */
+public class IdleExecutor implements Executor, MessageQueue.IdleHandler {
+    private static final long DEFAULT_BUDGET_MS   = 5;
+    private static final long DEFAULT_DEADLINE_MS = 5000;
+
+    private static IdleExecutor idleExecutor = new IdleExecutor();
+
+    private final ConcurrentLinkedQueue<Task> queue      = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean               registered = new AtomicBoolean();
+    private final Handler                     handler    = new Handler(Looper.getMainLooper());
+    private final Runnable                    register   = new Runnable() {
+        @Override public void run() {
+            Looper.myQueue().addIdleHandler(IdleExecutor.this);
+        }
+    };
+    private final Runnable                    wakeUp     = new Runnable() {
+        @Override public void run() {
+        }
+    };
+    private final Runnable                    overdue    = new Runnable() {
+        @Override public void run() {
+            runOverdue();
+        }
+    };
+    private volatile long budgetMs = DEFAULT_BUDGET_MS;
+    /**
+     * 已发出的到期消息的执行时间，没有时为Long.MAX_VALUE，在this锁内访问
+     */
+    private          long armedAt  = Long.MAX_VALUE;
+
+    static IdleExecutor getInstance() {
+        return idleExecutor;
+    }
+
+    /**
+     * 每个时间片的时长上限，单位毫秒
+     */
+    public void setBudget(long budgetMs) {
+        this.budgetMs = Math.max(1, budgetMs);
+    }
+
+    @Override public void execute(@NonNull Runnable command) {
+        execute(command, DEFAULT_DEADLINE_MS);
+    }
+
+    /**
+     * @param deadlineMs 最长推迟时间，单位毫秒
+     */
+    public void execute(@NonNull Runnable command, long deadlineMs) {
+        long deadline = SystemClock.uptimeMillis() + Math.max(0, deadlineMs);
+        queue.offer(new Task(command, deadline));
+        arm(deadline);
+        if (registered.compareAndSet(false, true)) handler.post(register);
+    }
+
+    @Override public boolean queueIdle() {
+        long deadline = SystemClock.uptimeMillis() + budgetMs;
+        Task task;
+        while ((task = queue.poll()) != null) {
+            task.runnable.run();
+            if (SystemClock.uptimeMillis() >= deadline) break;
+        }
+        if (!queue.isEmpty()) {
+            handler.post(wakeUp);
+            return true;
+        }
+        registered.set(false);
+        if (!queue.isEmpty() && registered.compareAndSet(false, true)) return true;
+        disarmIfEmpty();
+        return false;
+    }
+
+    /**
+     * deadline早于已发出的到期消息时，替换为deadline
+     */
+    private synchronized void arm(long deadline) {
+        if (deadline >= armedAt) return;
+        handler.removeCallbacks(overdue);
+        handler.postAtTime(overdue, deadline);
+        armedAt = deadline;
+    }
+
+    private synchronized void disarmIfEmpty() {
+        if (!queue.isEmpty() || armedAt == Long.MAX_VALUE) return;
+        handler.removeCallbacks(overdue);
+        armedAt = Long.MAX_VALUE;
+    }
+
+    /**
+     * 只在主线程执行，出队也只发生在主线程；执行完到期的任务后按剩余任务中最早的到期时间重新设置
+     */
+    private void runOverdue() {
+        synchronized (this) {
+            armedAt = Long.MAX_VALUE;
+        }
+        long now = SystemClock.uptimeMillis();
+        long next = Long.MAX_VALUE;
+        Iterator<Task> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            Task task = iterator.next();
+            if (task.deadline <= now) {
+                iterator.remove();
+                task.runnable.run();
+            } else if (task.deadline < next) {
+                next = task.deadline;
+            }
+        }
+        if (next != Long.MAX_VALUE) arm(next);
+    }
+
+    private static final class Task {
+        private final Runnable runnable;
+        private final long     deadline;
+
+        Task(Runnable runnable, long deadline) {
+            this.runnable = runnable;
+            this.deadline = deadline;
+        }
+    }
+}
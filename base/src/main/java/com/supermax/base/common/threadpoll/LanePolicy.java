@@ -0,0 +1,211 @@
+package com.supermax.base.common.threadpoll;
+
+import android.os.Looper;
+import android.os.Process;
+
+import com.supermax.base.common.aspect.ThreadType;
+import com.supermax.base.common.exception.QsException;
+import com.supermax.base.common.exception.QsExceptionType;
+import com.supermax.base.common.log.L;
+import com.supermax.base.mvp.model.QsConstants;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/19 01:10
+ * @Description 线程池单条通道的配置：线程数、队列容量、空闲回收时间、队列满时的拒绝策略和线程优先级
+ * WORK为CPU密集通道，HTTP为IO密集通道，SINGLE_WORK为按key串行的通道（拒绝策略固定为ABORT）
+ * 核心线程空闲keepAliveMs后回收，空闲时不常驻线程；任务只有在队列满时才会扩容到maxPoolSize
+ * 队列满时默认抛出异常并打印日志，不会在提交任务的线程中执行
+ */
+public final class LanePolicy {
+
+    public enum RejectPolicy {
+        /**
+         * 抛出RejectedExecutionException
+         */
+        ABORT,
+        /**
+         * 在提交任务的线程执行，使提交方减速，串行通道使用会打乱顺序
+         * 提交方是主线程或定时线程时按ABORT处理，不阻塞界面和其他定时任务
+         */
+        CALLER_RUNS,
+        /**
+         * 丢弃新任务，通过submit提交的任务被取消
+         */
+        DISCARD,
+        /**
+         * 丢弃最早入队的任务；HTTP通道丢弃最后才会执行的任务，新任务排在最后时丢弃新任务
+         * 通过submit提交的任务被丢弃时取消
+         */
+        DISCARD_OLDEST
+    }
+
+    private static final int  CPU_COUNT          = Runtime.getRuntime().availableProcessors();
+    private static final long DEFAULT_KEEP_ALIVE = 30 * 1000;
+
+    final int    corePoolSize;
+    final int    maxPoolSize;
+    final int    queueCapacity;
+    long         keepAliveMs    = DEFAULT_KEEP_ALIVE;
+    RejectPolicy rejectPolicy   = RejectPolicy.ABORT;
+    int          threadPriority = Process.THREAD_PRIORITY_BACKGROUND;
+
+    public LanePolicy(int corePoolSize, int maxPoolSize, int queueCapacity) {
+        if (corePoolSize < 1 || maxPoolSize < corePoolSize || queueCapacity < 1) {
+            throw new QsException(QsExceptionType.UNEXPECTED, null, "lane policy error... corePoolSize:" + corePoolSize + " maxPoolSize:" + maxPoolSize + " queueCapacity:" + queueCapacity);
+        }
+        this.corePoolSize = corePoolSize;
+        this.maxPoolSize = maxPoolSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * 小于等于0时核心线程常驻
+     */
+    public LanePolicy setKeepAlive(long keepAliveMs) {
+        this.keepAliveMs = keepAliveMs;
+        return this;
+    }
+
+    public LanePolicy setRejectPolicy(RejectPolicy rejectPolicy) {
+        if (rejectPolicy != null) this.rejectPolicy = rejectPolicy;
+        return this;
+    }
+
+    /**
+     * @param threadPriority android.os.Process.THREAD_PRIORITY_XXX
+     */
+    public LanePolicy setThreadPriority(int threadPriority) {
+        this.threadPriority = threadPriority;
+        return this;
+    }
+
+    /**
+     * 按CPU核数计算的默认配置
+     * WORK：CPU核数-1个线程，给主线程和渲染线程留一个核，后台优先级
+     * HTTP：线程大部分时间在等待IO，核心线程为CPU核数的2倍，4到16个，队列满时再扩容一倍；
+     * 优先级比WORK高一级，IO返回后能及时被调度，不会排在计算任务后面
+     * SINGLE_WORK：所有key共用2到4个线程，同一个key串行，保证任务顺序
+     * 所有通道队列满时都抛出异常
+     */
+    static LanePolicy defaultOf(ThreadType type) {
+        switch (type) {
+            case WORK:
+                int cpu = Math.max(2, CPU_COUNT - 1);
+                return new LanePolicy(cpu, cpu, 128);
+            case HTTP:
+                int io = Math.max(4, Math.min(CPU_COUNT * 2, 16));
+                return new LanePolicy(io, io * 2, 256).setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND + Process.THREAD_PRIORITY_MORE_FAVORABLE);
+            case SINGLE_WORK:
+                int serial = Math.max(2, Math.min(CPU_COUNT, 4));
+                return new LanePolicy(serial, serial, 1024).setKeepAlive(60 * 1000);
+            default:
+                throw new QsException(QsExceptionType.UNEXPECTED, null, "lane policy error... " + type + " is not a thread poll");
+        }
+    }
+
+    /**
+     * 线程数、空闲回收和拒绝策略可以在运行中修改，队列容量和线程优先级只在创建线程池时生效
+     */
+    void apply(ThreadPoolExecutor executor, String name) {
+        if (maxPoolSize >= executor.getCorePoolSize()) {
+            executor.setMaximumPoolSize(maxPoolSize);
+            executor.setCorePoolSize(corePoolSize);
+        } else {
+            executor.setCorePoolSize(corePoolSize);
+            executor.setMaximumPoolSize(maxPoolSize);
+        }
+        if (keepAliveMs > 0) {
+            executor.setKeepAliveTime(keepAliveMs, TimeUnit.MILLISECONDS);
+            executor.allowCoreThreadTimeOut(true);
+        } else {
+            executor.allowCoreThreadTimeOut(false);
+        }
+        executor.setRejectedExecutionHandler(rejectedHandler(name));
+    }
+
+    private RejectedExecutionHandler rejectedHandler(final String name) {
+        final RejectPolicy policy = rejectPolicy;
+        final RejectedExecutionHandler handler;
+        switch (policy) {
+            case CALLER_RUNS:
+                handler = new CallerRunsPolicy();
+                break;
+            case DISCARD:
+                handler = new DiscardPolicy();
+                break;
+            case DISCARD_OLDEST:
+                handler = new DiscardOldestPolicy();
+                break;
+            default:
+                handler = new ThreadPoolExecutor.AbortPolicy();
+                break;
+        }
+        return new RejectedExecutionHandler() {
+            @Override public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+                if (!executor.isShutdown()) L.e(name, "queue is full(" + executor.getQueue().size() + "), reject policy:" + policy);
+                handler.rejectedExecution(r, executor);
+            }
+        };
+    }
+
+    /**
+     * 被丢弃的任务不会再执行，通过submit提交的任务要取消，发起者名下的登记才会移除，Future.get()才会返回
+     */
+    private static void cancelDropped(Runnable dropped) {
+        if (dropped instanceof PriorityRunnable) dropped = ((PriorityRunnable) dropped).getRunnable();
+        if (dropped instanceof Future) ((Future<?>) dropped).cancel(false);
+    }
+
+    private static final class DiscardPolicy implements RejectedExecutionHandler {
+        @Override public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            cancelDropped(r);
+        }
+    }
+
+    /**
+     * HTTP通道的队列按优先级排序，队头是最先执行的任务，丢弃时改为丢弃排在最后的任务
+     */
+    private static final class DiscardOldestPolicy implements RejectedExecutionHandler {
+        @Override public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                cancelDropped(r);
+                return;
+            }
+            Runnable dropped;
+            if (executor.getQueue() instanceof HttpThreadPoll.BoundedPriorityQueue) {
+                dropped = ((HttpThreadPoll.BoundedPriorityQueue) executor.getQueue()).evictLast(r);
+            } else {
+                dropped = executor.getQueue().poll();
+            }
+            cancelDropped(dropped);
+            if (dropped != r) executor.execute(r);
+        }
+    }
+
+    /**
+     * 主线程和定时线程不执行被拒绝的任务，改为抛出异常
+     */
+    private static final class CallerRunsPolicy implements RejectedExecutionHandler {
+        private final RejectedExecutionHandler abort = new ThreadPoolExecutor.AbortPolicy();
+
+        @Override public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                cancelDropped(r);
+                return;
+            }
+            Thread current = Thread.currentThread();
+            Looper mainLooper = Looper.getMainLooper();
+            if ((mainLooper != null && mainLooper.getThread() == current) || QsConstants.NAME_SCHEDULED_THREAD.equals(current.getName())) {
+                abort.rejectedExecution(r, executor);
+                return;
+            }
+            r.run();
+        }
+    }
+}
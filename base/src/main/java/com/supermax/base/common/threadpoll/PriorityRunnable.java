@@ -0,0 +1,58 @@
+package com.supermax.base.common.threadpoll;
+
+import android.support.annotation.NonNull;
+
+import com.supermax.base.common.aspect.PriorityType;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 17:12
+ * @Description 带优先级的任务，入队时计算排序值，执行期间可通过current()拿到当前任务的优先级
+ */
+public class PriorityRunnable implements Runnable, Comparable<PriorityRunnable> {
+    private static final AtomicLong                SEQUENCE = new AtomicLong();
+    private static final ThreadLocal<PriorityType> CURRENT  = new ThreadLocal<>();
+
+    private final Runnable     runnable;
+    private final PriorityType priority;
+    private final long         sortKey;
+    private final long         sequence;
+
+    public PriorityRunnable(Runnable runnable, PriorityType priority) {
+        this.runnable = runnable;
+        this.priority = priority == null ? PriorityType.NORMAL : priority;
+        this.sortKey = System.nanoTime() / 1000000 + this.priority.agingMs;
+        this.sequence = SEQUENCE.getAndIncrement();
+    }
+
+    /**
+     * 当前线程正在执行的任务优先级，不在PriorityRunnable里执行时返回null
+     */
+    public static PriorityType current() {
+        return CURRENT.get();
+    }
+
+    public PriorityType getPriority() {
+        return priority;
+    }
+
+    Runnable getRunnable() {
+        return runnable;
+    }
+
+    @Override public void run() {
+        CURRENT.set(priority);
+        try {
+            runnable.run();
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    @Override public int compareTo(@NonNull PriorityRunnable other) {
+        if (sortKey != other.sortKey) return sortKey < other.sortKey ? -1 : 1;
+        return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+    }
+}
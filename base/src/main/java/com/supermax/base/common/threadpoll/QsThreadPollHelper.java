@@ -2,18 +2,31 @@ package com.supermax.base.common.threadpoll;
 
 import android.os.Looper;
 
+import com.supermax.base.common.aspect.PriorityType;
+import com.supermax.base.common.aspect.ThreadType;
+import com.supermax.base.common.exception.QsException;
+import com.supermax.base.common.exception.QsExceptionType;
 import com.supermax.base.common.log.L;
 import com.supermax.base.mvp.model.QsConstants;
 
+import java.util.EnumMap;
+import java.util.concurrent.Future;
+
 /**
  * @Author yinzh
  * @Date   2018/10/16 15:24
  * @Description:线程池管理类
  */
 public class QsThreadPollHelper {
-    private WorkThreadPoll workThreadPoll;
-    private HttpThreadPoll httpThreadPoll;
-    private SingleThreadPoll singleThreadPoll;
+    private volatile WorkThreadPoll workThreadPoll;
+    private volatile HttpThreadPoll httpThreadPoll;
+    private volatile SingleThreadPoll singleThreadPoll;
+    private volatile ScheduledThreadPoll scheduledThreadPoll;
+
+    private final EnumMap<ThreadType, LanePolicy> lanePolicies = new EnumMap<>(ThreadType.class);
+    private final TaskRegistry                     taskRegistry = new TaskRegistry();
+    private final CallLimiter                      callLimiter  = new CallLimiter();
+    private volatile boolean                       mainFrameAligned;
 
     private static QsThreadPollHelper instance;
 
@@ -49,10 +62,60 @@ public class QsThreadPollHelper {
         return MainExecutor.getInstance();
     }
 
+    public FrameExecutor getFrameExecutor() {
+        return FrameExecutor.getInstance();
+    }
+
+    public IdleExecutor getIdleExecutor() {
+        return IdleExecutor.getInstance();
+    }
+
+    /**
+     * 开启后，从子线程切到主线程的@ThreadPoint(ThreadType.MAIN)方法按帧合并执行，见{@link FrameExecutor}
+     */
+    public void setMainFrameAligned(boolean mainFrameAligned) {
+        this.mainFrameAligned = mainFrameAligned;
+    }
+
+    public boolean isMainFrameAligned() {
+        return mainFrameAligned;
+    }
+
+    /**
+     * 修改WORK、HTTP、SINGLE_WORK通道的配置，建议在Application.onCreate中调用
+     * 线程池已创建时立即调整线程数、空闲回收和拒绝策略，队列容量和线程优先级在下次创建线程池时生效
+     */
+    public synchronized void setLanePolicy(ThreadType type, LanePolicy policy) {
+        if (type == ThreadType.MAIN || type == ThreadType.IDLE || policy == null) {
+            throw new QsException(QsExceptionType.UNEXPECTED, null, "lane policy error... type:" + type + " policy:" + policy);
+        }
+        lanePolicies.put(type, policy);
+        switch (type) {
+            case WORK:
+                if (workThreadPoll != null) policy.apply(workThreadPoll, QsConstants.NAME_WORK_THREAD);
+                break;
+            case HTTP:
+                if (httpThreadPoll != null) policy.apply(httpThreadPoll, QsConstants.NAME_HTTP_THREAD);
+                break;
+            case SINGLE_WORK:
+                if (singleThreadPoll != null) policy.apply(singleThreadPoll, QsConstants.NAME_SINGLE_THREAD);
+                break;
+        }
+    }
+
+    public synchronized LanePolicy getLanePolicy(ThreadType type) {
+        LanePolicy policy = lanePolicies.get(type);
+        if (policy == null) {
+            policy = LanePolicy.defaultOf(type);
+            lanePolicies.put(type, policy);
+        }
+        return policy;
+    }
+
     public WorkThreadPoll getWorkThreadPoll() {
         if(workThreadPoll == null){
             synchronized (this){
-                if(workThreadPoll == null) workThreadPoll = new WorkThreadPoll(10);
+                if(workThreadPoll == null) workThreadPoll = new WorkThreadPoll(getLanePolicy(ThreadType.WORK));
             }
         }
         return workThreadPoll;
@@ -61,7 +124,7 @@ public class QsThreadPollHelper {
     public HttpThreadPoll getHttpThreadPoll() {
         if (httpThreadPoll == null) {
             synchronized (this) {
-                if (httpThreadPoll == null) httpThreadPoll = new HttpThreadPoll(10);
+                if (httpThreadPoll == null) httpThreadPoll = new HttpThreadPoll(getLanePolicy(ThreadType.HTTP));
             }
 
         }
@@ -71,12 +134,67 @@ public class QsThreadPollHelper {
     public SingleThreadPoll getSingleThreadPoll() {
         if (singleThreadPoll == null) {
             synchronized (this) {
-                if (singleThreadPoll == null) singleThreadPoll = new SingleThreadPoll();
+                if (singleThreadPoll == null) singleThreadPoll = new SingleThreadPoll(getLanePolicy(ThreadType.SINGLE_WORK));
             }
         }
         return singleThreadPoll;
     }
 
+    public ScheduledThreadPoll getScheduledThreadPoll() {
+        if (scheduledThreadPoll == null) {
+            synchronized (this) {
+                if (scheduledThreadPoll == null) scheduledThreadPoll = new ScheduledThreadPoll();
+            }
+        }
+        return scheduledThreadPoll;
+    }
+
+    public Future<?> submit(ThreadType type, Object owner, Runnable runnable, PriorityType priority) {
+        return submit(type, null, owner, runnable, priority);
+    }
+
+    /**
+     * 在WORK、HTTP、SINGLE_WORK线程池执行任务，并登记到owner名下，owner为null时不登记
+     * HTTP线程池按priority排序，priority为null时按NORMAL处理；SINGLE_WORK按key串行，其他类型忽略key
+     */
+    public Future<?> submit(ThreadType type, String key, Object owner, Runnable runnable, PriorityType priority) {
+        switch (type) {
+            case WORK:
+                return taskRegistry.submit(owner, getWorkThreadPoll(), runnable, null);
+            case HTTP:
+                return taskRegistry.submit(owner, getHttpThreadPoll(), runnable, priority == null ? PriorityType.NORMAL : priority);
+            case SINGLE_WORK:
+                return taskRegistry.submit(owner, getSingleThreadPoll().serial(key), runnable, null);
+            default:
+                throw new QsException(QsExceptionType.UNEXPECTED, null, "submit error... " + type + " is not a thread poll");
+        }
+    }
+
+    /**
+     * 防抖：同一个owner的key停止提交delayMs后，执行最后一次提交的task，之前的task被丢弃
+     * task在定时线程中执行，只应该把真正的工作转交给其他线程池
+     */
+    public void debounce(Object owner, Object key, long delayMs, Runnable task) {
+        callLimiter.debounce(owner, key, delayMs, task);
+    }
+
+    /**
+     * 节流：窗口外的task在当前线程立即执行，窗口内只保留最后一次提交，在窗口结束时执行
+     */
+    public void throttle(Object owner, Object key, long windowMs, Runnable task) {
+        callLimiter.throttle(owner, key, windowMs, task);
+    }
+
+    /**
+     * 取消owner名下所有未结束的任务：排队中的从队列移除，执行中的被中断，防抖和节流中等待的任务被丢弃
+     */
+    public void cancelTasks(Object owner) {
+        if (owner == null) return;
+        callLimiter.cancel(owner);
+        int count = taskRegistry.cancel(owner);
+        if (count > 0) L.i("QsThreadPollHelper", "cancel " + count + " tasks of " + owner.getClass().getSimpleName());
+    }
+
     public synchronized void shutdown() {
         L.i("QsThreadPollHelper", "shutdown()");
         if (workThreadPoll != null) {
@@ -91,6 +209,10 @@ public class QsThreadPollHelper {
             singleThreadPoll.shutdown();
             singleThreadPoll = null;
         }
+        if (scheduledThreadPoll != null) {
+            scheduledThreadPoll.shutdown();
+            scheduledThreadPoll = null;
+        }
     }
 
 }
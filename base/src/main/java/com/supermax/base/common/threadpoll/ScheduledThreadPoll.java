@@ -0,0 +1,17 @@
+package com.supermax.base.common.threadpoll;
+
+import com.supermax.base.mvp.model.QsConstants;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/18 16:34
+ * @Description 定时任务线程池，只负责延时后分发任务，不要在这里执行耗时操作
+ */
+public class ScheduledThreadPoll extends ScheduledThreadPoolExecutor {
+
+    ScheduledThreadPoll() {
+        super(1, ThreadUtils.generateThread(QsConstants.NAME_SCHEDULED_THREAD, true));
+    }
+}
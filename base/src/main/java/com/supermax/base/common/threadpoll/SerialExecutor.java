@@ -0,0 +1,113 @@
+package com.supermax.base.common.threadpoll;
+
+import android.support.annotation.NonNull;
+
+import com.supermax.base.common.log.L;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/19 02:05
+ * @Description 同一个key的任务按提交顺序逐个执行，不同key之间共用SingleThreadPoll的线程并行执行
+ * 同一时刻每个key最多只有一个任务在线程池里，排队的任务留在本地队列，超过容量时抛出RejectedExecutionException
+ * 任务结束后把下一个任务交给线程池，线程池饱和时在当前线程接着执行，线程池关闭时丢弃排队的任务，保证key不会停住
+ */
+final class SerialExecutor implements Executor {
+    private static final String TAG = "SerialExecutor";
+
+    private final String               key;
+    private final SingleThreadPoll     pool;
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    private       boolean              active;
+
+    SerialExecutor(String key, SingleThreadPoll pool) {
+        this.key = key;
+        this.pool = pool;
+    }
+
+    @Override public synchronized void execute(@NonNull Runnable command) {
+        if (tasks.size() >= pool.queueCapacity) {
+            throw new RejectedExecutionException("serial queue '" + key + "' is full(" + tasks.size() + ")");
+        }
+        tasks.add(command);
+        if (active) return;
+        Runnable next = tasks.poll();
+        active = true;
+        try {
+            pool.executeDirect(worker(next));
+        } catch (RejectedExecutionException e) {
+            active = false;
+            if (next == command) throw e;
+            tasks.addFirst(next);
+            tasks.removeLastOccurrence(command);
+            if (pool.isShutdown()) dropQueued();
+            throw e;
+        }
+    }
+
+    synchronized boolean remove(Runnable command) {
+        return tasks.remove(command);
+    }
+
+    private Runnable worker(final Runnable first) {
+        return new Runnable() {
+            @Override public void run() {
+                Runnable task = first;
+                while (task != null) {
+                    boolean completed = false;
+                    try {
+                        task.run();
+                        completed = true;
+                    } finally {
+                        task = scheduleNext(completed);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * 在线程池的线程中、上一个任务结束后调用
+     *
+     * @param canRunInline 上一个任务正常结束时可以在当前线程继续执行
+     * @return 线程池饱和时需要在当前线程继续执行的任务
+     */
+    private synchronized Runnable scheduleNext(boolean canRunInline) {
+        Runnable next = tasks.poll();
+        if (next == null) {
+            active = false;
+            return null;
+        }
+        try {
+            pool.executeDirect(worker(next));
+            return null;
+        } catch (RejectedExecutionException e) {
+            if (pool.isShutdown()) {
+                tasks.addFirst(next);
+                active = false;
+                dropQueued();
+                return null;
+            }
+            if (canRunInline) return next;
+            tasks.addFirst(next);
+            active = false;
+            L.e(TAG, "serial queue '" + key + "' rejected by pool, " + tasks.size() + " tasks wait for next execute");
+            return null;
+        }
+    }
+
+    /**
+     * 线程池已关闭，排队的任务不会再执行；任务是Future时取消，让等待结果的一方结束
+     */
+    private void dropQueued() {
+        L.e(TAG, "pool is shutdown, drop " + tasks.size() + " tasks of serial queue '" + key + "'");
+        for (Runnable task : tasks) {
+            if (task instanceof Future) ((Future<?>) task).cancel(false);
+        }
+        tasks.clear();
+    }
+}
@@ -1,19 +1,72 @@
 package com.supermax.base.common.threadpoll;
 
+import android.support.annotation.NonNull;
+import android.text.TextUtils;
+
 import com.supermax.base.mvp.model.QsConstants;
 
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 /**
  * @Author yinzh
  * @Date   2018/10/16 15:25
- * @Description
+ * @Description 串行执行，同一个key的任务按提交顺序执行，不同key并行，execute(Runnable)使用默认key
+ * 线程由所有key共用，线程数见{@link LanePolicy}；key应当是有限的几个常量，如"db"、"cache"
  */
 public class SingleThreadPoll extends ThreadPoolExecutor{
+    public static final String DEFAULT_KEY = "";
+
+    final int queueCapacity;
+
+    private final ConcurrentHashMap<String, SerialExecutor> serials = new ConcurrentHashMap<>();
+
+    SingleThreadPoll(LanePolicy policy){
+        super(policy.corePoolSize, policy.maxPoolSize, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(policy.queueCapacity), ThreadUtils.generateThread(QsConstants.NAME_SINGLE_THREAD, true, policy.threadPriority));
+        this.queueCapacity = policy.queueCapacity;
+        policy.apply(this, QsConstants.NAME_SINGLE_THREAD);
+    }
+
+    /**
+     * key对应的串行执行器，key为空时使用默认key
+     */
+    public Executor serial(String key) {
+        if (TextUtils.isEmpty(key)) key = DEFAULT_KEY;
+        SerialExecutor serial = serials.get(key);
+        if (serial == null) {
+            SerialExecutor created = new SerialExecutor(key, this);
+            serial = serials.putIfAbsent(key, created);
+            if (serial == null) serial = created;
+        }
+        return serial;
+    }
+
+    @Override public void execute(@NonNull Runnable command) {
+        serial(DEFAULT_KEY).execute(command);
+    }
+
+    /**
+     * 排队中的任务在各个key的本地队列里
+     */
+    @Override public boolean remove(Runnable task) {
+        for (SerialExecutor serial : serials.values()) {
+            if (serial.remove(task)) return true;
+        }
+        return super.remove(task);
+    }
+
+    /**
+     * 丢弃任务会让对应的key永远等待，固定为抛出异常
+     */
+    @Override public void setRejectedExecutionHandler(RejectedExecutionHandler handler) {
+        super.setRejectedExecutionHandler(new AbortPolicy());
+    }
 
-    SingleThreadPoll(){
-        super(0, 1, 60, TimeUnit.MILLISECONDS, new LinkedBlockingDeque<Runnable>(), ThreadUtils.generateThread(QsConstants.NAME_SINGLE_THREAD, true));
+    void executeDirect(Runnable command) {
+        super.execute(command);
     }
 }
@@ -0,0 +1,91 @@
+package com.supermax.base.common.threadpoll;
+
+import com.supermax.base.common.aspect.PriorityType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * @Author yinzh
+ * @Date   2026/10/19 01:40
+ * @Description 按发起者(presenter、fragment、activity)登记线程池中未结束的任务
+ * 任务结束后自动移除，不会额外延长发起者的生命周期；cancel时从队列中移除排队的任务，中断正在执行的任务
+ */
+final class TaskRegistry {
+    private final Map<Object, Set<TrackedTask>> tasks = new IdentityHashMap<>();
+
+    Future<?> submit(Object owner, Executor executor, Runnable runnable, PriorityType priority) {
+        TrackedTask task = new TrackedTask(owner, executor, runnable);
+        task.queued = priority == null ? task : new PriorityRunnable(task, priority);
+        if (owner != null) add(task);
+        try {
+            executor.execute(task.queued);
+        } catch (RuntimeException e) {
+            remove(task);
+            throw e;
+        }
+        return task;
+    }
+
+    /**
+     * @return 取消的任务数
+     */
+    int cancel(Object owner) {
+        if (owner == null) return 0;
+        List<TrackedTask> canceled;
+        synchronized (this) {
+            Set<TrackedTask> set = tasks.remove(owner);
+            if (set == null) return 0;
+            canceled = new ArrayList<>(set);
+        }
+        for (TrackedTask task : canceled) {
+            if (task.executor instanceof ThreadPoolExecutor) {
+                ((ThreadPoolExecutor) task.executor).remove(task.queued);
+            } else if (task.executor instanceof SerialExecutor) {
+                ((SerialExecutor) task.executor).remove(task.queued);
+            }
+            task.cancel(true);
+        }
+        return canceled.size();
+    }
+
+    private synchronized void add(TrackedTask task) {
+        Set<TrackedTask> set = tasks.get(task.owner);
+        if (set == null) {
+            set = Collections.newSetFromMap(new IdentityHashMap<TrackedTask, Boolean>());
+            tasks.put(task.owner, set);
+        }
+        set.add(task);
+    }
+
+    private synchronized void remove(TrackedTask task) {
+        Set<TrackedTask> set = tasks.get(task.owner);
+        if (set == null) return;
+        set.remove(task);
+        if (set.isEmpty()) tasks.remove(task.owner);
+    }
+
+    private final class TrackedTask extends FutureTask<Void> {
+        private final Object             owner;
+        private final Executor           executor;
+        private       Runnable           queued;
+
+        TrackedTask(Object owner, Executor executor, Runnable runnable) {
+            super(runnable, null);
+            this.owner = owner;
+            this.executor = executor;
+        }
+
+        @Override protected void done() {
+            if (owner != null) remove(this);
+        }
+    }
+}
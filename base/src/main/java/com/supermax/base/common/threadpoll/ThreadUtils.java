@@ -1,5 +1,6 @@
 package com.supermax.base.common.threadpoll;
 
+import android.os.Process;
 import android.support.annotation.NonNull;
 
 import java.util.concurrent.ThreadFactory;
@@ -18,10 +19,17 @@ class ThreadUtils {
      *               说明：守护线程:主线程挂掉也跟着挂掉. 用户线程:主线程挂掉不会跟着挂掉
      */
     static ThreadFactory generateThread(final String name, final boolean daemon){
+        return generateThread(name, daemon, Process.THREAD_PRIORITY_BACKGROUND);
+    }
+
+    /**
+     * @param threadPriority android.os.Process.THREAD_PRIORITY_XXX
+     */
+    static ThreadFactory generateThread(final String name, final boolean daemon, final int threadPriority){
         return new ThreadFactory() {
             @Override
             public Thread newThread(@NonNull Runnable r) {
-                CustomThread result = new CustomThread(r, name);
+                CustomThread result = new CustomThread(r, name, threadPriority);
                 result.setDaemon(daemon);
                 return result;
             }
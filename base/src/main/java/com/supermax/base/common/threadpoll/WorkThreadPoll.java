@@ -2,18 +2,19 @@ package com.supermax.base.common.threadpoll;
 
 
 import com.supermax.base.mvp.model.QsConstants;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 /**
  * @Author yinzh
  * @Date   2018/10/16 15:25
- * @Description
+ * @Description CPU密集任务，线程数按CPU核数计算，见{@link LanePolicy}
  */
 public class WorkThreadPoll extends ThreadPoolExecutor{
 
-    WorkThreadPoll(int threadCount){
-        super(threadCount, threadCount, 20, TimeUnit.SECONDS, new LinkedBlockingDeque<Runnable>(), ThreadUtils.generateThread(QsConstants.NAME_WORK_THREAD, true));
+    WorkThreadPoll(LanePolicy policy){
+        super(policy.corePoolSize, policy.maxPoolSize, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(policy.queueCapacity), ThreadUtils.generateThread(QsConstants.NAME_WORK_THREAD, true, policy.threadPriority));
+        policy.apply(this, QsConstants.NAME_WORK_THREAD);
     }
 }
@@ -1,11 +1,7 @@
 package com.supermax.base.common.utils;
 
-import android.annotation.SuppressLint;
-import android.content.Context;
 import android.content.Intent;
 import android.graphics.drawable.Drawable;
-import android.net.ConnectivityManager;
-import android.net.NetworkInfo;
 import android.os.Bundle;
 import android.os.Environment;
 import android.support.annotation.ColorRes;
@@ -26,6 +22,7 @@ import com.supermax.base.common.aspect.ThreadPoint;
 import com.supermax.base.common.aspect.ThreadType;
 import com.supermax.base.common.dialog.QsProgressDialog;
 import com.supermax.base.common.http.HttpAdapter;
+import com.supermax.base.common.network.NetworkStateMonitor;
 import com.supermax.base.common.threadpoll.QsThreadPollHelper;
 
 import org.greenrobot.eventbus.EventBus;
@@ -236,14 +233,15 @@ public class QsHelper {
         }
     }
 
-    @SuppressLint("MissingPermission") public boolean isNetworkAvailable() {
-        ConnectivityManager connect = (ConnectivityManager) getApplication().getSystemService(Context.CONNECTIVITY_SERVICE);
-        if (connect == null) {
-            return false;
-        } else {
-            NetworkInfo activeNetworkInfo = connect.getActiveNetworkInfo();
-            return activeNetworkInfo != null && activeNetworkInfo.isAvailable();
-        }
+    /**
+     * 读取NetworkStateMonitor缓存的状态，不会每次都查询系统服务
+     */
+    public boolean isNetworkAvailable() {
+        return getNetworkMonitor().isAvailable();
+    }
+
+    public NetworkStateMonitor getNetworkMonitor() {
+        return NetworkStateMonitor.getInstance();
     }
 
     public String getString(@StringRes int resId) {
@@ -26,6 +26,7 @@ import java.lang.reflect.Method;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 import dalvik.system.DexFile;
 
@@ -47,42 +48,59 @@ public class ViewBindHelper {
 
     /**
      * 典型的以内存换时间，以后可能会用上
+     * 等主线程空闲(首帧绘制之后)再开始扫描，不和启动时的页面初始化抢CPU
      */
     public static void preInit() {
         if (QsHelper.getInstance().getApplication().isMainProcess()) {
-            QsHelper.getInstance().getThreadHelper().getWorkThreadPoll().execute(new Runnable() {
+            QsHelper.getInstance().getThreadHelper().getIdleExecutor().execute(new Runnable() {
                 @Override public void run() {
-                    long start = System.nanoTime();
-                    try {
-                        String packageName = QsHelper.getInstance().getApplication().getPackageName();
-                        String packageCodePath = QsHelper.getInstance().getApplication().getPackageCodePath();
-                        DexFile df = new DexFile(packageCodePath);
-                        Enumeration<String> entries = df.entries();
-                        while (entries.hasMoreElements()) {
-                            String classPath = entries.nextElement();
-                            if (classPath.startsWith(packageName) && !classPath.contains("$") && !classPath.contains("\\.R\\.")) {
-                                try {
-                                    Class<?> aClass = Class.forName(classPath);
-                                    ViewBindData viewBindData = viewCache.get(aClass);
-                                    if (viewBindData == null && QsIActivity.class.isAssignableFrom(aClass) || QsIFragment.class.isAssignableFrom(aClass)
-                                            || QsListAdapterItem.class.isAssignableFrom(aClass) || QsRecycleAdapterItem.class.isAssignableFrom(aClass)
-                                            || QsDialogFragment.class.isAssignableFrom(aClass)) {
-                                        viewCache.put(aClass, new ViewBindData(aClass));
-                                    }
-                                } catch (ClassNotFoundException e) {
-                                    e.printStackTrace();
+                    scanViewBindData();
+                }
+            });
+        }
+    }
+
+    /**
+     * 预扫描只是缓存，WORK线程池拒绝时跳过，用到时再按类创建
+     */
+    private static void scanViewBindData() {
+        Runnable scan = new Runnable() {
+            @Override public void run() {
+                long start = System.nanoTime();
+                try {
+                    String packageName = QsHelper.getInstance().getApplication().getPackageName();
+                    String packageCodePath = QsHelper.getInstance().getApplication().getPackageCodePath();
+                    DexFile df = new DexFile(packageCodePath);
+                    Enumeration<String> entries = df.entries();
+                    while (entries.hasMoreElements()) {
+                        String classPath = entries.nextElement();
+                        if (classPath.startsWith(packageName) && !classPath.contains("$") && !classPath.contains("\\.R\\.")) {
+                            try {
+                                Class<?> aClass = Class.forName(classPath);
+                                ViewBindData viewBindData = viewCache.get(aClass);
+                                if (viewBindData == null && QsIActivity.class.isAssignableFrom(aClass) || QsIFragment.class.isAssignableFrom(aClass)
+                                        || QsListAdapterItem.class.isAssignableFrom(aClass) || QsRecycleAdapterItem.class.isAssignableFrom(aClass)
+                                        || QsDialogFragment.class.isAssignableFrom(aClass)) {
+                                    viewCache.put(aClass, new ViewBindData(aClass));
                                 }
+                            } catch (ClassNotFoundException e) {
+                                e.printStackTrace();
                             }
                         }
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    } catch (Exception e) {
-                        e.printStackTrace();
                     }
-                    long end = System.nanoTime();
-                    Log.e("ViewBindHelper", "init...... cache size:" + viewCache.size() + ", use time:" + (end - start) / 1000000f + "ms");
+                } catch (IOException e) {
+                    e.printStackTrace();
+                } catch (Exception e) {
+                    e.printStackTrace();
                 }
-            });
+                long end = System.nanoTime();
+                Log.e("ViewBindHelper", "init...... cache size:" + viewCache.size() + ", use time:" + (end - start) / 1000000f + "ms");
+            }
+        };
+        try {
+            QsHelper.getInstance().getThreadHelper().getWorkThreadPoll().execute(scan);
+        } catch (RejectedExecutionException e) {
+            L.e("ViewBindHelper", "init...... rejected by work thread poll, skip scan");
         }
     }
 
@@ -111,6 +111,7 @@ public abstract class QsABActivity<P extends QsPresenter> extends AppCompatActiv
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        QsHelper.getInstance().getThreadHelper().cancelTasks(this);
         if (presenter != null) {
             presenter.setDetach();
             presenter = null;
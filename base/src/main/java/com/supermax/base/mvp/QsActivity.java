@@ -107,6 +107,7 @@ public abstract class QsActivity<P extends QsPresenter> extends FragmentActivity
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        QsHelper.getInstance().getThreadHelper().cancelTasks(this);
         if (presenter != null) {
             presenter.setDetach();
             presenter = null;
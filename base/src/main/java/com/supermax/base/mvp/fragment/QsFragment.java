@@ -104,6 +104,7 @@ public abstract class QsFragment<P extends QsPresenter> extends Fragment impleme
 
     @Override public void onDestroyView() {
         super.onDestroyView();
+        QsHelper.getInstance().getThreadHelper().cancelTasks(this);
         if (presenter != null) {
             presenter.setDetach();
             presenter = null;
@@ -23,6 +23,7 @@ public class QsConstants {
     public static final String NAME_HTTP_THREAD   = "HttpThreadPoll";
     public static final String NAME_WORK_THREAD   = "WorkThreadPoll";
     public static final String NAME_SINGLE_THREAD = "SingleThreadPoll";
+    public static final String NAME_SCHEDULED_THREAD = "ScheduledThreadPoll";
 
 
 }
@@ -20,7 +20,9 @@ import com.supermax.base.mvp.QsIView;
 import com.supermax.base.mvp.fragment.QsIPullToRefresh;
 import com.supermax.base.mvp.model.QsConstants;
 
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @Author yinzh
@@ -29,7 +31,7 @@ import java.util.ArrayList;
  */
 public class QsPresenter<V extends QsIView> {
 
-    private ArrayList<String> tagList = new ArrayList<>();
+    private final Set<String> tagSet = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
     private boolean isAttach;
     private V mView;
 
@@ -66,6 +68,7 @@ public class QsPresenter<V extends QsIView> {
         isAttach = false;
         mView = null;
         cancelAllHttpRequest();
+        QsHelper.getInstance().getThreadHelper().cancelTasks(this);
     }
 
     public boolean isViewDetach() {
@@ -80,31 +83,26 @@ public class QsPresenter<V extends QsIView> {
     }
 
     protected <T> T createHttpRequest(Class<T> clazz, String requestTag) {
-        if (!tagList.contains(requestTag)) {
-            tagList.add(requestTag);
-        } else {
+        if (!tagSet.add(requestTag)) {
             L.e(initTag(), "createHttpRequest Repeated tag:" + requestTag);
         }
-        return QsHelper.getInstance().getHttpHelper().create(clazz, requestTag);
+        return QsHelper.getInstance().getHttpHelper().create(clazz, requestTag, this);
     }
 
     /**
-     * 取消由当前presenter发起的http请求
+     * 取消由当前presenter发起的http请求，只处理还未结束的请求
      */
     protected void cancelAllHttpRequest() {
         try {
-            for (String tag : tagList) {
-                QsHelper.getInstance().getHttpHelper().cancelRequest(tag);
-            }
-            tagList.clear();
+            tagSet.clear();
+            QsHelper.getInstance().getHttpHelper().cancelRequestGroup(this);
         } catch (Exception e) {
             L.e(initTag(), "cancel http request failed :" + e.getMessage());
         }
     }
 
     protected void cancelHttpRequest(String requestTag) {
-        if (tagList.contains(requestTag)) {
-            tagList.remove(requestTag);
+        if (tagSet.remove(requestTag)) {
             try {
                 QsHelper.getInstance().getHttpHelper().cancelRequest(requestTag);
             } catch (Exception e) {
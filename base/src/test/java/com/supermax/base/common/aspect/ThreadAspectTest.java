@@ -0,0 +1,107 @@
+package com.supermax.base.common.aspect;
+
+import com.supermax.base.common.exception.QsException;
+import com.supermax.base.common.threadpoll.LanePolicy;
+import com.supermax.base.common.threadpoll.QsThreadPollHelper;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 线程池拒绝时切面不向调用方抛出异常
+ */
+public class ThreadAspectTest {
+    private final QsThreadPollHelper threadHelper = QsThreadPollHelper.getInstance();
+    private final CountDownLatch     release      = new CountDownLatch(1);
+    private       LanePolicy         previous;
+
+    @Before public void setUp() {
+        previous = threadHelper.getLanePolicy(ThreadType.WORK);
+        threadHelper.shutdown();
+        threadHelper.setLanePolicy(ThreadType.WORK, new LanePolicy(1, 1, 1));
+    }
+
+    @After public void tearDown() {
+        release.countDown();
+        threadHelper.shutdown();
+        threadHelper.setLanePolicy(ThreadType.WORK, previous);
+    }
+
+    @Test public void fullLaneDoesNotThrowToCaller() throws Throwable {
+        final CountDownLatch started = new CountDownLatch(1);
+        threadHelper.submit(ThreadType.WORK, null, new Runnable() {
+            @Override public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        }, null);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        final CountDownLatch queuedRan = new CountDownLatch(1);
+        threadHelper.submit(ThreadType.WORK, null, new Runnable() {
+            @Override public void run() {
+                queuedRan.countDown();
+            }
+        }, null);
+
+        Presenter presenter = new Presenter();
+        new ThreadAspect().onWorkExecutor(joinPoint(presenter, "load"));
+
+        release.countDown();
+        assertTrue(queuedRan.await(5, TimeUnit.SECONDS));
+        threadHelper.getWorkThreadPoll().shutdown();
+        assertTrue(threadHelper.getWorkThreadPoll().awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(0, presenter.calls.get());
+    }
+
+    private static ProceedingJoinPoint joinPoint(final Object target, String methodName) throws NoSuchMethodException {
+        final Method method = target.getClass().getMethod(methodName);
+        final MethodSignature signature = (MethodSignature) Proxy.newProxyInstance(MethodSignature.class.getClassLoader(), new Class[]{MethodSignature.class}, new InvocationHandler() {
+            @Override public Object invoke(Object proxy, Method m, Object[] args) {
+                return "getMethod".equals(m.getName()) ? method : null;
+            }
+        });
+        return (ProceedingJoinPoint) Proxy.newProxyInstance(ProceedingJoinPoint.class.getClassLoader(), new Class[]{ProceedingJoinPoint.class}, new InvocationHandler() {
+            @Override public Object invoke(Object proxy, Method m, Object[] args) throws Throwable {
+                switch (m.getName()) {
+                    case "getSignature":
+                        return signature;
+                    case "getTarget":
+                        return target;
+                    case "proceed":
+                        return method.invoke(target);
+                    case "toShortString":
+                        return "execution(" + method.getName() + ")";
+                    default:
+                        return null;
+                }
+            }
+        });
+    }
+
+    public static class Presenter {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @ThreadPoint(ThreadType.WORK) public void load() {
+            calls.incrementAndGet();
+        }
+
+        public void methodError(QsException e) {
+        }
+    }
+}
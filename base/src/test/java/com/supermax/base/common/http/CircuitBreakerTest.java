@@ -0,0 +1,145 @@
+package com.supermax.base.common.http;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.Collections;
+
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * CircuitBreaker的状态切换和TerminalGroup的故障转移条件
+ */
+public class CircuitBreakerTest {
+    private TerminalGroup  group;
+    private CircuitBreaker breaker;
+
+    @Before public void setUp() {
+        group = TerminalGroup.ordered("https://a.test.com/", "https://b.test.com")
+                .setFailureThreshold(10000, 4, 0.5f)
+                .setSlowThreshold(1000, 0.8f)
+                .setOpenDuration(5000, 20000);
+        breaker = group.select(Collections.<String>emptyList());
+    }
+
+    @Test public void opensAtFailureRate() {
+        long now = 1000000;
+        breaker.onSuccess(10, now);
+        breaker.onFailure(10, now);
+        breaker.onSuccess(10, now);
+        assertEquals(TerminalGroup.State.CLOSED, breaker.snapshot(now).state);
+        breaker.onFailure(10, now);
+        assertEquals(TerminalGroup.State.OPEN, breaker.snapshot(now).state);
+        assertFalse(breaker.isAvailable(now + 4999));
+        assertFalse(breaker.tryAcquire(now + 4999));
+    }
+
+    @Test public void staysClosedBelowMinRequests() {
+        long now = 1000000;
+        breaker.onFailure(10, now);
+        breaker.onFailure(10, now);
+        breaker.onFailure(10, now);
+        assertEquals(TerminalGroup.State.CLOSED, breaker.snapshot(now).state);
+    }
+
+    @Test public void opensAtSlowRate() {
+        long now = 1000000;
+        for (int i = 0; i < 4; i++) breaker.onSuccess(1000, now);
+        assertEquals(TerminalGroup.State.OPEN, breaker.snapshot(now).state);
+    }
+
+    @Test public void oldFailuresLeaveWindow() {
+        long now = 1000000;
+        breaker.onFailure(10, now);
+        breaker.onFailure(10, now);
+        breaker.onFailure(10, now);
+        breaker.onSuccess(10, now + 10000);
+        assertEquals(TerminalGroup.State.CLOSED, breaker.snapshot(now + 10000).state);
+        assertEquals(1, breaker.snapshot(now + 10000).requests);
+    }
+
+    @Test public void halfOpenAllowsOneProbe() {
+        long now = open(1000000);
+        long probeAt = now + 5000;
+        assertTrue(breaker.tryAcquire(probeAt));
+        assertEquals(TerminalGroup.State.HALF_OPEN, breaker.snapshot(probeAt).state);
+        assertFalse(breaker.tryAcquire(probeAt + 1));
+        assertFalse(breaker.isAvailable(probeAt + 1));
+        assertTrue("stuck probe can be replaced", breaker.tryAcquire(probeAt + 5001));
+
+        breaker.onSuccess(10, probeAt + 5002);
+        assertEquals(TerminalGroup.State.CLOSED, breaker.snapshot(probeAt + 5002).state);
+        assertEquals(0, breaker.snapshot(probeAt + 5002).requests);
+    }
+
+    @Test public void failedProbeDoublesOpenDuration() {
+        long now = open(1000000);
+        assertTrue(breaker.tryAcquire(now + 5000));
+        breaker.onFailure(10, now + 5000);
+        assertEquals(TerminalGroup.State.OPEN, breaker.snapshot(now + 5000).state);
+        assertFalse(breaker.isAvailable(now + 5000 + 9999));
+        assertTrue(breaker.isAvailable(now + 5000 + 10000));
+
+        assertTrue(breaker.tryAcquire(now + 15000));
+        breaker.onFailure(10, now + 15000);
+        assertTrue(breaker.tryAcquire(now + 15000 + 20000));
+        breaker.onFailure(10, now + 35000);
+        assertFalse("capped at maxOpenMs", breaker.isAvailable(now + 35000 + 19999));
+        assertTrue(breaker.isAvailable(now + 35000 + 20000));
+    }
+
+    @Test public void selectSkipsOpenAndTriedTerminals() {
+        assertEquals("https://a.test.com", breaker.terminal);
+        assertEquals("https://a.test.com", group.primary());
+        assertEquals("https://b.test.com", group.select(Collections.singletonList("https://a.test.com")).terminal);
+
+        open(System.currentTimeMillis());
+        CircuitBreaker next = group.select(Collections.<String>emptyList());
+        assertEquals("https://b.test.com", next.terminal);
+        assertFalse(group.hasAvailable(Collections.singletonList("https://b.test.com")));
+        assertNull(group.select(Collections.singletonList("https://b.test.com")));
+    }
+
+    @Test public void rewriteReplacesTerminalPrefix() {
+        Request request = new Request.Builder().url("https://a.test.com/api/v1/users?id=1").build();
+        assertEquals("https://b.test.com/api/v1/users?id=1", TerminalGroup.rewrite(request, "https://a.test.com", "https://b.test.com").url().toString());
+        assertSame(request, TerminalGroup.rewrite(request, "https://a.test.com", "https://a.test.com"));
+        assertSame(request, TerminalGroup.rewrite(request, "https://c.test.com", "https://b.test.com"));
+    }
+
+    @Test public void onlyIdempotentRequestsAreReplayable() {
+        RequestBody body = RequestBody.create(MediaType.parse("application/json"), "{}");
+        assertTrue(TerminalGroup.isReplayable(new Request.Builder().url("https://a.test.com/").build(), null));
+        assertTrue(TerminalGroup.isReplayable(new Request.Builder().url("https://a.test.com/").put(body).build(), null));
+        assertTrue(TerminalGroup.isReplayable(new Request.Builder().url("https://a.test.com/").delete().build(), null));
+        assertFalse(TerminalGroup.isReplayable(new Request.Builder().url("https://a.test.com/").post(body).build(), null));
+        assertFalse(TerminalGroup.isReplayable(new Request.Builder().url("https://a.test.com/").patch(body).build(), null));
+        assertFalse(TerminalGroup.isReplayable(new Request.Builder().url("https://a.test.com/").post(body).build(), "Idempotency-Key"));
+        assertTrue(TerminalGroup.isReplayable(new Request.Builder().url("https://a.test.com/").header("Idempotency-Key", "1").post(body).build(), "Idempotency-Key"));
+    }
+
+    @Test public void onlyConnectFailuresAreSafeToResend() {
+        assertTrue(TerminalGroup.isConnectFailure(new ConnectException("refused")));
+        assertTrue(TerminalGroup.isConnectFailure(new UnknownHostException("a.test.com")));
+        assertFalse(TerminalGroup.isConnectFailure(new SocketTimeoutException("timeout")));
+        assertFalse(TerminalGroup.isConnectFailure(new IOException("unexpected end of stream")));
+    }
+
+    private long open(long now) {
+        for (int i = 0; i < 4; i++) breaker.onFailure(10, now);
+        assertEquals(TerminalGroup.State.OPEN, breaker.snapshot(now).state);
+        return now;
+    }
+}
@@ -0,0 +1,146 @@
+package com.supermax.base.common.http;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import okio.Buffer;
+import okio.Okio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * FileRequestBody按offset/length读取文件，重发时ProgressReporter撤回上次统计的字节
+ */
+public class FileRequestBodyTest {
+    private static final MediaType TYPE = MediaType.parse("application/octet-stream");
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    private final MockWebServer server = new MockWebServer();
+    private final List<Long>    posted = new ArrayList<>();
+    private final Executor      direct = new Executor() {
+        @Override public void execute(Runnable command) {
+            command.run();
+        }
+    };
+    private File   file;
+    private byte[] content;
+
+    @Before public void setUp() throws IOException {
+        content = new byte[20000];
+        for (int i = 0; i < content.length; i++) content[i] = (byte) (i * 31);
+        file = folder.newFile("upload.bin");
+        Okio.buffer(Okio.sink(file)).write(content).close();
+        server.start();
+    }
+
+    @After public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test public void sliceWritesRange() throws IOException {
+        FileRequestBody body = new FileRequestBody(TYPE, file, 0, content.length, null);
+        FileRequestBody slice = body.slice(8000, 9000);
+        assertEquals(9000, slice.contentLength());
+        assertEquals(TYPE, slice.contentType());
+
+        Buffer buffer = new Buffer();
+        slice.writeTo(buffer);
+        assertArrayEquals(Arrays.copyOfRange(content, 8000, 17000), buffer.readByteArray());
+
+        buffer = new Buffer();
+        body.slice(19990, 10).writeTo(buffer);
+        assertArrayEquals(Arrays.copyOfRange(content, 19990, 20000), buffer.readByteArray());
+    }
+
+    @Test public void shrunkFileFails() throws IOException {
+        FileRequestBody slice = new FileRequestBody(TYPE, file, 0, content.length, null).slice(15000, 6000);
+        try {
+            slice.writeTo(new Buffer());
+            fail();
+        } catch (EOFException expected) {
+            // 文件末尾只剩5000字节
+        }
+    }
+
+    @Test public void slicesShareProgress() throws IOException {
+        ProgressReporter progress = reporter();
+        FileRequestBody body = new FileRequestBody(TYPE, file, 0, content.length, progress);
+        body.slice(0, 10000).writeTo(new Buffer());
+        body.slice(10000, 10000).writeTo(new Buffer());
+
+        assertEquals(content.length, progress.current());
+        assertEquals(Long.valueOf(content.length), posted.get(posted.size() - 1));
+    }
+
+    @Test public void rewriteWithdrawsProgress() throws IOException {
+        ProgressReporter progress = reporter();
+        FileRequestBody slice = new FileRequestBody(TYPE, file, 0, content.length, progress).slice(0, 10000);
+        slice.writeTo(new Buffer());
+        slice.writeTo(new Buffer());
+
+        assertEquals(10000, progress.current());
+        assertEquals(Long.valueOf(10000), posted.get(posted.size() - 1));
+    }
+
+    /**
+     * 第一次发送后连接断开，拦截器用同一个请求体重发
+     */
+    @Test public void resendWithdrawsProgress() throws Exception {
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST));
+        server.enqueue(new MockResponse().setBody("ok"));
+        ProgressReporter progress = reporter();
+        FileRequestBody slice = new FileRequestBody(TYPE, file, 0, content.length, progress).slice(4000, 12000);
+
+        OkHttpClient client = new OkHttpClient.Builder().addInterceptor(new Interceptor() {
+            @Override public Response intercept(Chain chain) throws IOException {
+                try {
+                    return chain.proceed(chain.request());
+                } catch (IOException e) {
+                    return chain.proceed(chain.request());
+                }
+            }
+        }).build();
+        Response response = client.newCall(new Request.Builder().url(server.url("/upload")).post(slice).build()).execute();
+        assertEquals("ok", response.body().string());
+        assertEquals(2, server.getRequestCount());
+        server.takeRequest();
+        RecordedRequest retried = server.takeRequest();
+        assertArrayEquals(Arrays.copyOfRange(content, 4000, 16000), retried.getBody().readByteArray());
+
+        assertEquals(12000, progress.current());
+        for (Long value : posted) {
+            if (value > 12000) fail("progress " + value + " exceeds slice length");
+        }
+    }
+
+    private ProgressReporter reporter() {
+        return new ProgressReporter(new QsProgressListener() {
+            @Override public void onProgress(long current, long total) {
+                posted.add(current);
+            }
+        }, content.length, direct);
+    }
+}
@@ -0,0 +1,174 @@
+package com.supermax.base.common.http;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * HttpCache的缓存key、存储条件和磁盘索引
+ */
+public class HttpCacheTest {
+    private static final String URL = "http://test.com/api/v1/users?id=1";
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    private HttpCache cache;
+
+    @Before public void setUp() throws IOException {
+        cache = new HttpCache(folder.newFolder("cache"), 1024 * 1024, 16);
+    }
+
+    @Test public void keySeparatesIdentityHeaders() {
+        Request anonymous = new Request.Builder().url(URL).build();
+        Request userA = new Request.Builder().url(URL).header("Authorization", "Bearer a").build();
+        Request userB = new Request.Builder().url(URL).header("Authorization", "Bearer b").build();
+        Request cookieA = new Request.Builder().url(URL).header("Cookie", "session=a").build();
+
+        assertEquals(HttpCache.key(userA), HttpCache.key(new Request.Builder().url(URL).header("Authorization", "Bearer a").build()));
+        assertNotEquals(HttpCache.key(userA), HttpCache.key(userB));
+        assertNotEquals(HttpCache.key(anonymous), HttpCache.key(userA));
+        assertNotEquals(HttpCache.key(userA), HttpCache.key(cookieA));
+        assertTrue(HttpCache.key(userA).startsWith(HttpCache.key(anonymous) + "-"));
+    }
+
+    @Test public void keyIgnoresValidationHeaders() {
+        Request request = new Request.Builder().url(URL).build();
+        Request conditional = request.newBuilder().header("If-None-Match", "\"v1\"").build();
+        assertEquals(HttpCache.key(request), HttpCache.key(conditional));
+    }
+
+    @Test public void storableRules() {
+        Request anonymous = new Request.Builder().url(URL).build();
+        Request authorized = new Request.Builder().url(URL).header("Authorization", "Bearer a").build();
+
+        assertTrue(HttpCache.isStorable(response(anonymous, 200, "body"), false));
+        assertFalse(HttpCache.isStorable(response(anonymous, 500, "body"), false));
+        assertFalse(HttpCache.isStorable(response(anonymous, 200, "body", "Cache-Control", "no-store"), true));
+        assertFalse(HttpCache.isStorable(response(anonymous, 200, "body", "Vary", "*"), true));
+        assertFalse(HttpCache.isStorable(response(anonymous, 200, "body", "Cache-Control", "private"), false));
+        assertTrue(HttpCache.isStorable(response(anonymous, 200, "body", "Cache-Control", "private"), true));
+        assertFalse(HttpCache.isStorable(response(authorized, 200, "body"), false));
+        assertTrue(HttpCache.isStorable(response(authorized, 200, "body"), true));
+    }
+
+    @Test public void diskEntryIsScopedToIdentity() throws IOException {
+        Request userA = new Request.Builder().url(URL).header("Authorization", "Bearer a").build();
+        Request userB = new Request.Builder().url(URL).header("Authorization", "Bearer b").build();
+        store(response(userA, 200, "account a"));
+
+        Response hit = cache.getDisk(userA);
+        assertNotNull(hit);
+        assertEquals("account a", hit.body().string());
+        assertNull(cache.getDisk(userB));
+        assertNull(cache.getDisk(new Request.Builder().url(URL).build()));
+    }
+
+    @Test public void diskEntryHonorsVary() throws IOException {
+        Request english = new Request.Builder().url(URL).header("Accept-Language", "en").build();
+        store(response(english, 200, "hello", "Vary", "Accept-Language"));
+
+        Response hit = cache.getDisk(new Request.Builder().url(URL).header("Accept-Language", "en").build());
+        assertNotNull(hit);
+        hit.close();
+        assertNull(cache.getDisk(new Request.Builder().url(URL).header("Accept-Language", "zh").build()));
+        assertNull(cache.getDisk(new Request.Builder().url(URL).build()));
+    }
+
+    @Test public void memoryEntryHonorsVary() {
+        Request english = new Request.Builder().url(URL).header("Accept-Language", "en").build();
+        HttpCache.Entry entry = new HttpCache.Entry(response(english, 200, "hello", "Vary", "Accept-Language"), "hello", 0);
+
+        assertTrue(entry.matches(english));
+        assertFalse(entry.matches(new Request.Builder().url(URL).header("Accept-Language", "zh").build()));
+    }
+
+    @Test public void removeUrlDropsAllIdentities() throws IOException {
+        Request userA = new Request.Builder().url(URL).header("Authorization", "Bearer a").build();
+        Request userB = new Request.Builder().url(URL).header("Authorization", "Bearer b").build();
+        store(response(userA, 200, "account a"));
+        store(response(userB, 200, "account b"));
+        assertTrue(cache.getDiskSize() > 0);
+
+        cache.remove(URL);
+        assertNull(cache.getDisk(userA));
+        assertNull(cache.getDisk(userB));
+        assertEquals(0, cache.getDiskSize());
+    }
+
+    @Test public void removeRequestKeepsOtherIdentities() throws IOException {
+        Request userA = new Request.Builder().url(URL).header("Authorization", "Bearer a").build();
+        Request userB = new Request.Builder().url(URL).header("Authorization", "Bearer b").build();
+        store(response(userA, 200, "account a"));
+        store(response(userB, 200, "account b"));
+
+        cache.remove(userA);
+        assertNull(cache.getDisk(userA));
+        Response hit = cache.getDisk(userB);
+        assertNotNull(hit);
+        assertEquals("account b", hit.body().string());
+    }
+
+    @Test public void indexEvictsLeastRecentlyUsed() throws IOException {
+        cache = new HttpCache(folder.newFolder("small"), 600, 16);
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 200; i++) body.append('x');
+        Request first = new Request.Builder().url(URL + "&page=1").build();
+        Request second = new Request.Builder().url(URL + "&page=2").build();
+        Request third = new Request.Builder().url(URL + "&page=3").build();
+        store(response(first, 200, body.toString()));
+        store(response(second, 200, body.toString()));
+        cache.getDisk(first).close();
+        store(response(third, 200, body.toString()));
+
+        assertTrue(cache.getDiskSize() <= 600);
+        assertNotNull(cache.getDisk(first));
+        assertNull(cache.getDisk(second));
+        assertNotNull(cache.getDisk(third));
+    }
+
+    @Test public void incompleteBodyIsNotCommitted() throws IOException {
+        Request request = new Request.Builder().url(URL).build();
+        Response writing = cache.cacheWriting(response(request, 200, "partial body"), 1000);
+        assertTrue(writing.body().source().request(1));
+
+        assertNull(cache.getDisk(request));
+        assertEquals(0, cache.getDiskSize());
+    }
+
+    /**
+     * 读完响应体后才提交到磁盘
+     */
+    private void store(Response response) throws IOException {
+        Response writing = cache.cacheWriting(response, 1000);
+        writing.body().string();
+    }
+
+    private static Response response(Request request, int code, String body, String... headers) {
+        Response.Builder builder = new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("test")
+                .body(ResponseBody.create(MediaType.parse("application/json"), body));
+        for (int i = 0; i < headers.length; i += 2) {
+            builder.addHeader(headers[i], headers[i + 1]);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,175 @@
+package com.supermax.base.common.http;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import okio.Buffer;
+import okio.Okio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * MessagePackCodec编码后由MessagePackReader流式解码
+ */
+public class MessagePackCodecTest {
+    private final Gson          gson      = new Gson();
+    private final HttpConverter converter = new HttpConverter();
+
+    static final class Model {
+        String               name;
+        int                  count;
+        long                 id;
+        double               ratio;
+        float                scale;
+        boolean              enabled;
+        String               missing;
+        byte[]               data;
+        List<String>         tags;
+        Map<String, Integer> scores;
+        Map<Integer, String> labels;
+        Model                child;
+    }
+
+    @Test public void roundTripObject() throws IOException {
+        Model model = new Model();
+        model.name = "测试 \"quote\"\n\t\u0001";
+        model.count = -33;
+        model.id = 0x1_0000_0000L;
+        model.ratio = 0.125;
+        model.scale = 1.5f;
+        model.enabled = true;
+        model.data = new byte[]{0, 1, -1, 127, -128};
+        model.tags = Arrays.asList("a", "b", "c");
+        model.scores = new HashMap<>();
+        model.scores.put("x", 300);
+        model.scores.put("y", -70000);
+        model.labels = new HashMap<>();
+        model.labels.put(1, "one");
+        model.labels.put(200, "two hundred");
+        model.child = new Model();
+        model.child.name = "child";
+
+        Model result = read(write(gson.toJsonTree(model)), Model.class);
+        assertEquals(model.name, result.name);
+        assertEquals(model.count, result.count);
+        assertEquals(model.id, result.id);
+        assertEquals(model.ratio, result.ratio, 0);
+        assertEquals(model.scale, result.scale, 0);
+        assertTrue(result.enabled);
+        assertNull(result.missing);
+        assertArrayEquals(model.data, result.data);
+        assertEquals(model.tags, result.tags);
+        assertEquals(model.scores, result.scores);
+        assertEquals(model.labels, result.labels);
+        assertEquals("child", result.child.name);
+        assertNull(result.child.child);
+    }
+
+    @Test public void roundTripContainerSizes() throws IOException {
+        for (int size : new int[]{0, 15, 16, 0xffff, 0x10000}) {
+            StringBuilder json = new StringBuilder("[");
+            for (int i = 0; i < size; i++) {
+                if (i > 0) json.append(',');
+                json.append(i % 3 == 0 ? "\"s" + i + "\"" : String.valueOf(i - size / 2));
+            }
+            json.append(']');
+            JsonElement tree = new JsonParser().parse(json.toString());
+            assertEquals("array size " + size, tree, read(write(tree), JsonElement.class));
+        }
+    }
+
+    @Test public void roundTripStringLengths() throws IOException {
+        for (int length : new int[]{0, 31, 32, 0xff, 0x100, 0x10000}) {
+            StringBuilder value = new StringBuilder();
+            for (int i = 0; i < length; i++) value.append((char) ('a' + i % 26));
+            Map<String, String> map = new HashMap<>();
+            map.put(value.toString(), value.toString());
+            Map<String, String> result = read(write(gson.toJsonTree(map)), new TypeToken<Map<String, String>>() {
+            }.getType());
+            assertEquals("string length " + length, map, result);
+        }
+    }
+
+    @Test public void readsIntegerFormats() throws IOException {
+        Buffer buffer = new Buffer();
+        buffer.writeByte(0x9a);
+        buffer.writeByte(0x7f);
+        buffer.writeByte(0xe0);
+        buffer.writeByte(0xcc).writeByte(0xff);
+        buffer.writeByte(0xcd).writeShort(0xffff);
+        buffer.writeByte(0xce).writeInt(0xffffffff);
+        buffer.writeByte(0xcf).writeLong(-1);
+        buffer.writeByte(0xd0).writeByte(-128);
+        buffer.writeByte(0xd1).writeShort(-32768);
+        buffer.writeByte(0xd2).writeInt(Integer.MIN_VALUE);
+        buffer.writeByte(0xd3).writeLong(Long.MIN_VALUE);
+        List<BigInteger> result = read(buffer, new TypeToken<List<BigInteger>>() {
+        }.getType());
+        assertEquals(Arrays.asList(BigInteger.valueOf(127), BigInteger.valueOf(-32), BigInteger.valueOf(255), BigInteger.valueOf(65535),
+                BigInteger.valueOf(0xffffffffL), BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE), BigInteger.valueOf(-128),
+                BigInteger.valueOf(-32768), BigInteger.valueOf(Integer.MIN_VALUE), BigInteger.valueOf(Long.MIN_VALUE)), result);
+    }
+
+    @Test public void extAndNilReadAsNull() throws IOException {
+        Buffer buffer = new Buffer();
+        buffer.writeByte(0x83);
+        buffer.writeByte(0xa1).writeUtf8("a").writeByte(0xd6).writeByte(1).writeInt(42);
+        buffer.writeByte(0xa1).writeUtf8("b").writeByte(0xc7).writeByte(3).writeByte(2).writeUtf8("xyz");
+        buffer.writeByte(0xa1).writeUtf8("c").writeByte(0xc0);
+        JsonElement result = read(buffer, JsonElement.class);
+        assertEquals(new JsonParser().parse("{\"a\":null,\"b\":null,\"c\":null}"), result);
+    }
+
+    @Test public void emptyBodyReadsNull() {
+        assertNull(converter.readerToObject(new MessagePackReader(new Buffer()), gson.getAdapter(Model.class)));
+    }
+
+    @Test public void containerKeyIsRejected() {
+        Buffer buffer = new Buffer();
+        buffer.writeByte(0x81).writeByte(0x90).writeByte(0x01);
+        try {
+            read(buffer, JsonElement.class);
+            fail();
+        } catch (RuntimeException expected) {
+            assertTrue(expected.getMessage().contains("map key"));
+        }
+    }
+
+    @Test public void truncatedInputFails() throws IOException {
+        Buffer encoded = write(new JsonParser().parse("{\"name\":\"truncated value\"}"));
+        Buffer truncated = new Buffer();
+        encoded.copyTo(truncated, 0, encoded.size() - 3);
+        try {
+            read(truncated, JsonElement.class);
+            fail();
+        } catch (RuntimeException expected) {
+            // JsonSyntaxException
+        }
+    }
+
+    private static Buffer write(JsonElement tree) throws IOException {
+        Buffer buffer = new Buffer();
+        MessagePackCodec.write(tree, buffer);
+        return buffer;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T read(Buffer buffer, java.lang.reflect.Type type) {
+        return (T) converter.readerToObject(new MessagePackReader(Okio.buffer(Okio.source(buffer.inputStream()))), converter.getAdapter(type));
+    }
+}
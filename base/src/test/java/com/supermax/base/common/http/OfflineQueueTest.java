@@ -0,0 +1,116 @@
+package com.supermax.base.common.http;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * OfflineQueue日志的持久化、损坏记录截断和失败次数
+ */
+public class OfflineQueueTest {
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+
+    @Before public void setUp() throws IOException {
+        directory = folder.newFolder("offline");
+    }
+
+    @Test public void pendingSurvivesReload() throws IOException {
+        OfflineQueue queue = new OfflineQueue(directory);
+        queue.enqueue("Api.post", "key-1", request("one"));
+        queue.enqueue("Api.post", "key-2", request("two"));
+        assertEquals(2, queue.size());
+
+        assertEquals(2, new OfflineQueue(directory).size());
+    }
+
+    @Test public void tornTailIsTruncated() throws IOException {
+        OfflineQueue queue = new OfflineQueue(directory);
+        queue.enqueue("Api.post", "key-1", request("one"));
+        long intact = journal().length();
+        queue.enqueue("Api.post", "key-2", request("two"));
+        truncateJournal(journal().length() - 3);
+
+        assertEquals(1, new OfflineQueue(directory).size());
+        assertEquals(intact, journal().length());
+    }
+
+    @Test public void corruptRecordIsTruncated() throws IOException {
+        OfflineQueue queue = new OfflineQueue(directory);
+        queue.enqueue("Api.post", "key-1", request("one"));
+        long intact = journal().length();
+        queue.enqueue("Api.post", "key-2", request("two"));
+        RandomAccessFile file = new RandomAccessFile(journal(), "rw");
+        try {
+            file.seek(intact + 9);
+            file.write(file.read() ^ 0xff);
+        } finally {
+            file.close();
+        }
+
+        OfflineQueue reloaded = new OfflineQueue(directory);
+        assertEquals(1, reloaded.size());
+        assertEquals(intact, journal().length());
+        reloaded.enqueue("Api.post", "key-3", request("three"));
+        assertEquals(2, new OfflineQueue(directory).size());
+    }
+
+    @Test public void attemptsSurviveReload() throws IOException {
+        OfflineQueue queue = new OfflineQueue(directory);
+        queue.enqueue("Api.post", "key-1", request("one"));
+        queue.enqueue("Api.post", "key-2", request("two"));
+        assertEquals(1, queue.recordFailure("key-1"));
+        assertEquals(2, queue.recordFailure("key-1"));
+        assertEquals(-1, queue.recordFailure("missing"));
+
+        OfflineQueue reloaded = new OfflineQueue(directory);
+        assertEquals(2, reloaded.attempts("key-1"));
+        assertEquals(0, reloaded.attempts("key-2"));
+        assertEquals(3, reloaded.recordFailure("key-1"));
+        assertEquals(3, new OfflineQueue(directory).attempts("key-1"));
+    }
+
+    @Test public void clearDeletesJournal() throws IOException {
+        OfflineQueue queue = new OfflineQueue(directory);
+        queue.enqueue("Api.post", "key-1", request("one"));
+        assertTrue(journal().exists());
+        queue.clear();
+
+        assertEquals(0, queue.size());
+        assertEquals(0, new OfflineQueue(directory).size());
+    }
+
+    private File journal() {
+        return new File(directory, OfflineQueue.JOURNAL_FILE);
+    }
+
+    private void truncateJournal(long length) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(journal(), "rw");
+        try {
+            file.setLength(length);
+        } finally {
+            file.close();
+        }
+    }
+
+    private static Request request(String body) {
+        return new Request.Builder()
+                .url("http://test.com/api/v1/orders")
+                .header("Idempotency-Key", body)
+                .post(RequestBody.create(MediaType.parse("application/json"), "{\"name\":\"" + body + "\"}"))
+                .build();
+    }
+}
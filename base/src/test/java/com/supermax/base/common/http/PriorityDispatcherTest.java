@@ -0,0 +1,81 @@
+package com.supermax.base.common.http;
+
+import android.support.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 同步请求在调用线程执行
+ */
+public class PriorityDispatcherTest {
+    private final OkHttpClient  client = new OkHttpClient();
+    private       MockWebServer server;
+
+    @Before public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @After public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test public void executeCallsBackOnCallerThread() {
+        server.enqueue(new MockResponse().setBody("ok"));
+        PriorityDispatcher dispatcher = new PriorityDispatcher(1);
+        HttpCall<Object> httpCall = new HttpCall<>(null, null, null, null, null);
+        final AtomicReference<Thread> calledBackOn = new AtomicReference<>();
+        final AtomicReference<Integer> code = new AtomicReference<>();
+        dispatcher.execute(httpCall, client.newCall(new Request.Builder().url(server.url("/")).build()), new Callback() {
+            @Override public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                calledBackOn.set(Thread.currentThread());
+            }
+
+            @Override public void onResponse(@NonNull Call call, @NonNull Response response) {
+                calledBackOn.set(Thread.currentThread());
+                code.set(response.code());
+                response.close();
+            }
+        });
+        assertSame(Thread.currentThread(), calledBackOn.get());
+        assertEquals(Integer.valueOf(200), code.get());
+        assertNotNull(httpCall.ticket);
+    }
+
+    @Test public void canceledCallFailsOnCallerThread() {
+        PriorityDispatcher dispatcher = new PriorityDispatcher(1);
+        HttpCall<Object> httpCall = new HttpCall<>(null, null, null, null, null);
+        Call call = client.newCall(new Request.Builder().url(server.url("/")).build());
+        httpCall.cancel();
+        httpCall.setRawCall(call);
+        final AtomicReference<IOException> failure = new AtomicReference<>();
+        dispatcher.execute(httpCall, call, new Callback() {
+            @Override public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                failure.set(e);
+            }
+
+            @Override public void onResponse(@NonNull Call call, @NonNull Response response) {
+                response.close();
+            }
+        });
+        assertNotNull(failure.get());
+        assertEquals(0, server.getRequestCount());
+    }
+}
@@ -0,0 +1,95 @@
+package com.supermax.base.common.http;
+
+import com.google.gson.Gson;
+import com.supermax.base.common.aspect.CompressType;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.GzipSource;
+import okio.Okio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * RequestCompressor的minSize阈值和压缩结果
+ */
+public class RequestCompressorTest {
+    private static final MediaType JSON = MediaType.parse("application/json; charset=UTF-8");
+
+    @Test public void knownLengthBelowMinSizeIsUntouched() throws IOException {
+        RequestBody body = RequestBody.create(JSON, text(1023));
+        assertSame(body, RequestCompressor.compress(body, CompressType.GZIP, 1024));
+    }
+
+    @Test public void knownLengthAtMinSizeIsCompressed() throws IOException {
+        String text = text(1024);
+        RequestBody compressed = RequestCompressor.compress(RequestBody.create(JSON, text), CompressType.GZIP, 1024);
+        assertEquals("gzip", RequestCompressor.encodingOf(compressed));
+        assertTrue(compressed.contentLength() < 1024);
+        assertEquals(text, gunzip(compressed));
+        assertEquals(JSON, compressed.contentType());
+    }
+
+    @Test public void unknownLengthBelowMinSizeKeepsOriginalBytes() throws IOException {
+        String[] values = {"a", "b", "c"};
+        String json = new Gson().toJson(values);
+        RequestBody body = new JsonRequestBody(new Gson(), JSON, values, String[].class);
+        RequestBody result = RequestCompressor.compress(body, CompressType.GZIP, 1024);
+        assertNull(RequestCompressor.encodingOf(result));
+        assertEquals(json, utf8(result));
+        assertEquals(JSON, result.contentType());
+    }
+
+    @Test public void unknownLengthCrossingMinSizeIsCompressed() throws IOException {
+        String[] values = new String[200];
+        Arrays.fill(values, "value");
+        RequestBody body = new JsonRequestBody(new Gson(), JSON, values, String[].class);
+        RequestBody result = RequestCompressor.compress(body, CompressType.DEFLATE, 512);
+        assertEquals("deflate", RequestCompressor.encodingOf(result));
+        assertEquals(new Gson().toJson(values), inflate(result));
+    }
+
+    @Test public void noneAndFileAreSkipped() throws IOException {
+        RequestBody body = RequestBody.create(JSON, text(4096));
+        assertSame(body, RequestCompressor.compress(body, CompressType.NONE, 0));
+        assertSame(body, RequestCompressor.compress(body, null, 0));
+        FileRequestBody file = new FileRequestBody(JSON, new java.io.File("unused"), 0, 4096, null);
+        assertSame(file, RequestCompressor.compress(file, CompressType.GZIP, 0));
+        assertNull(RequestCompressor.compress(null, CompressType.GZIP, 0));
+    }
+
+    private static String text(int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) builder.append((char) ('a' + i % 26));
+        return builder.toString();
+    }
+
+    private static String utf8(RequestBody body) throws IOException {
+        Buffer buffer = new Buffer();
+        body.writeTo(buffer);
+        return buffer.readUtf8();
+    }
+
+    private static String gunzip(RequestBody body) throws IOException {
+        Buffer buffer = new Buffer();
+        body.writeTo(buffer);
+        return Okio.buffer(new GzipSource(buffer)).readUtf8();
+    }
+
+    private static String inflate(RequestBody body) throws IOException {
+        Buffer buffer = new Buffer();
+        body.writeTo(buffer);
+        return Okio.buffer(Okio.source(new InflaterInputStream(buffer.inputStream(), new Inflater()))).readUtf8();
+    }
+}
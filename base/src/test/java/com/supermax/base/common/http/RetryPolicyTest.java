@@ -0,0 +1,95 @@
+package com.supermax.base.common.http;
+
+import com.supermax.base.common.aspect.Retry;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * RetryPolicy的退避区间、重试次数和Retry-After
+ */
+public class RetryPolicyTest {
+
+    interface Api {
+        @Retry(times = 3, backoffMs = 100, maxBackoffMs = 1000) void retry();
+
+        @Retry(times = 40, backoffMs = 100, maxBackoffMs = 1000) void manyRetry();
+    }
+
+    @Test public void failureDelayStaysInJitterWindow() throws Exception {
+        RetryPolicy policy = policy("retry");
+        for (int retryCount = 0; retryCount < 3; retryCount++) {
+            long ceiling = Math.min(1000, 100L << retryCount);
+            for (int i = 0; i < 200; i++) {
+                long delay = policy.delayForFailure(retryCount);
+                assertTrue("delay " + delay + " retry " + retryCount, delay >= 0 && delay < ceiling);
+            }
+        }
+    }
+
+    @Test public void stopsAfterTimes() throws Exception {
+        RetryPolicy policy = policy("retry");
+        assertEquals(RetryPolicy.NO_RETRY, policy.delayForFailure(3));
+        assertEquals(RetryPolicy.NO_RETRY, policy.delayForResponse(3, response(503, null)));
+    }
+
+    @Test public void backoffIsCappedForLargeRetryCount() throws Exception {
+        RetryPolicy policy = policy("manyRetry");
+        for (int retryCount = 20; retryCount < 40; retryCount++) {
+            long delay = policy.delayForFailure(retryCount);
+            assertTrue("delay " + delay, delay >= 0 && delay < 1000);
+        }
+    }
+
+    @Test public void onlyConfiguredCodesRetry() throws Exception {
+        RetryPolicy policy = policy("retry");
+        assertEquals(RetryPolicy.NO_RETRY, policy.delayForResponse(0, response(404, null)));
+        assertEquals(RetryPolicy.NO_RETRY, policy.delayForResponse(0, response(501, null)));
+        assertTrue(policy.delayForResponse(0, response(503, null)) >= 0);
+        assertTrue(policy.delayForResponse(0, response(429, null)) >= 0);
+    }
+
+    @Test public void retryAfterSecondsIsLowerBound() throws Exception {
+        RetryPolicy policy = policy("retry");
+        long unparsable = policy.delayForResponse(0, response(503, "soon"));
+        assertTrue(unparsable >= 0 && unparsable < 100);
+        assertTrue(policy.delayForResponse(0, response(429, "1")) >= 1000);
+        assertEquals(RetryPolicy.NO_RETRY, policy.delayForResponse(0, response(429, "2")));
+    }
+
+    @Test public void retryAfterHttpDate() throws Exception {
+        RetryPolicy policy = policy("retry");
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        long delay = policy.delayForResponse(0, response(503, format.format(new Date(System.currentTimeMillis() + 60 * 1000))));
+        assertEquals(RetryPolicy.NO_RETRY, delay);
+
+        delay = policy.delayForResponse(0, response(503, format.format(new Date(System.currentTimeMillis() - 60 * 1000))));
+        assertTrue(delay >= 0 && delay < 100);
+    }
+
+    private static RetryPolicy policy(String method) throws NoSuchMethodException {
+        return new RetryPolicy(Api.class.getDeclaredMethod(method).getAnnotation(Retry.class));
+    }
+
+    private static Response response(int code, String retryAfter) {
+        Response.Builder builder = new Response.Builder()
+                .request(new Request.Builder().url("http://test.com/").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("test");
+        if (retryAfter != null) builder.header("Retry-After", retryAfter);
+        return builder.build();
+    }
+}
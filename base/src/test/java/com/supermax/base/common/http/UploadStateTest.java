@@ -0,0 +1,165 @@
+package com.supermax.base.common.http;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Okio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 分块上传的位图在中断后恢复，只上传未确认的分块
+ */
+public class UploadStateTest {
+    private static final int CHUNK_SIZE = 4096;
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    private final MockWebServer server = new MockWebServer();
+    private final OkHttpClient  client = new OkHttpClient();
+    private File stateFile;
+
+    @Before public void setUp() throws IOException {
+        stateFile = new File(folder.newFolder("upload"), "state");
+        server.start();
+    }
+
+    @After public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test public void ackedChunksSurviveReload() {
+        UploadState state = new UploadState(stateFile, 10);
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), Arrays.asList(state.pending().toArray()));
+        assertFalse(state.ack(0));
+        assertFalse(state.ack(3));
+        assertFalse(state.ack(9));
+        state.save();
+
+        UploadState reloaded = new UploadState(stateFile, 10);
+        assertTrue(reloaded.isAcked(3));
+        assertFalse(reloaded.isAcked(4));
+        assertEquals(Arrays.asList(1, 2, 4, 5, 6, 7, 8), Arrays.asList(reloaded.pending().toArray()));
+    }
+
+    @Test public void fullyAckedResendsLastChunk() {
+        UploadState state = new UploadState(stateFile, 3);
+        state.ack(0);
+        state.ack(1);
+        assertTrue(state.ack(2));
+        state.save();
+
+        UploadState reloaded = new UploadState(stateFile, 3);
+        assertEquals(Arrays.asList(2), Arrays.asList(reloaded.pending().toArray()));
+        assertFalse(reloaded.isAcked(2));
+        assertTrue(reloaded.ack(2));
+    }
+
+    @Test public void mismatchedChunkCountStartsOver() {
+        UploadState state = new UploadState(stateFile, 10);
+        state.ack(1);
+        state.save();
+
+        assertEquals(12, new UploadState(stateFile, 12).pending().size());
+    }
+
+    @Test public void truncatedStateStartsOver() throws IOException {
+        UploadState state = new UploadState(stateFile, 20);
+        state.ack(1);
+        state.ack(17);
+        state.save();
+        Okio.buffer(Okio.sink(stateFile)).writeInt(20).writeByte(0xff).close();
+
+        assertEquals(20, new UploadState(stateFile, 20).pending().size());
+    }
+
+    @Test public void deleteRemovesState() {
+        UploadState state = new UploadState(stateFile, 2);
+        state.ack(0);
+        state.save();
+        state.delete();
+
+        assertFalse(stateFile.exists());
+        assertEquals(2, new UploadState(stateFile, 2).pending().size());
+    }
+
+    @Test public void resumeUploadsOnlyMissingChunks() throws Exception {
+        byte[] content = new byte[CHUNK_SIZE * 4 + 100];
+        for (int i = 0; i < content.length; i++) content[i] = (byte) (i * 7);
+        File file = folder.newFile("upload.bin");
+        Okio.buffer(Okio.sink(file)).write(content).close();
+        FileRequestBody body = new FileRequestBody(MediaType.parse("application/octet-stream"), file, 0, content.length, null);
+        int chunkCount = (content.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        server.enqueue(new MockResponse());
+        server.enqueue(new MockResponse());
+        server.enqueue(new MockResponse().setResponseCode(503));
+        UploadState state = new UploadState(stateFile, chunkCount);
+        upload(body, state, state.pending());
+        assertEquals(3, server.getRequestCount());
+
+        byte[] received = new byte[content.length];
+        for (int i = 0; i < 2; i++) {
+            copyChunk(server.takeRequest(), received);
+        }
+        server.takeRequest();
+
+        for (int i = 0; i < 3; i++) server.enqueue(new MockResponse());
+        UploadState resumed = new UploadState(stateFile, chunkCount);
+        ArrayDeque<Integer> pending = resumed.pending();
+        assertEquals(Arrays.asList(2, 3, 4), Arrays.asList(pending.toArray()));
+        assertTrue(upload(body, resumed, pending));
+        for (int i = 0; i < 3; i++) {
+            copyChunk(server.takeRequest(), received);
+        }
+        assertArrayEquals(content, received);
+    }
+
+    /**
+     * 和HttpUpload一样按Content-Range发送分块，每个成功的分块都写入位图
+     */
+    private boolean upload(FileRequestBody body, UploadState state, ArrayDeque<Integer> pending) throws IOException {
+        long total = body.contentLength();
+        boolean complete = false;
+        for (Integer index : pending) {
+            long start = (long) index * CHUNK_SIZE;
+            long length = Math.min(CHUNK_SIZE, total - start);
+            Request request = new Request.Builder()
+                    .url(server.url("/upload"))
+                    .header("Content-Range", "bytes " + start + "-" + (start + length - 1) + "/" + total)
+                    .put(body.slice(start, length))
+                    .build();
+            Response response = client.newCall(request).execute();
+            response.close();
+            if (!response.isSuccessful()) return false;
+            complete = state.ack(index);
+            state.save();
+        }
+        return complete;
+    }
+
+    private static void copyChunk(RecordedRequest request, byte[] received) {
+        String range = request.getHeader("Content-Range");
+        int start = Integer.parseInt(range.substring("bytes ".length(), range.indexOf('-')));
+        byte[] chunk = request.getBody().readByteArray();
+        System.arraycopy(chunk, 0, received, start, chunk.length);
+    }
+}
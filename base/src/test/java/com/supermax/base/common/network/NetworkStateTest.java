@@ -0,0 +1,28 @@
+package com.supermax.base.common.network;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * NetworkState只按连接状态判断是否变化
+ */
+public class NetworkStateTest {
+
+    @Test public void bandwidthDoesNotChangeEquality() {
+        NetworkState slow = new NetworkState(true, false, NetworkState.TRANSPORT_WIFI, 1000, 200);
+        NetworkState fast = new NetworkState(true, false, NetworkState.TRANSPORT_WIFI, 80000, 20000);
+        assertEquals(slow, fast);
+        assertEquals(slow.hashCode(), fast.hashCode());
+        assertEquals(80000, fast.getDownstreamKbps());
+    }
+
+    @Test public void connectivityChangesEquality() {
+        NetworkState wifi = new NetworkState(true, false, NetworkState.TRANSPORT_WIFI, 1000, 200);
+        assertNotEquals(wifi, new NetworkState(true, true, NetworkState.TRANSPORT_WIFI, 1000, 200));
+        assertNotEquals(wifi, new NetworkState(true, true, NetworkState.TRANSPORT_CELLULAR, 1000, 200));
+        assertNotEquals(wifi, new NetworkState(false, false, NetworkState.TRANSPORT_WIFI, 1000, 200));
+        assertNotEquals(wifi, NetworkState.UNAVAILABLE);
+    }
+}
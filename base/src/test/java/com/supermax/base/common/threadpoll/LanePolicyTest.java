@@ -0,0 +1,188 @@
+package com.supermax.base.common.threadpoll;
+
+import com.supermax.base.common.aspect.PriorityType;
+import com.supermax.base.common.aspect.ThreadType;
+import com.supermax.base.mvp.model.QsConstants;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 队列满时的拒绝策略
+ */
+public class LanePolicyTest {
+    private final CountDownLatch     release = new CountDownLatch(1);
+    private       ThreadPoolExecutor executor;
+
+    @After public void tearDown() {
+        release.countDown();
+        if (executor != null) executor.shutdownNow();
+    }
+
+    @Test public void lanesAbortByDefault() {
+        for (ThreadType type : new ThreadType[]{ThreadType.WORK, ThreadType.HTTP, ThreadType.SINGLE_WORK}) {
+            assertEquals(LanePolicy.RejectPolicy.ABORT, LanePolicy.defaultOf(type).rejectPolicy);
+        }
+        saturate(new LanePolicy(1, 1, 1));
+        try {
+            executor.execute(noop());
+            fail();
+        } catch (RejectedExecutionException expected) {
+            // 默认不在提交线程执行
+        }
+    }
+
+    @Test public void ioLaneHasHeadroomAndHigherPriority() {
+        LanePolicy work = LanePolicy.defaultOf(ThreadType.WORK);
+        LanePolicy http = LanePolicy.defaultOf(ThreadType.HTTP);
+        assertTrue(http.maxPoolSize > http.corePoolSize);
+        assertTrue(http.threadPriority < work.threadPriority);
+    }
+
+    @Test public void callerRunsOnWorkerThread() throws Exception {
+        saturate(new LanePolicy(1, 1, 1).setRejectPolicy(LanePolicy.RejectPolicy.CALLER_RUNS));
+        final AtomicReference<Thread> ranOn = new AtomicReference<>();
+        Thread submitter = new Thread(new Runnable() {
+            @Override public void run() {
+                executor.execute(new Runnable() {
+                    @Override public void run() {
+                        ranOn.set(Thread.currentThread());
+                    }
+                });
+            }
+        }, "submitter");
+        submitter.start();
+        submitter.join();
+        assertSame(submitter, ranOn.get());
+    }
+
+    @Test public void callerRunsAbortsOnScheduledThread() throws Exception {
+        saturate(new LanePolicy(1, 1, 1).setRejectPolicy(LanePolicy.RejectPolicy.CALLER_RUNS));
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final AtomicReference<Boolean> ran = new AtomicReference<>(false);
+        Thread timer = new Thread(new Runnable() {
+            @Override public void run() {
+                try {
+                    executor.execute(new Runnable() {
+                        @Override public void run() {
+                            ran.set(true);
+                        }
+                    });
+                } catch (Throwable e) {
+                    error.set(e);
+                }
+            }
+        }, QsConstants.NAME_SCHEDULED_THREAD);
+        timer.start();
+        timer.join();
+        assertTrue(error.get() instanceof RejectedExecutionException);
+        assertEquals(false, ran.get());
+    }
+
+    @Test public void discardOldestEvictsLowestPriority() throws Exception {
+        executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new HttpThreadPoll.BoundedPriorityQueue(2));
+        new LanePolicy(1, 1, 2).setRejectPolicy(LanePolicy.RejectPolicy.DISCARD_OLDEST).apply(executor, "test");
+        final List<String> ran = Collections.synchronizedList(new ArrayList<String>());
+        executor.execute(new PriorityRunnable(new Runnable() {
+            @Override public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        }, PriorityType.HIGH));
+        executor.execute(record(ran, "high", PriorityType.HIGH));
+        executor.execute(record(ran, "low", PriorityType.LOW));
+        executor.execute(record(ran, "normal", PriorityType.NORMAL));
+        executor.execute(record(ran, "background", PriorityType.BACKGROUND));
+
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("high", "normal"), ran);
+    }
+
+    @Test public void discardCancelsSubmittedTask() throws Exception {
+        saturate(new LanePolicy(1, 1, 1).setRejectPolicy(LanePolicy.RejectPolicy.DISCARD));
+        TaskRegistry registry = new TaskRegistry();
+        Object owner = new Object();
+        Future<?> future = registry.submit(owner, executor, noop(), null);
+        assertTrue(future.isCancelled());
+        assertEquals(0, registry.cancel(owner));
+    }
+
+    @Test public void discardOldestCancelsEvictedTask() throws Exception {
+        executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new HttpThreadPoll.BoundedPriorityQueue(1));
+        new LanePolicy(1, 1, 1).setRejectPolicy(LanePolicy.RejectPolicy.DISCARD_OLDEST).apply(executor, "test");
+        executor.execute(new PriorityRunnable(new Runnable() {
+            @Override public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        }, PriorityType.HIGH));
+        TaskRegistry registry = new TaskRegistry();
+        Object owner = new Object();
+        Future<?> low = registry.submit(owner, executor, noop(), PriorityType.LOW);
+        Future<?> high = registry.submit(owner, executor, noop(), PriorityType.HIGH);
+        Future<?> background = registry.submit(owner, executor, noop(), PriorityType.BACKGROUND);
+        assertTrue(low.isCancelled());
+        assertTrue(background.isCancelled());
+
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(high.isDone() && !high.isCancelled());
+        assertEquals(0, registry.cancel(owner));
+    }
+
+    private static Runnable record(final List<String> ran, final String name, PriorityType priority) {
+        return new PriorityRunnable(new Runnable() {
+            @Override public void run() {
+                ran.add(name);
+            }
+        }, priority);
+    }
+
+    /**
+     * 一个线程被占住，队列里放满一个任务
+     */
+    private void saturate(LanePolicy policy) {
+        executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(1));
+        policy.apply(executor, "test");
+        executor.execute(new Runnable() {
+            @Override public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        });
+        executor.execute(noop());
+    }
+
+    private static Runnable noop() {
+        return new Runnable() {
+            @Override public void run() {
+            }
+        };
+    }
+}
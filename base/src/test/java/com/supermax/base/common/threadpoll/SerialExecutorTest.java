@@ -0,0 +1,144 @@
+package com.supermax.base.common.threadpoll;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * SerialExecutor的执行顺序，以及线程池拒绝时不会停住
+ */
+public class SerialExecutorTest {
+    private SingleThreadPoll pool;
+
+    @After public void tearDown() {
+        if (pool != null) pool.shutdownNow();
+    }
+
+    @Test public void sameKeyRunsInOrderOneAtATime() throws Exception {
+        pool = new SingleThreadPoll(new LanePolicy(4, 4, 1024));
+        Executor serial = pool.serial("db");
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(200);
+        for (int i = 0; i < 200; i++) {
+            final int index = i;
+            serial.execute(new Runnable() {
+                @Override public void run() {
+                    int now = running.incrementAndGet();
+                    if (now > maxRunning.get()) maxRunning.set(now);
+                    order.add(index);
+                    running.decrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, maxRunning.get());
+        for (int i = 0; i < 200; i++) assertEquals(Integer.valueOf(i), order.get(i));
+    }
+
+    @Test public void differentKeysRunInParallel() throws Exception {
+        pool = new SingleThreadPoll(new LanePolicy(2, 2, 16));
+        final CountDownLatch bothStarted = new CountDownLatch(2);
+        final CountDownLatch done = new CountDownLatch(2);
+        Runnable task = new Runnable() {
+            @Override public void run() {
+                bothStarted.countDown();
+                try {
+                    if (bothStarted.await(5, TimeUnit.SECONDS)) done.countDown();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        };
+        pool.serial("a").execute(task);
+        pool.serial("b").execute(task);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test public void saturatedPoolKeepsKeyDraining() throws Exception {
+        pool = new SingleThreadPoll(new LanePolicy(1, 1, 1));
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch done = new CountDownLatch(3);
+        pool.serial("a").execute(new Runnable() {
+            @Override public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+                order.add("a1");
+                done.countDown();
+            }
+        });
+        pool.serial("a").execute(record(order, "a2", done));
+        pool.serial("b").execute(record(order, "b1", done));
+        try {
+            pool.serial("c").execute(record(order, "c1", done));
+            fail();
+        } catch (RejectedExecutionException expected) {
+            // 线程和线程池队列都已占满
+        }
+
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals("a1", order.get(0));
+        assertTrue(order.indexOf("a2") > 0);
+        assertTrue(order.contains("b1"));
+
+        CountDownLatch later = new CountDownLatch(1);
+        pool.serial("a").execute(record(order, "a3", later));
+        assertTrue("key a is still usable", later.await(5, TimeUnit.SECONDS));
+        later = new CountDownLatch(1);
+        pool.serial("c").execute(record(order, "c2", later));
+        assertTrue("key c is still usable", later.await(5, TimeUnit.SECONDS));
+        assertTrue(!order.contains("c1"));
+    }
+
+    @Test public void shutdownDropsQueuedTasks() throws Exception {
+        pool = new SingleThreadPoll(new LanePolicy(1, 1, 16));
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        pool.serial("a").execute(new Runnable() {
+            @Override public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        });
+        FutureTask<Void> queued = new FutureTask<>(new Runnable() {
+            @Override public void run() {
+            }
+        }, null);
+        pool.serial("a").execute(queued);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        pool.shutdown();
+        release.countDown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(queued.isCancelled());
+    }
+
+    private static Runnable record(final List<String> order, final String name, final CountDownLatch done) {
+        return new Runnable() {
+            @Override public void run() {
+                order.add(name);
+                done.countDown();
+            }
+        };
+    }
+}